@@ -0,0 +1,64 @@
+package com.example.customer.benchmark;
+
+import com.example.customer.customer.dto.CustomerMapper;
+import com.example.customer.customer.dto.CustomerRequest;
+import com.example.customer.customer.dto.CustomerResponse;
+import com.example.customer.customer.models.Address;
+import com.example.customer.customer.models.Customer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping cost of the customer write and read paths; {@code fromCustomer} runs on every order-service lookup.
+ * Run with {@code mvn -Pjmh verify -DskipTests}; the gc profiler reports the allocation rate per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CustomerMapperBenchmark {
+
+    private CustomerMapper customerMapper;
+    private CustomerRequest customerRequest;
+    private Customer customer;
+
+    @Setup
+    public void setUp() {
+        customerMapper = new CustomerMapper();
+        Address address = Address.builder()
+                .street("12 rue des Lilas")
+                .houseName("B")
+                .zipCode("75011")
+                .build();
+        customerRequest = CustomerRequest.builder()
+                .id("customer-1")
+                .firstName("Jane")
+                .lastName("Doe")
+                .email("jane.doe@example.com")
+                .adress(address)
+                .build();
+        customer = customerMapper.toCustomer(customerRequest);
+    }
+
+    @Benchmark
+    public Customer toCustomer() {
+        return customerMapper.toCustomer(customerRequest);
+    }
+
+    @Benchmark
+    public CustomerResponse fromCustomer() {
+        return customerMapper.fromCustomer(customer);
+    }
+}
@@ -0,0 +1,142 @@
+package com.ecommerce.notificationserver.benchmark;
+
+import com.ecommerce.notificationserver.kafka.codec.BinaryEvents;
+import com.ecommerce.notificationserver.kafka.codec.NotificationEventDeserializer;
+import com.ecommerce.notificationserver.kafka.payment.PaymentMethod;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning the order and payment messages back into records through the
+ * {@link NotificationEventDeserializer} configured like notification-service.properties, for JSON payloads
+ * (type id header included) and for binary ones. Payload sizes are printed once per trial.
+ * Run with {@code mvn -Pjmh verify -DskipTests}; the gc profiler reports the allocation rate per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class NotificationDeserializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int productCount;
+
+    private NotificationEventDeserializer deserializer;
+    private byte[] orderPayload;
+    private byte[] paymentPayload;
+    private byte[] binaryOrderPayload;
+    private byte[] binaryPaymentPayload;
+    private Headers orderHeaders;
+    private Headers paymentHeaders;
+
+    @Setup
+    public void setUp() {
+        deserializer = new NotificationEventDeserializer();
+        deserializer.configure(
+                Map.of(
+                        JsonDeserializer.TRUSTED_PACKAGES, "*",
+                        JsonDeserializer.TYPE_MAPPINGS,
+                        "orderConfirmation:com.ecommerce.notificationserver.kafka.order.OrderConfirmation,"
+                                + "paymentConfirmation:com.ecommerce.notificationserver.kafka.payment.PaymentConfirmation",
+                        // the same headers are replayed on every invocation
+                        JsonDeserializer.REMOVE_TYPE_INFO_HEADERS, false
+                ),
+                false
+        );
+
+        StringBuilder products = new StringBuilder();
+        for (int i = 0; i < productCount; i++) {
+            if (i > 0) {
+                products.append(',');
+            }
+            products.append("{\"productId\":").append(100 + i).append(",\"quantity\":2.0}");
+        }
+        orderPayload = ("{\"orderReference\":\"ORD-2024-000001\",\"totalAmount\":1249.90,\"paymentMethod\":\"CREDIT_CARD\","
+                + "\"customer\":{\"id\":\"customer-1\",\"firstname\":\"Jane\",\"lastname\":\"Doe\",\"email\":\"jane.doe@example.com\"},"
+                + "\"products\":[" + products + "]}").getBytes(StandardCharsets.UTF_8);
+        paymentPayload = ("{\"orderReference\":\"ORD-2024-000001\",\"amount\":1249.90,\"paymentMethod\":\"CREDIT_CARD\","
+                + "\"customerFirstname\":\"Jane\",\"customerLastname\":\"Doe\",\"customerEmail\":\"jane.doe@example.com\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        var binaryOrder = new BinaryEvents.Writer(BinaryEvents.ORDER_CONFIRMATION)
+                .writeString("ORD-2024-000001")
+                .writeDecimal(new BigDecimal("1249.90"))
+                .writeEnum(PaymentMethod.CREDIT_CARD, BinaryEvents.PAYMENT_METHODS)
+                .writePresence(Boolean.TRUE)
+                .writeString("customer-1")
+                .writeString("Jane")
+                .writeString("Doe")
+                .writeString("jane.doe@example.com")
+                .writeListSize(Collections.nCopies(productCount, 0));
+        for (int i = 0; i < productCount; i++) {
+            binaryOrder.writeNullableInt(100 + i).writeDouble(2.0);
+        }
+        binaryOrderPayload = binaryOrder.toByteArray();
+        binaryPaymentPayload = new BinaryEvents.Writer(BinaryEvents.PAYMENT_CONFIRMATION)
+                .writeString("ORD-2024-000001")
+                .writeDecimal(new BigDecimal("1249.90"))
+                .writeEnum(PaymentMethod.CREDIT_CARD, BinaryEvents.PAYMENT_METHODS)
+                .writeString("Jane")
+                .writeString("Doe")
+                .writeString("jane.doe@example.com")
+                .toByteArray();
+        System.out.printf("%nproducts=%d bytes per order event: json=%d binary=%d, per payment event: json=%d binary=%d%n",
+                productCount, orderPayload.length, binaryOrderPayload.length, paymentPayload.length, binaryPaymentPayload.length);
+
+        orderHeaders = typeIdHeaders("orderConfirmation");
+        paymentHeaders = typeIdHeaders("paymentConfirmation");
+    }
+
+    @TearDown
+    public void tearDown() {
+        deserializer.close();
+    }
+
+    @Benchmark
+    public Object deserializeOrderConfirmation() {
+        return deserializer.deserialize("order-topic", orderHeaders, orderPayload);
+    }
+
+    @Benchmark
+    public Object deserializePaymentConfirmation() {
+        return deserializer.deserialize("payment-topic", paymentHeaders, paymentPayload);
+    }
+
+    @Benchmark
+    public Object deserializeBinaryOrderConfirmation() {
+        return deserializer.deserialize("order-topic", new RecordHeaders(), binaryOrderPayload);
+    }
+
+    @Benchmark
+    public Object deserializeBinaryPaymentConfirmation() {
+        return deserializer.deserialize("payment-topic", new RecordHeaders(), binaryPaymentPayload);
+    }
+
+    private static Headers typeIdHeaders(String typeId) {
+        RecordHeaders headers = new RecordHeaders();
+        headers.add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, typeId.getBytes(StandardCharsets.UTF_8));
+        return headers;
+    }
+}
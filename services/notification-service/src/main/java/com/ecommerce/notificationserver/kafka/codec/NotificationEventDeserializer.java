@@ -0,0 +1,90 @@
+package com.ecommerce.notificationserver.kafka.codec;
+
+import com.ecommerce.notificationserver.kafka.order.Customer;
+import com.ecommerce.notificationserver.kafka.order.OrderConfirmation;
+import com.ecommerce.notificationserver.kafka.order.Product;
+import com.ecommerce.notificationserver.kafka.payment.PaymentConfirmation;
+import com.ecommerce.notificationserver.kafka.payment.PaymentMethod;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.Headers;
+import org.apache.kafka.common.serialization.Deserializer;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads order and payment events in either format: {@link BinaryEvents} when the payload starts with
+ * the magic byte, JSON otherwise. The JSON path is a {@link JsonDeserializer} configured with the
+ * consumer properties, so the type mapping headers keep working while producers are switched over.
+ */
+public class NotificationEventDeserializer implements Deserializer<Object> {
+
+    private final JsonDeserializer<Object> jsonDeserializer = new JsonDeserializer<>();
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        jsonDeserializer.configure(configs, isKey);
+    }
+
+    @Override
+    public Object deserialize(String topic, byte[] data) {
+        return BinaryEvents.isBinary(data) ? decode(data) : jsonDeserializer.deserialize(topic, data);
+    }
+
+    @Override
+    public Object deserialize(String topic, Headers headers, byte[] data) {
+        return BinaryEvents.isBinary(data) ? decode(data) : jsonDeserializer.deserialize(topic, headers, data);
+    }
+
+    @Override
+    public void close() {
+        jsonDeserializer.close();
+    }
+
+    private Object decode(byte[] data) {
+        var reader = new BinaryEvents.Reader(data);
+        return switch (reader.type()) {
+            case BinaryEvents.ORDER_CONFIRMATION -> readOrderConfirmation(reader);
+            case BinaryEvents.PAYMENT_CONFIRMATION -> readPaymentConfirmation(reader);
+            default -> throw new SerializationException("Unknown binary event type " + reader.type());
+        };
+    }
+
+    private OrderConfirmation readOrderConfirmation(BinaryEvents.Reader reader) {
+        String orderReference = reader.readString();
+        var totalAmount = reader.readDecimal();
+        PaymentMethod paymentMethod = paymentMethod(reader.readEnum(BinaryEvents.PAYMENT_METHODS));
+        Customer customer = reader.readPresence()
+                ? new Customer(reader.readString(), reader.readString(), reader.readString(), reader.readString())
+                : null;
+        int productCount = reader.readListSize();
+        List<Product> products = null;
+        if (productCount >= 0) {
+            products = new ArrayList<>(productCount);
+            for (int i = 0; i < productCount; i++) {
+                products.add(Product.builder()
+                        .productId(reader.readNullableInt())
+                        .quantity(reader.readDouble())
+                        .build());
+            }
+        }
+        return new OrderConfirmation(orderReference, totalAmount, paymentMethod, customer, products);
+    }
+
+    private PaymentConfirmation readPaymentConfirmation(BinaryEvents.Reader reader) {
+        return new PaymentConfirmation(
+                reader.readString(),
+                reader.readDecimal(),
+                paymentMethod(reader.readEnum(BinaryEvents.PAYMENT_METHODS)),
+                reader.readString(),
+                reader.readString(),
+                reader.readString()
+        );
+    }
+
+    private static PaymentMethod paymentMethod(String symbol) {
+        return symbol == null ? null : PaymentMethod.valueOf(symbol);
+    }
+}
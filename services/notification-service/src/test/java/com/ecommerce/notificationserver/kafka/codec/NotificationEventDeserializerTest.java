@@ -0,0 +1,165 @@
+package com.ecommerce.notificationserver.kafka.codec;
+
+import com.ecommerce.notificationserver.kafka.order.Customer;
+import com.ecommerce.notificationserver.kafka.order.OrderConfirmation;
+import com.ecommerce.notificationserver.kafka.payment.PaymentConfirmation;
+import com.ecommerce.notificationserver.kafka.payment.PaymentMethod;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.support.mapping.AbstractJavaTypeMapper;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("🧪 NotificationEventDeserializer Unit Tests")
+class NotificationEventDeserializerTest {
+
+    private NotificationEventDeserializer deserializer;
+
+    @BeforeEach
+    void setUp() {
+        deserializer = new NotificationEventDeserializer();
+        deserializer.configure(Map.of(
+                JsonDeserializer.TRUSTED_PACKAGES, "*",
+                JsonDeserializer.TYPE_MAPPINGS,
+                "orderConfirmation:com.ecommerce.notificationserver.kafka.order.OrderConfirmation,"
+                        + "paymentConfirmation:com.ecommerce.notificationserver.kafka.payment.PaymentConfirmation"
+        ), false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        deserializer.close();
+    }
+
+    @Test
+    @DisplayName("✅ Should read a binary order confirmation")
+    void shouldReadBinaryOrderConfirmation() {
+        // GIVEN
+        byte[] data = new BinaryEvents.Writer(BinaryEvents.ORDER_CONFIRMATION)
+                .writeString("REF123")
+                .writeDecimal(new BigDecimal("2000.50"))
+                .writeEnum(PaymentMethod.VISA, BinaryEvents.PAYMENT_METHODS)
+                .writePresence(Boolean.TRUE)
+                .writeString("1")
+                .writeString("Salma")
+                .writeString("Imassenda")
+                .writeString("salma@example.com")
+                .writeListSize(List.of(1))
+                .writeNullableInt(7)
+                .writeDouble(3)
+                .toByteArray();
+
+        // WHEN
+        Object event = deserializer.deserialize("order-topic", new RecordHeaders(), data);
+
+        // THEN
+        var confirmation = assertInstanceOf(OrderConfirmation.class, event);
+        assertEquals("REF123", confirmation.orderReference());
+        assertEquals(new BigDecimal("2000.50"), confirmation.totalAmount());
+        assertEquals(PaymentMethod.VISA, confirmation.paymentMethod());
+        assertEquals(new Customer("1", "Salma", "Imassenda", "salma@example.com"), confirmation.customer());
+        assertEquals(1, confirmation.products().size());
+        assertEquals(7, confirmation.products().get(0).productId());
+        assertEquals(3.0, confirmation.products().get(0).quantity());
+    }
+
+    @Test
+    @DisplayName("✅ Should read a binary payment confirmation")
+    void shouldReadBinaryPaymentConfirmation() {
+        byte[] data = new BinaryEvents.Writer(BinaryEvents.PAYMENT_CONFIRMATION)
+                .writeString("REF123")
+                .writeDecimal(new BigDecimal("99.90"))
+                .writeEnum(PaymentMethod.PAYPAL, BinaryEvents.PAYMENT_METHODS)
+                .writeString("Salma")
+                .writeString("Imassenda")
+                .writeString("salma@example.com")
+                .toByteArray();
+
+        Object event = deserializer.deserialize("payment-topic", new RecordHeaders(), data);
+
+        assertEquals(
+                new PaymentConfirmation("REF123", new BigDecimal("99.90"), PaymentMethod.PAYPAL,
+                        "Salma", "Imassenda", "salma@example.com"),
+                event
+        );
+    }
+
+    @Test
+    @DisplayName("🔒 Should read the pinned order confirmation written by order-service")
+    void shouldReadPinnedOrderConfirmation() {
+        // GIVEN the bytes pinned in order-service's OrderConfirmationSerializerTest
+        byte[] data = HexFormat.of().parseHex("ec0101" + "07524546313233" + "04030d7204" + "02"
+                + "01" + "0231" + "0653616c6d61" + "0a496d617373656e6461" + "1273616c6d61406578616d706c652e636f6d"
+                + "03" + "0102" + "4000000000000000" + "00" + "3fe0000000000000");
+
+        // WHEN
+        Object event = deserializer.deserialize("order-topic", new RecordHeaders(), data);
+
+        // THEN
+        var confirmation = assertInstanceOf(OrderConfirmation.class, event);
+        assertEquals("REF123", confirmation.orderReference());
+        assertEquals(new BigDecimal("2000.50"), confirmation.totalAmount());
+        assertEquals(PaymentMethod.CREDIT_CARD, confirmation.paymentMethod());
+        assertEquals(new Customer("1", "Salma", "Imassenda", "salma@example.com"), confirmation.customer());
+        assertEquals(2, confirmation.products().size());
+        assertEquals(1, confirmation.products().get(0).productId());
+        assertEquals(2.0, confirmation.products().get(0).quantity());
+        assertNull(confirmation.products().get(1).productId());
+        assertEquals(0.5, confirmation.products().get(1).quantity());
+    }
+
+    @Test
+    @DisplayName("🔒 Should read the pinned payment confirmation written by payement-service")
+    void shouldReadPinnedPaymentConfirmation() {
+        // GIVEN the bytes pinned in payement-service's PaymentNotificationSerializerTest
+        byte[] data = HexFormat.of().parseHex("ec0102" + "07524546313233" + "04030d7204" + "03"
+                + "0653616c6d61" + "0a496d617373656e6461" + "1273616c6d61406578616d706c652e636f6d");
+
+        Object event = deserializer.deserialize("payment-topic", new RecordHeaders(), data);
+
+        assertEquals(
+                new PaymentConfirmation("REF123", new BigDecimal("2000.50"), PaymentMethod.VISA,
+                        "Salma", "Imassenda", "salma@example.com"),
+                event
+        );
+    }
+
+    @Test
+    @DisplayName("🔁 Should still read JSON events with a type header")
+    void shouldFallBackToJson() {
+        // GIVEN
+        var headers = new RecordHeaders();
+        headers.add(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, "paymentConfirmation".getBytes(StandardCharsets.UTF_8));
+        byte[] data = ("{\"orderReference\":\"REF123\",\"amount\":99.90,\"paymentMethod\":\"PAYPAL\","
+                + "\"customerFirstname\":\"Salma\",\"customerLastname\":\"Imassenda\",\"customerEmail\":\"salma@example.com\"}")
+                .getBytes(StandardCharsets.UTF_8);
+
+        // WHEN
+        Object event = deserializer.deserialize("payment-topic", headers, data);
+
+        // THEN
+        var confirmation = assertInstanceOf(PaymentConfirmation.class, event);
+        assertEquals("REF123", confirmation.orderReference());
+        assertEquals(PaymentMethod.PAYPAL, confirmation.paymentMethod());
+    }
+
+    @Test
+    @DisplayName("🚫 Should reject an unknown binary event type")
+    void shouldRejectUnknownType() {
+        byte[] data = new BinaryEvents.Writer((byte) 42).toByteArray();
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("order-topic", new RecordHeaders(), data));
+    }
+}
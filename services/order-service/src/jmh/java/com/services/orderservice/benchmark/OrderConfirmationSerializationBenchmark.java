@@ -0,0 +1,108 @@
+package com.services.orderservice.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.services.orderservice.customers.customer.CustomerResponse;
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.kafka.OrderConfirmation;
+import com.services.orderservice.kafka.OrderProducer;
+import com.services.orderservice.kafka.codec.OrderConfirmationSerializer;
+import com.services.orderservice.order.PaymentMethod;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning an {@link OrderConfirmation} into bytes on both legs of the publish path: the outbox
+ * payload written with Jackson, and the Kafka {@link JsonSerializer} configured like order-service.properties
+ * (type mapping header included), compared with the binary {@link OrderConfirmationSerializer}. The payload
+ * sizes of both Kafka formats are printed once per trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderConfirmationSerializationBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int productCount;
+
+    private ObjectMapper objectMapper;
+    private JsonSerializer<OrderConfirmation> serializer;
+    private OrderConfirmationSerializer binarySerializer;
+    private OrderConfirmation orderConfirmation;
+    private String outboxPayload;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+
+        serializer = new JsonSerializer<>(objectMapper);
+        serializer.configure(
+                Map.of(JsonSerializer.TYPE_MAPPINGS, "orderConfirmation:com.services.orderservice.kafka.OrderConfirmation"),
+                false
+        );
+
+        List<ProductPurchaseRequest> products = new ArrayList<>(productCount);
+        for (int i = 0; i < productCount; i++) {
+            products.add(new ProductPurchaseRequest(100 + i, 2));
+        }
+        orderConfirmation = new OrderConfirmation(
+                "ORD-2024-000001",
+                new BigDecimal("1249.90"),
+                PaymentMethod.CREDIT_CARD,
+                new CustomerResponse("customer-1", "Jane", "Doe", "jane.doe@example.com"),
+                products
+        );
+        outboxPayload = objectMapper.writeValueAsString(orderConfirmation);
+
+        binarySerializer = new OrderConfirmationSerializer();
+        System.out.printf("%nproducts=%d bytes per event: json=%d binary=%d%n",
+                productCount,
+                serializer.serialize(OrderProducer.ORDER_TOPIC, new RecordHeaders(), orderConfirmation).length,
+                binarySerializer.serialize(OrderProducer.ORDER_TOPIC, orderConfirmation).length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public String writeOutboxPayload() throws Exception {
+        return objectMapper.writeValueAsString(orderConfirmation);
+    }
+
+    @Benchmark
+    public OrderConfirmation readOutboxPayload() throws Exception {
+        return objectMapper.readValue(outboxPayload, OrderConfirmation.class);
+    }
+
+    @Benchmark
+    public byte[] kafkaSerialize() {
+        return serializer.serialize(OrderProducer.ORDER_TOPIC, new RecordHeaders(), orderConfirmation);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize(OrderProducer.ORDER_TOPIC, orderConfirmation);
+    }
+}
@@ -0,0 +1,95 @@
+package com.services.orderservice.benchmark;
+
+import com.services.orderservice.order.Order;
+import com.services.orderservice.order.OrderDetailResponse;
+import com.services.orderservice.order.OrderMapper;
+import com.services.orderservice.order.OrderResponse;
+import com.services.orderservice.order.OrderStatus;
+import com.services.orderservice.order.PaymentMethod;
+import com.services.orderservice.orderLine.OrderLine;
+import com.services.orderservice.orderLine.OrderLineMapper;
+import com.services.orderservice.orderLine.OrderLineRequest;
+import com.services.orderservice.orderLine.OrderLineResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping cost of the read paths (order summary, order detail) and of the order line conversions.
+ * Run with {@code mvn -Pjmh verify -DskipTests}; the gc profiler reports the allocation rate per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrderMapperBenchmark {
+
+    @Param({"1", "10", "50"})
+    private int lineCount;
+
+    private OrderMapper orderMapper;
+    private OrderLineMapper orderLineMapper;
+    private Order order;
+    private OrderLine orderLine;
+    private OrderLineRequest orderLineRequest;
+
+    @Setup
+    public void setUp() {
+        orderLineMapper = new OrderLineMapper();
+        orderMapper = new OrderMapper(orderLineMapper);
+
+        order = Order.builder()
+                .id(1)
+                .reference("ORD-2024-000001")
+                .totalAmount(new BigDecimal("1249.90"))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .customerId("customer-1")
+                .status(OrderStatus.CONFIRMED)
+                .build();
+
+        List<OrderLine> lines = new ArrayList<>(lineCount);
+        for (int i = 0; i < lineCount; i++) {
+            lines.add(OrderLine.builder().id(i + 1).order(order).productId(100 + i).quantity(2).build());
+        }
+        order.setOrderLines(lines);
+
+        orderLine = lines.get(0);
+        orderLineRequest = new OrderLineRequest(null, 1, 100, 2, LocalDateTime.now());
+    }
+
+    @Benchmark
+    public OrderResponse fromOrder() {
+        return orderMapper.fromOrder(order);
+    }
+
+    @Benchmark
+    public OrderDetailResponse toOrderDetail() {
+        return orderMapper.toOrderDetail(order);
+    }
+
+    @Benchmark
+    public OrderLine toOrderLine() {
+        return orderLineMapper.toOrderLine(orderLineRequest);
+    }
+
+    @Benchmark
+    public OrderLineResponse toOrderLineResponse() {
+        return orderLineMapper.toOrderLineResponse(orderLine);
+    }
+}
@@ -0,0 +1,38 @@
+package com.services.orderservice.config;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+
+import static com.services.orderservice.kafka.OrderCacheInvalidationPublisher.ORDER_CACHE_INVALIDATION_TOPIC;
+
+@Configuration
+@ConditionalOnProperty(name = "application.config.order-cache.broadcast-invalidations", havingValue = "true")
+public class KafkaOrderCacheConfig {
+
+    @Bean
+    public NewTopic orderCacheInvalidationTopic() {
+        return TopicBuilder
+                .name(ORDER_CACHE_INVALIDATION_TOPIC)
+                .build();
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, String> orderCacheInvalidationContainerFactory(
+            ConsumerFactory<String, String> consumerFactory
+    ) {
+        var factory = new ConcurrentKafkaListenerContainerFactory<String, String>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(
+                consumerFactory.getConfigurationProperties(),
+                new StringDeserializer(),
+                new StringDeserializer()
+        ));
+        return factory;
+    }
+}
@@ -1,6 +1,9 @@
 package com.services.orderservice.config;
 
+import com.services.orderservice.kafka.OrderProducer;
 import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.TopicBuilder;
@@ -8,10 +11,21 @@ import org.springframework.kafka.config.TopicBuilder;
 @Configuration
 public class KafkaOrderTopicConfig {
 
+    /**
+     * Events are keyed by customer, so the partition count bounds the consumer parallelism.
+     * Changing it later remaps customers to other partitions.
+     */
     @Bean
-    public NewTopic orderTopic() {
+    public NewTopic orderTopic(
+            @Value("${application.config.order-topic.partitions:6}") int partitions,
+            @Value("${application.config.order-topic.replicas:1}") int replicas,
+            @Value("${application.config.order-topic.compression-type:producer}") String compressionType
+    ) {
         return TopicBuilder
-                .name("order-topic")
+                .name(OrderProducer.ORDER_TOPIC)
+                .partitions(partitions)
+                .replicas(replicas)
+                .config(TopicConfig.COMPRESSION_TYPE_CONFIG, compressionType)
                 .build();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,51 @@
+package com.services.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class OrderExecutorConfig {
+
+    /**
+     * Bounded pool used to run independent downstream calls of an order concurrently.
+     * When the queue is full the caller runs the task itself, which throttles intake
+     * instead of failing the order.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderFanOutExecutor(
+            @Value("${application.config.fan-out.pool-size:16}") int poolSize,
+            @Value("${application.config.fan-out.queue-capacity:100}") int queueCapacity
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-fan-out-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Runs orders accepted in async mode. The queue holds every accepted order that is not
+     * running yet; admission is capped upstream at the same size, so nothing is rejected here.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor orderAcceptanceExecutor(
+            @Value("${application.config.async.workers:16}") int workers,
+            @Value("${application.config.async.max-in-flight:1000}") int maxInFlight
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(maxInFlight);
+        executor.setThreadNamePrefix("order-acceptance-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
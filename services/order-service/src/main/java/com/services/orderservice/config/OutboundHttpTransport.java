@@ -0,0 +1,145 @@
+package com.services.orderservice.config;
+
+import feign.Client;
+import feign.Request;
+import feign.hc5.ApacheHttp5Client;
+import feign.http2client.Http2Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.env.Environment;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outbound HTTP transport shared by the RestTemplate and the Feign clients.
+ * <p>
+ * Every downstream gets its own keep-alive connection pool, so a slow service can only
+ * exhaust its own connections. Pool usage is exported as {@code httpcomponents.httpclient.pool.*}
+ * metrics tagged with the downstream name. With {@code http2} enabled, a downstream is called
+ * through the JDK client instead, which multiplexes requests over a single connection.
+ * <p>
+ * Settings are read from {@code application.config.http.<downstream>.*}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboundHttpTransport implements DisposableBean {
+
+    public static final String CUSTOMER = "customer";
+    public static final String PAYMENT = "payment";
+    public static final String PRODUCT = "product";
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, CloseableHttpClient> pooledClients = new ConcurrentHashMap<>();
+    private final Map<String, HttpClient> http2Clients = new ConcurrentHashMap<>();
+
+    public ClientHttpRequestFactory requestFactory(String downstream) {
+        var settings = settings(downstream);
+        if (settings.http2()) {
+            var requestFactory = new JdkClientHttpRequestFactory(http2Client(downstream, settings));
+            requestFactory.setReadTimeout(Duration.ofMillis(settings.readTimeoutMs()));
+            return requestFactory;
+        }
+        return new HttpComponentsClientHttpRequestFactory(pooledClient(downstream, settings));
+    }
+
+    public Client feignClient(String downstream) {
+        var settings = settings(downstream);
+        if (settings.http2()) {
+            return new Http2Client(http2Client(downstream, settings));
+        }
+        return new ApacheHttp5Client(pooledClient(downstream, settings));
+    }
+
+    public Request.Options feignOptions(String downstream) {
+        var settings = settings(downstream);
+        return new Request.Options(
+                settings.connectTimeoutMs(), TimeUnit.MILLISECONDS,
+                settings.readTimeoutMs(), TimeUnit.MILLISECONDS,
+                true
+        );
+    }
+
+    @Override
+    public void destroy() {
+        pooledClients.values().forEach(client -> client.close(CloseMode.GRACEFUL));
+        http2Clients.values().forEach(HttpClient::close);
+    }
+
+    private CloseableHttpClient pooledClient(String downstream, Settings settings) {
+        return pooledClients.computeIfAbsent(downstream, name -> {
+            var connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                    .setMaxConnTotal(settings.maxConnections())
+                    .setMaxConnPerRoute(settings.maxConnections())
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.ofMilliseconds(settings.connectTimeoutMs()))
+                            .setSocketTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                            .setTimeToLive(TimeValue.ofSeconds(settings.connectionTtlSeconds()))
+                            .build())
+                    .build();
+            new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, name).bindTo(meterRegistry);
+            log.info("Outbound pool for {}: {} connections", name, settings.maxConnections());
+            return HttpClients.custom()
+                    .setConnectionManager(connectionManager)
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            // waiting this long for a free connection means the bulkhead is full
+                            .setConnectionRequestTimeout(Timeout.ofMilliseconds(settings.acquireTimeoutMs()))
+                            .setResponseTimeout(Timeout.ofMilliseconds(settings.readTimeoutMs()))
+                            .build())
+                    .evictIdleConnections(TimeValue.ofSeconds(settings.idleTimeoutSeconds()))
+                    .build();
+        });
+    }
+
+    private HttpClient http2Client(String downstream, Settings settings) {
+        return http2Clients.computeIfAbsent(downstream, name -> HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(settings.connectTimeoutMs()))
+                .build());
+    }
+
+    private Settings settings(String downstream) {
+        String prefix = "application.config.http." + downstream + ".";
+        return new Settings(
+                environment.getProperty(prefix + "max-connections", Integer.class, 50),
+                environment.getProperty(prefix + "connect-timeout-ms", Long.class, 1000L),
+                environment.getProperty(prefix + "read-timeout-ms", Long.class, 5000L),
+                environment.getProperty(prefix + "acquire-timeout-ms", Long.class, 500L),
+                environment.getProperty(prefix + "idle-timeout-seconds", Long.class, 30L),
+                environment.getProperty(prefix + "connection-ttl-seconds", Long.class, 300L),
+                environment.getProperty(prefix + "http2", Boolean.class, false)
+        );
+    }
+
+    private record Settings(
+            int maxConnections,
+            long connectTimeoutMs,
+            long readTimeoutMs,
+            long acquireTimeoutMs,
+            long idleTimeoutSeconds,
+            long connectionTtlSeconds,
+            boolean http2
+    ) {
+    }
+}
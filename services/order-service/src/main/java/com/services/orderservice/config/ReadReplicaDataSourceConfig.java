@@ -0,0 +1,101 @@
+package com.services.orderservice.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Replaces the auto-configured data source with a primary pool, one pool per replica and the
+ * {@link ReadReplicaRoutingDataSource} in front of them. Every pool is named after its target,
+ * so the Hikari metrics can be told apart.
+ */
+@Configuration
+@ConditionalOnProperty(name = "application.config.datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    /**
+     * Lag of a standby, or null when its WAL receiver is not streaming or has heard nothing from the
+     * primary for the receiver timeout: received and replayed positions then match while the replica
+     * falls behind. The primary sends keepalives even when idle, so a live receiver stays fresh.
+     * Reading pg_stat_wal_receiver needs pg_read_all_stats (or pg_monitor); without it the replica
+     * is never used.
+     */
+    private static final String DEFAULT_LAG_QUERY = """
+            select case
+                       when not pg_is_in_recovery() then 0
+                       when not exists (select 1
+                                        from pg_stat_wal_receiver
+                                        where status = 'streaming'
+                                          and last_msg_receipt_time > now() - interval '%d seconds') then null
+                       when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0
+                       else coalesce(extract(epoch from now() - pg_last_xact_replay_timestamp()), 0)
+                   end""";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("order-primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReadReplicaRoutingDataSource readReplicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.datasource.replicas.urls}") String[] urls,
+            @Value("${application.config.datasource.replicas.username:}") String username,
+            @Value("${application.config.datasource.replicas.password:}") String password,
+            @Value("${application.config.datasource.replicas.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${application.config.datasource.replicas.max-lag-seconds:5}") double maxLagSeconds,
+            @Value("${application.config.datasource.replicas.health-check-timeout-seconds:2}") int healthCheckTimeoutSeconds,
+            @Value("${application.config.datasource.replicas.receiver-timeout-seconds:60}") int receiverTimeoutSeconds,
+            @Value("${application.config.datasource.replicas.lag-query:}") String lagQuery
+    ) {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            var config = new HikariConfig();
+            config.setPoolName("order-replica-" + replicas.size());
+            config.setJdbcUrl(url.trim());
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setMaximumPoolSize(maximumPoolSize);
+            config.setReadOnly(true);
+            // a replica that is down at startup only means reads stay on the primary for now
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReadReplicaRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                maxLagSeconds,
+                lagQuery.isBlank() ? DEFAULT_LAG_QUERY.formatted(receiverTimeoutSeconds) : lagQuery,
+                healthCheckTimeoutSeconds,
+                meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRoutingDataSource readReplicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readReplicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,165 @@
+package com.services.orderservice.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends the work of {@code @Transactional(readOnly = true)} methods to a replica and everything
+ * else to the primary.
+ * <p>
+ * The target is chosen when the first statement runs, so this data source has to sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}. By then the read-only
+ * flag of the transaction is known. Reads go round-robin to the replicas that passed the last
+ * health check within the lag budget. When no replica qualifies, they fall back to the primary.
+ */
+@Slf4j
+public class ReadReplicaRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+    static final String PRIMARY = "primary";
+
+    private final List<Replica> replicas = new ArrayList<>();
+    private final double maxLagSeconds;
+    private final String lagQuery;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Map<String, Counter> routed = new HashMap<>();
+    private final Counter fallbacks;
+
+    public ReadReplicaRoutingDataSource(
+            DataSource primary,
+            Map<String, DataSource> replicas,
+            double maxLagSeconds,
+            String lagQuery,
+            int healthCheckTimeoutSeconds,
+            MeterRegistry meterRegistry
+    ) {
+        this.maxLagSeconds = maxLagSeconds;
+        this.lagQuery = lagQuery;
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        routed.put(PRIMARY, routedCounter(PRIMARY, meterRegistry));
+        replicas.forEach((name, dataSource) -> {
+            var replica = new Replica(name, dataSource, healthCheckTimeoutSeconds);
+            this.replicas.add(replica);
+            targets.put(name, dataSource);
+            routed.put(name, routedCounter(name, meterRegistry));
+            Gauge.builder("order.datasource.replica.lag", replica, r -> r.lagSeconds)
+                    .description("Replication lag seen by the last health check")
+                    .baseUnit("seconds")
+                    .tag("target", name)
+                    .register(meterRegistry);
+            Gauge.builder("order.datasource.replica.healthy", replica, r -> r.healthy ? 1 : 0)
+                    .description("1 when the replica answered the last health check")
+                    .tag("target", name)
+                    .register(meterRegistry);
+        });
+        this.fallbacks = Counter.builder("order.datasource.replica.fallback")
+                .description("Read-only transactions sent to the primary because no replica was usable")
+                .register(meterRegistry);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        checkReplicas();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String target = TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? pickReplica() : PRIMARY;
+        routed.get(target).increment();
+        return target;
+    }
+
+    private String pickReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            var replica = replicas.get((start + i) % size);
+            if (replica.healthy && replica.lagSeconds <= maxLagSeconds) {
+                return replica.name;
+            }
+        }
+        fallbacks.increment();
+        return PRIMARY;
+    }
+
+    /**
+     * Runs the lag query on every replica. A replica that fails it, or whose lag is unknown
+     * (the query returns null), is left out until a later check succeeds again.
+     */
+    @Scheduled(fixedDelayString = "${application.config.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkReplicas() {
+        for (var replica : replicas) {
+            try {
+                Double lag = replica.jdbcTemplate.queryForObject(lagQuery, Double.class);
+                if (lag == null) {
+                    if (replica.healthy) {
+                        log.warn("Replica {} cannot tell its lag, its WAL receiver is not streaming; reads go elsewhere",
+                                replica.name);
+                    }
+                    replica.healthy = false;
+                    continue;
+                }
+                replica.lagSeconds = lag;
+                if (!replica.healthy) {
+                    log.info("Replica {} is available, lag {}s", replica.name, replica.lagSeconds);
+                }
+                replica.healthy = true;
+            } catch (DataAccessException e) {
+                if (replica.healthy) {
+                    log.warn("Replica {} failed its health check, reads go elsewhere", replica.name, e);
+                }
+                replica.healthy = false;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws Exception {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    private static Counter routedCounter(String target, MeterRegistry meterRegistry) {
+        return Counter.builder("order.datasource.routed")
+                .description("Connections handed out, by target data source")
+                .tag("target", target)
+                .register(meterRegistry);
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy;
+        private volatile double lagSeconds;
+
+        private Replica(String name, DataSource dataSource, int timeoutSeconds) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(timeoutSeconds);
+        }
+    }
+}
@@ -8,8 +8,7 @@ import org.springframework.web.client.RestTemplate;
 public class RestTemplateConfig {
 
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(OutboundHttpTransport transport) {
+        return new RestTemplate(transport.requestFactory(OutboundHttpTransport.PRODUCT));
     }
 }
-
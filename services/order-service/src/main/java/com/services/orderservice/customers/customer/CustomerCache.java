@@ -0,0 +1,94 @@
+package com.services.orderservice.customers.customer;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import feign.FeignException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Bounded, expiring cache in front of {@link CustomerClient}. Unknown ids are cached as well, for a
+ * shorter time, so a bad id does not reach customer-service on every order. Lookups are single-flight:
+ * the first caller for an id runs the remote call on its own thread and concurrent callers for the
+ * same id wait for that result instead of issuing their own. Failed lookups are not cached.
+ */
+@Component
+public class CustomerCache {
+
+    private final CustomerClient customerClient;
+    private final AsyncCache<String, Optional<CustomerResponse>> customers;
+
+    public CustomerCache(
+            CustomerClient customerClient,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.customer-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.customer-cache.expire-after-write-seconds:60}") long expireAfterWriteSeconds,
+            @Value("${application.config.customer-cache.negative-expire-after-write-seconds:10}") long negativeExpireAfterWriteSeconds
+    ) {
+        this.customerClient = customerClient;
+        long knownTtlNanos = Duration.ofSeconds(expireAfterWriteSeconds).toNanos();
+        long unknownTtlNanos = Duration.ofSeconds(negativeExpireAfterWriteSeconds).toNanos();
+        this.customers = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, Optional<CustomerResponse>>() {
+                    @Override
+                    public long expireAfterCreate(String id, Optional<CustomerResponse> customer, long currentTime) {
+                        return customer.isPresent() ? knownTtlNanos : unknownTtlNanos;
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String id, Optional<CustomerResponse> customer, long currentTime, long currentDuration) {
+                        return expireAfterCreate(id, customer, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String id, Optional<CustomerResponse> customer, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "customers");
+    }
+
+    /**
+     * Returns the customer, or an empty optional when customer-service does not know the id.
+     * Errors of the remote call are rethrown to every caller sharing the lookup.
+     */
+    public Optional<CustomerResponse> findById(String customerId) {
+        var lookup = new CompletableFuture<Optional<CustomerResponse>>();
+        var shared = customers.get(customerId, (id, executor) -> lookup);
+        if (shared == lookup) {
+            try {
+                lookup.complete(load(customerId));
+            } catch (RuntimeException e) {
+                // completing exceptionally also removes the entry
+                lookup.completeExceptionally(e);
+            }
+        }
+        try {
+            return shared.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Optional<CustomerResponse> load(String customerId) {
+        try {
+            return Optional.ofNullable(customerClient.findCustomerById(customerId).getBody());
+        } catch (FeignException.NotFound e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -9,7 +9,8 @@ import org.springframework.web.bind.annotation.PathVariable;
 
 @FeignClient(
         name = "custumer-service",
-        url = "${application.config.customer-url}"
+        url = "${application.config.customer-url}",
+        configuration = CustomerClientConfiguration.class
 )
 public interface CustomerClient {
 
@@ -0,0 +1,22 @@
+package com.services.orderservice.customers.customer;
+
+import com.services.orderservice.config.OutboundHttpTransport;
+import feign.Client;
+import feign.Request;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration scoped to this client only, hence not annotated with @Configuration.
+ */
+public class CustomerClientConfiguration {
+
+    @Bean
+    public Client feignClient(OutboundHttpTransport transport) {
+        return transport.feignClient(OutboundHttpTransport.CUSTOMER);
+    }
+
+    @Bean
+    public Request.Options feignOptions(OutboundHttpTransport transport) {
+        return transport.feignOptions(OutboundHttpTransport.CUSTOMER);
+    }
+}
@@ -6,7 +6,8 @@ import org.springframework.web.bind.annotation.RequestBody;
 
 @FeignClient(
         name = "product-service",
-        url = "${application.config.payment-url}"
+        url = "${application.config.payment-url}",
+        configuration = PaymentClientConfiguration.class
 )
 public interface PaymentClient {
     @PostMapping
@@ -0,0 +1,22 @@
+package com.services.orderservice.customers.payement;
+
+import com.services.orderservice.config.OutboundHttpTransport;
+import feign.Client;
+import feign.Request;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Feign configuration scoped to this client only, hence not annotated with @Configuration.
+ */
+public class PaymentClientConfiguration {
+
+    @Bean
+    public Client feignClient(OutboundHttpTransport transport) {
+        return transport.feignClient(OutboundHttpTransport.PAYMENT);
+    }
+
+    @Bean
+    public Request.Options feignOptions(OutboundHttpTransport transport) {
+        return transport.feignOptions(OutboundHttpTransport.PAYMENT);
+    }
+}
@@ -1,13 +1,17 @@
 package com.services.orderservice.customers.product;
 
 
+import com.services.orderservice.metrics.OrderStage;
+import com.services.orderservice.metrics.OrderStageMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.net.URI;
 import java.util.List;
 
 @RequiredArgsConstructor
@@ -15,24 +19,34 @@ import java.util.List;
 public class ProductClient {
 
     private final RestTemplate restTemplate;
+    private final OrderStageMetrics stageMetrics;
 
     @Value("${application.config.product-url}")
     private String productUrl;
 
     public ResponseEntity<List<ProductPurchaseResponse>> purchaseProducts(List<ProductPurchaseRequest> request){
+        return purchaseProducts(null, request);
+    }
+
+    /**
+     * Purchase recorded by product-service under {@code reference}: a later
+     * {@link #releaseProducts(String, List)} with the same reference gives the stock back at most once,
+     * and nothing at all if the purchase never went through.
+     */
+    public ResponseEntity<List<ProductPurchaseResponse>> purchaseProducts(String reference, List<ProductPurchaseRequest> request){
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
         HttpEntity<List<ProductPurchaseRequest>> entity = new HttpEntity<>(request,headers);
 
-        ResponseEntity<List<ProductPurchaseResponse>>   response = restTemplate.exchange(
-                productUrl + "/purchase",
+        ResponseEntity<List<ProductPurchaseResponse>>   response = stageMetrics.record(OrderStage.PRODUCT_PURCHASE, () -> restTemplate.exchange(
+                withReference(productUrl + "/purchase", reference),
                 HttpMethod.POST,
                 entity,
                 new ParameterizedTypeReference<List<ProductPurchaseResponse>>() {}
 
-        );
+        ));
         if(response.getStatusCode().isError()){
             throw  new RuntimeException("Error while purchasing products: "+response.getStatusCode());
         }
@@ -41,4 +55,36 @@ public class ProductClient {
 
     }
 
+    public void releaseProducts(List<ProductPurchaseRequest> request) {
+        releaseProducts(null, request);
+    }
+
+    public void releaseProducts(String reference, List<ProductPurchaseRequest> request) {
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+
+        HttpEntity<List<ProductPurchaseRequest>> entity = new HttpEntity<>(request, headers);
+
+        ResponseEntity<Void> response = stageMetrics.record(OrderStage.PRODUCT_RELEASE, () -> restTemplate.exchange(
+                withReference(productUrl + "/release", reference),
+                HttpMethod.POST,
+                entity,
+                Void.class
+        ));
+        if (response.getStatusCode().isError()) {
+            throw new RuntimeException("Error while releasing products: " + response.getStatusCode());
+        }
+    }
+
+    private static URI withReference(String url, String reference) {
+        var builder = UriComponentsBuilder.fromUriString(url);
+        if (reference == null) {
+            return builder.build().toUri();
+        }
+        return builder.queryParam("reference", "{reference}")
+                .encode()
+                .buildAndExpand(reference)
+                .toUri();
+    }
 }
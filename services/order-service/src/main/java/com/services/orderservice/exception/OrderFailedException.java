@@ -0,0 +1,18 @@
+package com.services.orderservice.exception;
+
+import com.services.orderservice.order.OrderStatus;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * The order was saved, then could not be completed; it is left with {@code status}, and its
+ * reference is used up.
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class OrderFailedException extends RuntimeException {
+
+    private final String msg;
+    private final Integer orderId;
+    private final OrderStatus status;
+}
@@ -0,0 +1,11 @@
+package com.services.orderservice.exception;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final String msg;
+}
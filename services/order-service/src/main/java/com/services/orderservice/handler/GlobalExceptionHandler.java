@@ -2,7 +2,11 @@ package com.services.orderservice.handler;
 
 
 import com.services.orderservice.exception.BusinessException;
+import com.services.orderservice.exception.OrderFailedException;
+import com.services.orderservice.exception.OrderInProgressException;
+import com.services.orderservice.exception.ServiceOverloadedException;
 import jakarta.persistence.EntityNotFoundException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -25,6 +29,28 @@ public class GlobalExceptionHandler {
                 .body(exp.getMsg());
     }
 
+    @ExceptionHandler(OrderFailedException.class)
+    public ResponseEntity<String> handle(OrderFailedException exp) {
+        return ResponseEntity
+                .status(HttpStatus.BAD_REQUEST)
+                .body(exp.getMsg());
+    }
+
+    @ExceptionHandler(OrderInProgressException.class)
+    public ResponseEntity<String> handle(OrderInProgressException exp) {
+        return ResponseEntity
+                .status(HttpStatus.CONFLICT)
+                .body(exp.getMsg());
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<String> handle(ServiceOverloadedException exp) {
+        return ResponseEntity
+                .status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(exp.getMsg());
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handle(EntityNotFoundException exp) {
         return ResponseEntity
@@ -0,0 +1,35 @@
+package com.services.orderservice.kafka;
+
+import com.services.orderservice.order.OrderCache;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Service;
+
+import static com.services.orderservice.kafka.OrderCacheInvalidationPublisher.ORDER_CACHE_INVALIDATION_TOPIC;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "application.config.order-cache.broadcast-invalidations", havingValue = "true")
+public class OrderCacheInvalidationListener {
+
+    private final OrderCache orderCache;
+
+    /**
+     * Every instance consumes in a group of its own, so each one receives all invalidations. The group is
+     * named after the instance id rather than a random one, so that a restart reuses its group instead of
+     * leaving one behind on the brokers.
+     */
+    @KafkaListener(
+            topics = ORDER_CACHE_INVALIDATION_TOPIC,
+            groupId = "order-cache-${application.config.order-cache.instance-id:${HOSTNAME:localhost}-${server.port:8070}}",
+            containerFactory = "orderCacheInvalidationContainerFactory",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onInvalidation(String orderId) {
+        log.debug("Evicting order {} from the local cache", orderId);
+        orderCache.evict(Integer.valueOf(orderId));
+    }
+}
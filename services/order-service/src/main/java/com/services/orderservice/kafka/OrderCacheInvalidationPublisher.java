@@ -0,0 +1,44 @@
+package com.services.orderservice.kafka;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "application.config.order-cache.broadcast-invalidations", havingValue = "true")
+public class OrderCacheInvalidationPublisher {
+
+    public static final String ORDER_CACHE_INVALIDATION_TOPIC = "order-cache-invalidation";
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+
+    public OrderCacheInvalidationPublisher(ProducerFactory<String, String> producerFactory) {
+        // the shared producer factory serializes values as JSON, invalidations are plain order ids
+        this.kafkaTemplate = new KafkaTemplate<>(
+                producerFactory,
+                Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, StringSerializer.class)
+        );
+    }
+
+    public void publish(Integer orderId) {
+        kafkaTemplate.send(ORDER_CACHE_INVALIDATION_TOPIC, orderId.toString(), orderId.toString())
+                .whenComplete((result, ex) -> {
+                    if (ex != null) {
+                        log.warn("Cannot broadcast cache invalidation of order {}", orderId, ex);
+                    }
+                });
+    }
+
+    @PreDestroy
+    public void close() {
+        kafkaTemplate.destroy();
+    }
+}
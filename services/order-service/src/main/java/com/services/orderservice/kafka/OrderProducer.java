@@ -1,28 +1,168 @@
 package com.services.orderservice.kafka;
 
-import lombok.RequiredArgsConstructor;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.services.orderservice.metrics.OrderStage;
+import com.services.orderservice.metrics.OrderStageMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.messaging.Message;
+import org.springframework.kafka.support.SendResult;
 import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.kafka.support.KafkaHeaders.KEY;
 import static org.springframework.kafka.support.KafkaHeaders.TOPIC;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class OrderProducer {
 
+    public static final String ORDER_TOPIC = "order-topic";
+
     private final KafkaTemplate<String, OrderConfirmation> kafkaTemplate;
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+    private final OrderStageMetrics stageMetrics;
+    private final MeterRegistry meterRegistry;
+    private final Semaphore inFlightPermits;
+    private final Counter rejectedCounter;
+    private final Map<String, Counter> errorCounters = new ConcurrentHashMap<>();
+
+    @Value("${application.config.kafka.acquire-timeout-ms:1000}")
+    private long acquireTimeoutMs;
+
+    public OrderProducer(
+            KafkaTemplate<String, OrderConfirmation> kafkaTemplate,
+            OutboxEventRepository outboxRepository,
+            ObjectMapper objectMapper,
+            OrderStageMetrics stageMetrics,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.kafka.max-in-flight:${application.config.outbox.batch-size:100}}") int maxInFlight
+    ) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.outboxRepository = outboxRepository;
+        this.objectMapper = objectMapper;
+        this.stageMetrics = stageMetrics;
+        this.meterRegistry = meterRegistry;
+        this.inFlightPermits = new Semaphore(maxInFlight);
+        this.rejectedCounter = Counter.builder("order.kafka.rejected")
+                .description("Sends refused because too many were awaiting a broker acknowledgement")
+                .register(meterRegistry);
+        Gauge.builder("order.kafka.in-flight", inFlightPermits, permits -> maxInFlight - permits.availablePermits())
+                .description("Sends awaiting a broker acknowledgement")
+                .register(meterRegistry);
+    }
 
+    /**
+     * Records the confirmation in the outbox table. It has to run inside the transaction
+     * that changes the order, so the event is stored if and only if the order is;
+     * {@link OutboxRelay} publishes it to Kafka afterwards.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
     public void sendOrderConfirmation(OrderConfirmation orderConfirmation) {
-        log.info("Sending order confirmation");
-        Message<OrderConfirmation> message = MessageBuilder
-                .withPayload(orderConfirmation)
-                .setHeader(TOPIC, "order-topic")
-                .build();
+        log.info("Storing order confirmation in the outbox");
+        stageMetrics.record(OrderStage.OUTBOX_WRITE, () -> outboxRepository.save(
+                OutboxEvent.builder()
+                        .topic(ORDER_TOPIC)
+                        .messageKey(messageKey(orderConfirmation))
+                        .payload(toJson(orderConfirmation))
+                        .createdDate(LocalDateTime.now())
+                        .build()
+        ));
+    }
+
+    /**
+     * Sends the event, keyed by customer so that the events of one customer stay ordered on one
+     * partition. At most {@code max-in-flight} sends may await an acknowledgement: when the broker
+     * slows down the caller waits for a permit, then gets a failed future and the event stays in
+     * the outbox until the next poll. The relay waits for each batch, so it never has more than
+     * {@code outbox.batch-size} sends pending; the cap defaults to that and only throttles when set
+     * below it.
+     */
+    public CompletableFuture<SendResult<String, OrderConfirmation>> publish(OutboxEvent event) {
+        if (!acquirePermit()) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Too many order events awaiting a broker acknowledgement, event " + event.getId() + " will be retried"));
+        }
+        CompletableFuture<SendResult<String, OrderConfirmation>> send;
+        long start = System.nanoTime();
+        try {
+            var message = MessageBuilder
+                    .withPayload(fromJson(event.getPayload()))
+                    .setHeader(TOPIC, event.getTopic());
+            if (event.getMessageKey() != null) {
+                message.setHeader(KEY, event.getMessageKey());
+            }
+            send = kafkaTemplate.send(message.build());
+        } catch (RuntimeException e) {
+            inFlightPermits.release();
+            throw e;
+        }
+        send.whenComplete((result, ex) -> {
+            inFlightPermits.release();
+            stageMetrics.recordStage(OrderStage.KAFKA_SEND, start, ex);
+            if (ex != null) {
+                errorCounter(rootCause(ex).getClass().getSimpleName()).increment();
+            }
+        });
+        return send;
+    }
+
+    private Counter errorCounter(String exception) {
+        return errorCounters.computeIfAbsent(exception, tag -> Counter.builder("order.kafka.errors")
+                .description("Sends rejected by the producer or the broker")
+                .tag("exception", tag)
+                .register(meterRegistry));
+    }
+
+    private boolean acquirePermit() {
+        try {
+            return inFlightPermits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static String messageKey(OrderConfirmation orderConfirmation) {
+        return orderConfirmation.customer() != null ? orderConfirmation.customer().id() : null;
+    }
+
+    private static Throwable rootCause(Throwable ex) {
+        Throwable cause = ex;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private String toJson(OrderConfirmation orderConfirmation) {
+        try {
+            return objectMapper.writeValueAsString(orderConfirmation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize order confirmation " + orderConfirmation.orderReference(), e);
+        }
+    }
 
-        kafkaTemplate.send(message);
+    private OrderConfirmation fromJson(String payload) {
+        try {
+            return objectMapper.readValue(payload, OrderConfirmation.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read order confirmation from the outbox", e);
+        }
     }
-}
\ No newline at end of file
+}
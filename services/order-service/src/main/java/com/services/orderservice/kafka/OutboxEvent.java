@@ -0,0 +1,50 @@
+package com.services.orderservice.kafka;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(
+        name = "order_outbox",
+        indexes = @Index(name = "idx_order_outbox_unpublished", columnList = "published_date, id")
+)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_outbox_seq")
+    @SequenceGenerator(name = "order_outbox_seq", sequenceName = "order_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String topic;
+
+    /**
+     * Kafka record key, the customer id for order confirmations.
+     */
+    @Column(name = "message_key")
+    private String messageKey;
+
+    @JdbcTypeCode(SqlTypes.LONG32VARCHAR)
+    @Column(nullable = false)
+    private String payload;
+
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
+
+    @Column(name = "published_date")
+    private LocalDateTime publishedDate;
+
+    /**
+     * End of the lease of the relay sending the event; another relay may claim it afterwards.
+     */
+    @Column(name = "claimed_until")
+    private LocalDateTime claimedUntil;
+}
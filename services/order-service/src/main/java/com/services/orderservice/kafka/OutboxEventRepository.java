@@ -0,0 +1,59 @@
+package com.services.orderservice.kafka;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Locks the oldest unpublished events that no relay holds a lease on. Rows already locked
+     * by another relay instance are skipped (lock timeout -2 is rendered as SKIP LOCKED).
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("""
+            select e from OutboxEvent e
+            where e.publishedDate is null and (e.claimedUntil is null or e.claimedUntil < :now)
+            order by e.id""")
+    List<OutboxEvent> findClaimable(@Param("now") LocalDateTime now, Limit limit);
+
+    Optional<OutboxEvent> findFirstByPublishedDateIsNullOrderById();
+
+    long countByPublishedDateIsNull();
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = :claimedUntil where e.id in :ids")
+    int claim(@Param("ids") List<Long> ids, @Param("claimedUntil") LocalDateTime claimedUntil);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.publishedDate = :publishedDate, e.claimedUntil = null where e.id in :ids")
+    int markPublished(@Param("ids") List<Long> ids, @Param("publishedDate") LocalDateTime publishedDate);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedUntil = null where e.id in :ids")
+    int releaseClaims(@Param("ids") List<Long> ids);
+
+    /**
+     * Deletes at most {@code limit} events published before {@code before}, so that a large
+     * backlog is removed in short transactions.
+     */
+    @Modifying
+    @Query(
+            value = """
+                    delete from order_outbox
+                    where id in (select id from order_outbox where published_date < :before limit :limit)""",
+            nativeQuery = true
+    )
+    int deletePublishedBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
+}
@@ -0,0 +1,217 @@
+package com.services.orderservice.kafka;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains the order outbox. Each batch is claimed for a lease in a short transaction, then
+ * published without waiting for one send before starting the next, except that the events of
+ * one customer are sent one after another so they stay in order; the acknowledged events are
+ * marked as published in a second short transaction, so no transaction is open while Kafka
+ * acknowledges. Events that fail are released and retried on the next poll, together with the
+ * later events of the same customer, and the events of a relay that died become claimable once
+ * their lease expires, so delivery is at-least-once. Published events are deleted after the
+ * retention period.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.config.outbox.relay-enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxRelay {
+
+    private final OutboxEventRepository repository;
+    private final OrderProducer orderProducer;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter publishedCounter;
+    private final Counter failedCounter;
+    private final AtomicLong pendingEvents = new AtomicLong();
+    private final AtomicLong oldestPendingAgeMs = new AtomicLong();
+
+    @Value("${application.config.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${application.config.outbox.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    /**
+     * Longer than the send timeout, so that a live relay never loses its events to another one.
+     */
+    @Value("${application.config.outbox.claim-lease-ms:60000}")
+    private long claimLeaseMs;
+
+    @Value("${application.config.outbox.retention-hours:24}")
+    private long retentionHours;
+
+    public OutboxRelay(
+            OutboxEventRepository repository,
+            OrderProducer orderProducer,
+            TransactionTemplate transactionTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.orderProducer = orderProducer;
+        this.transactionTemplate = transactionTemplate;
+        this.publishedCounter = Counter.builder("order.outbox.published")
+                .description("Outbox events acknowledged by Kafka")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("order.outbox.failed")
+                .description("Outbox events whose send failed and will be retried")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.pending", pendingEvents, AtomicLong::get)
+                .description("Outbox events not yet published, sampled by the housekeeping run")
+                .register(meterRegistry);
+        Gauge.builder("order.outbox.lag", oldestPendingAgeMs, age -> age.get() / 1000.0)
+                .description("Age in seconds of the oldest unpublished outbox event")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.config.outbox.poll-interval-ms:500}",
+            fixedDelayString = "${application.config.outbox.poll-interval-ms:500}"
+    )
+    public void relay() {
+        int published;
+        do {
+            var events = transactionTemplate.execute(status -> claimBatch());
+            published = events == null || events.isEmpty() ? 0 : publish(events);
+        } while (published == batchSize);
+        refreshLag();
+    }
+
+    /**
+     * Deletes published events past the retention period and samples the number of pending events,
+     * which is too costly to count on every poll.
+     */
+    @Scheduled(
+            initialDelayString = "${application.config.outbox.housekeeping-interval-ms:60000}",
+            fixedDelayString = "${application.config.outbox.housekeeping-interval-ms:60000}"
+    )
+    public void housekeeping() {
+        var before = LocalDateTime.now().minusHours(retentionHours);
+        Integer deleted;
+        do {
+            deleted = transactionTemplate.execute(status -> repository.deletePublishedBefore(before, batchSize));
+        } while (deleted != null && deleted == batchSize);
+        pendingEvents.set(repository.countByPublishedDateIsNull());
+    }
+
+    private List<OutboxEvent> claimBatch() {
+        var now = LocalDateTime.now();
+        var events = repository.findClaimable(now, Limit.of(batchSize));
+        if (!events.isEmpty()) {
+            repository.claim(events.stream().map(OutboxEvent::getId).toList(), now.plus(Duration.ofMillis(claimLeaseMs)));
+        }
+        return events;
+    }
+
+    private int publish(List<OutboxEvent> events) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        List<Long> publishedIds = new ArrayList<>(events.size());
+        List<Long> failedIds = new ArrayList<>();
+        Set<String> failedKeys = new HashSet<>();
+        for (var wave : waves(events)) {
+            var toSend = new ArrayList<OutboxEvent>(wave.size());
+            for (var event : wave) {
+                if (event.getMessageKey() != null && failedKeys.contains(event.getMessageKey())) {
+                    failedIds.add(event.getId());
+                } else {
+                    toSend.add(event);
+                }
+            }
+            List<CompletableFuture<?>> sends = toSend.stream()
+                    .map(this::send)
+                    .toList();
+            for (int i = 0; i < toSend.size(); i++) {
+                var event = toSend.get(i);
+                if (awaitSend(sends.get(i), deadline, event)) {
+                    publishedIds.add(event.getId());
+                } else {
+                    failedIds.add(event.getId());
+                    if (event.getMessageKey() != null) {
+                        failedKeys.add(event.getMessageKey());
+                    }
+                }
+            }
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                repository.markPublished(publishedIds, LocalDateTime.now());
+            }
+            if (!failedIds.isEmpty()) {
+                repository.releaseClaims(failedIds);
+            }
+        });
+        publishedCounter.increment(publishedIds.size());
+        failedCounter.increment(failedIds.size());
+        return publishedIds.size();
+    }
+
+    /**
+     * Splits the batch so that the n-th event of each key goes in the n-th wave: a customer's next
+     * event is only sent once the previous one is acknowledged, and not at all if it failed. Events
+     * without a key all go in the first wave.
+     */
+    private static List<List<OutboxEvent>> waves(List<OutboxEvent> events) {
+        List<List<OutboxEvent>> waves = new ArrayList<>();
+        Map<String, Integer> eventsPerKey = new HashMap<>();
+        for (var event : events) {
+            int wave = event.getMessageKey() == null ? 0 : eventsPerKey.merge(event.getMessageKey(), 1, Integer::sum) - 1;
+            while (waves.size() <= wave) {
+                waves.add(new ArrayList<>());
+            }
+            waves.get(wave).add(event);
+        }
+        return waves;
+    }
+
+    private CompletableFuture<?> send(OutboxEvent event) {
+        try {
+            return orderProducer.publish(event);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private boolean awaitSend(CompletableFuture<?> send, long deadlineNanos, OutboxEvent event) {
+        try {
+            send.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("Cannot publish outbox event {} to {}, it will be retried", event.getId(), event.getTopic(), e);
+            return false;
+        }
+    }
+
+    private void refreshLag() {
+        oldestPendingAgeMs.set(
+                repository.findFirstByPublishedDateIsNullOrderById()
+                        .map(event -> Duration.between(event.getCreatedDate(), LocalDateTime.now()).toMillis())
+                        .orElse(0L)
+        );
+    }
+}
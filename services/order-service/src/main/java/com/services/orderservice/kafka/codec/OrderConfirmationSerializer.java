@@ -0,0 +1,39 @@
+package com.services.orderservice.kafka.codec;
+
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.kafka.OrderConfirmation;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes {@link OrderConfirmation} in the {@link BinaryEvents} format. Producers stay on
+ * {@code JsonSerializer} until every notification-service instance reads both formats; switching to this
+ * class through {@code spring.kafka.producer.value-serializer} is then a configuration change.
+ */
+public class OrderConfirmationSerializer implements Serializer<OrderConfirmation> {
+
+    @Override
+    public byte[] serialize(String topic, OrderConfirmation confirmation) {
+        if (confirmation == null) {
+            return null;
+        }
+        var writer = new BinaryEvents.Writer(BinaryEvents.ORDER_CONFIRMATION)
+                .writeString(confirmation.orderReference())
+                .writeDecimal(confirmation.totalAmount())
+                .writeEnum(confirmation.paymentMethod(), BinaryEvents.PAYMENT_METHODS)
+                .writePresence(confirmation.customer());
+        if (confirmation.customer() != null) {
+            writer.writeString(confirmation.customer().id())
+                    .writeString(confirmation.customer().firstname())
+                    .writeString(confirmation.customer().lastname())
+                    .writeString(confirmation.customer().email());
+        }
+        writer.writeListSize(confirmation.products());
+        if (confirmation.products() != null) {
+            for (ProductPurchaseRequest product : confirmation.products()) {
+                writer.writeNullableInt(product.productId())
+                        .writeDouble(product.quantity());
+            }
+        }
+        return writer.toByteArray();
+    }
+}
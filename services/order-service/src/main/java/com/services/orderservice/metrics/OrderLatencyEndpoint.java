@@ -0,0 +1,83 @@
+package com.services.orderservice.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@code /actuator/orderlatency}: where order creation time went over the rolling window.
+ * Stage shares are relative to the total time spent in order creations, so the stages of
+ * concurrent fan-out calls can add up to more than 100%. Asynchronous stages, which run after
+ * the order has been answered, are listed apart and have no share.
+ */
+@Component
+@Endpoint(id = "orderlatency")
+@RequiredArgsConstructor
+public class OrderLatencyEndpoint {
+
+    private final OrderStageMetrics metrics;
+
+    @ReadOperation
+    public LatencyBreakdown breakdown() {
+        var orders = metrics.orders();
+        var stages = new ArrayList<StageLatency>();
+        var asyncStages = new ArrayList<StageLatency>();
+        metrics.stages().forEach((stage, latency) -> {
+            if (stage.isSynchronous()) {
+                stages.add(stageLatency(stage, latency,
+                        orders.totalNanos() == 0 ? 0.0 : (double) latency.totalNanos() / orders.totalNanos()));
+            } else {
+                asyncStages.add(stageLatency(stage, latency, null));
+            }
+        });
+        return new LatencyBreakdown(
+                metrics.window().toSeconds(),
+                orders.count(),
+                orders.failures(),
+                meanMillis(orders),
+                stages,
+                asyncStages
+        );
+    }
+
+    private static StageLatency stageLatency(OrderStage stage, RollingLatency.Snapshot latency, Double shareOfOrderTime) {
+        return new StageLatency(
+                stage.getTag(),
+                stage.getDownstream(),
+                latency.count(),
+                latency.failures(),
+                meanMillis(latency),
+                latency.maxNanos() / 1_000_000.0,
+                shareOfOrderTime
+        );
+    }
+
+    private static double meanMillis(RollingLatency.Snapshot latency) {
+        return latency.count() == 0 ? 0 : latency.totalNanos() / (double) latency.count() / 1_000_000;
+    }
+
+    public record LatencyBreakdown(
+            long windowSeconds,
+            long orders,
+            long failedOrders,
+            double orderMeanMs,
+            List<StageLatency> stages,
+            List<StageLatency> asyncStages
+    ) {
+    }
+
+    public record StageLatency(
+            String stage,
+            String downstream,
+            long count,
+            long failures,
+            double meanMs,
+            double maxMs,
+            Double shareOfOrderTime
+    ) {
+    }
+}
@@ -0,0 +1,26 @@
+package com.services.orderservice.metrics;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Steps of order creation that are timed separately, with the system each one waits on.
+ * Asynchronous stages run after the order has been answered (the Kafka send is done by the
+ * outbox relay), so they are not part of the order's own time.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum OrderStage {
+    CUSTOMER_LOOKUP("customer-lookup", "customer-service", true),
+    PRODUCT_PURCHASE("product-purchase", "product-service", true),
+    PRODUCT_RELEASE("product-release", "product-service", true),
+    ORDER_INSERT("order-insert", "database", true),
+    LINE_INSERT("line-insert", "database", true),
+    PAYMENT("payment", "payment-service", true),
+    OUTBOX_WRITE("outbox-write", "database", true),
+    KAFKA_SEND("kafka-send", "kafka", false);
+
+    private final String tag;
+    private final String downstream;
+    private final boolean synchronous;
+}
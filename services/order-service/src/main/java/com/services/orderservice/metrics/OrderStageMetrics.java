@@ -0,0 +1,121 @@
+package com.services.orderservice.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Times each {@link OrderStage} and whole order creations.
+ * <p>
+ * Every duration goes to a Micrometer timer with a percentile histogram, tagged with stage,
+ * downstream and outcome: {@code order.stage} for stages and {@code order.create} for whole
+ * orders. It also goes to a rolling window read by the {@code orderlatency} actuator endpoint.
+ */
+@Component
+public class OrderStageMetrics {
+
+    private static final int BUCKETS = 12;
+
+    private final Duration window;
+    private final Map<OrderStage, RollingLatency> stages = new EnumMap<>(OrderStage.class);
+    private final Map<OrderStage, Timer> stageSuccesses = new EnumMap<>(OrderStage.class);
+    private final Map<OrderStage, Timer> stageFailures = new EnumMap<>(OrderStage.class);
+    private final RollingLatency orders;
+    private final Timer orderSuccesses;
+    private final Timer orderFailures;
+
+    public OrderStageMetrics(
+            MeterRegistry meterRegistry,
+            @Value("${application.config.metrics.latency-window-seconds:60}") long windowSeconds
+    ) {
+        this.window = Duration.ofSeconds(windowSeconds);
+        long bucketNanos = window.toNanos() / BUCKETS;
+        for (var stage : OrderStage.values()) {
+            stages.put(stage, new RollingLatency(BUCKETS, bucketNanos));
+            stageSuccesses.put(stage, timer(meterRegistry, "order.stage", stage, false));
+            stageFailures.put(stage, timer(meterRegistry, "order.stage", stage, true));
+        }
+        this.orders = new RollingLatency(BUCKETS, bucketNanos);
+        this.orderSuccesses = timer(meterRegistry, "order.create", null, false);
+        this.orderFailures = timer(meterRegistry, "order.create", null, true);
+    }
+
+    public <T> T record(OrderStage stage, Supplier<T> action) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            recordStage(stage, System.nanoTime() - start, failed);
+        }
+    }
+
+    public void record(OrderStage stage, Runnable action) {
+        record(stage, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public <T> T recordOrder(Supplier<T> action) {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = action.get();
+            failed = false;
+            return result;
+        } finally {
+            long nanos = System.nanoTime() - start;
+            orders.record(nanos, failed, System.nanoTime());
+            (failed ? orderFailures : orderSuccesses).record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * For stages that complete asynchronously: pass the value of {@link System#nanoTime()}
+     * taken when the stage started.
+     */
+    public void recordStage(OrderStage stage, long startNanos, Throwable failure) {
+        recordStage(stage, System.nanoTime() - startNanos, failure != null);
+    }
+
+    public Duration window() {
+        return window;
+    }
+
+    RollingLatency.Snapshot orders() {
+        return orders.snapshot(System.nanoTime());
+    }
+
+    Map<OrderStage, RollingLatency.Snapshot> stages() {
+        long now = System.nanoTime();
+        var snapshots = new EnumMap<OrderStage, RollingLatency.Snapshot>(OrderStage.class);
+        stages.forEach((stage, latency) -> snapshots.put(stage, latency.snapshot(now)));
+        return snapshots;
+    }
+
+    private void recordStage(OrderStage stage, long nanos, boolean failed) {
+        stages.get(stage).record(nanos, failed, System.nanoTime());
+        (failed ? stageFailures : stageSuccesses).get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private Timer timer(MeterRegistry meterRegistry, String name, OrderStage stage, boolean failed) {
+        var builder = Timer.builder(name)
+                .tag("outcome", failed ? "failure" : "success")
+                .publishPercentileHistogram()
+                .distributionStatisticExpiry(window);
+        if (stage != null) {
+            builder.tag("stage", stage.getTag()).tag("downstream", stage.getDownstream());
+        }
+        return builder.register(meterRegistry);
+    }
+}
@@ -0,0 +1,78 @@
+package com.services.orderservice.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Count, failures, total and max of the durations recorded over the last window, kept in
+ * a ring of time buckets. A bucket is recycled as soon as the clock reaches its slot again.
+ */
+class RollingLatency {
+
+    private final Bucket[] buckets;
+    private final long bucketNanos;
+
+    RollingLatency(int bucketCount, long bucketNanos) {
+        this.buckets = new Bucket[bucketCount];
+        for (int i = 0; i < bucketCount; i++) {
+            buckets[i] = new Bucket();
+        }
+        this.bucketNanos = bucketNanos;
+    }
+
+    void record(long nanos, boolean failed, long now) {
+        long slot = now / bucketNanos;
+        var bucket = buckets[(int) Math.floorMod(slot, (long) buckets.length)];
+        bucket.rollTo(slot);
+        bucket.count.increment();
+        if (failed) {
+            bucket.failures.increment();
+        }
+        bucket.totalNanos.add(nanos);
+        bucket.maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    Snapshot snapshot(long now) {
+        long currentSlot = now / bucketNanos;
+        long count = 0;
+        long failures = 0;
+        long totalNanos = 0;
+        long maxNanos = 0;
+        for (var bucket : buckets) {
+            long slot = bucket.slot;
+            if (slot != Long.MIN_VALUE && currentSlot - slot < buckets.length) {
+                count += bucket.count.sum();
+                failures += bucket.failures.sum();
+                totalNanos += bucket.totalNanos.sum();
+                maxNanos = Math.max(maxNanos, bucket.maxNanos.get());
+            }
+        }
+        return new Snapshot(count, failures, totalNanos, maxNanos);
+    }
+
+    record Snapshot(long count, long failures, long totalNanos, long maxNanos) {
+    }
+
+    private static final class Bucket {
+        private volatile long slot = Long.MIN_VALUE;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void rollTo(long newSlot) {
+            if (slot == newSlot) {
+                return;
+            }
+            synchronized (this) {
+                if (slot != newSlot) {
+                    count.reset();
+                    failures.reset();
+                    totalNanos.reset();
+                    maxNanos.set(0);
+                    slot = newSlot;
+                }
+            }
+        }
+    }
+}
@@ -19,10 +19,20 @@ import java.util.List;
 @Entity
 @EntityListeners(AuditingEntityListener.class)
 @NoArgsConstructor
-@Table(name = "customer_order")
+@Table(
+        name = "customer_order",
+        indexes = {
+                @Index(name = "idx_customer_order_created_date_id", columnList = "created_date, id"),
+                @Index(name = "idx_customer_order_customer_created", columnList = "customer_id, created_date, id")
+        }
+)
 public class Order {
+
+    public static final int FAILURE_REASON_LENGTH = 500;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_order_seq")
+    @SequenceGenerator(name = "customer_order_seq", sequenceName = "customer_order_seq", allocationSize = 50)
     private Integer id;
 
     @Column(unique = true,  nullable = false)
@@ -35,11 +45,23 @@ public class Order {
 
     private String customerId;
 
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(length = FAILURE_REASON_LENGTH)
+    private String failureReason;
+
+    /**
+     * Key the stock of this order was purchased under (see ProductClient), {@code null} when the
+     * purchase was shared with other orders of a batch and cannot be released on its own.
+     */
+    private String purchaseKey;
+
     @OneToMany(mappedBy = "order")
     private List<OrderLine> orderLines;
 
     @CreatedDate
-    @Column(updatable = false, nullable = false)
+    @Column(name = "created_date", updatable = false, nullable = false)
     private LocalDateTime createdDate;
 
     @LastModifiedDate
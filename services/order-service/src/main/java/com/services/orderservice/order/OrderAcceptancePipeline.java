@@ -0,0 +1,91 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Async order mode: the order is saved as PENDING and acknowledged right away, then the
+ * customer, product and payment steps run on a bounded pool. At most {@code max-in-flight}
+ * orders can be accepted and not finished yet; beyond that new orders are refused with a
+ * 503 before anything is written, so a burst cannot pile up unbounded work.
+ */
+@Component
+@Slf4j
+public class OrderAcceptancePipeline {
+
+    private final OrderService orderService;
+    private final OrderPersistenceService persistenceService;
+    private final OrderIdempotencyService idempotencyService;
+    private final ThreadPoolTaskExecutor executor;
+    private final Semaphore capacity;
+    private final Counter rejected;
+
+    public OrderAcceptancePipeline(
+            OrderService orderService,
+            OrderPersistenceService persistenceService,
+            OrderIdempotencyService idempotencyService,
+            @Qualifier("orderAcceptanceExecutor") ThreadPoolTaskExecutor executor,
+            MeterRegistry meterRegistry,
+            @Value("${application.config.async.max-in-flight:1000}") int maxInFlight
+    ) {
+        this.orderService = orderService;
+        this.persistenceService = persistenceService;
+        this.idempotencyService = idempotencyService;
+        this.executor = executor;
+        this.capacity = new Semaphore(maxInFlight);
+        this.rejected = meterRegistry.counter("order.async.rejected");
+        meterRegistry.gauge("order.async.in-flight", capacity, permits -> maxInFlight - permits.availablePermits());
+    }
+
+    /**
+     * Returns the id of the accepted order, or of the order already created for the same reference.
+     */
+    public Integer accept(OrderRequest request) {
+        return idempotencyService.execute(request.reference(), () -> enqueue(request));
+    }
+
+    private Integer enqueue(OrderRequest request) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw overloaded();
+        }
+        Order order;
+        try {
+            order = persistenceService.savePendingOrder(request);
+        } catch (RuntimeException e) {
+            capacity.release();
+            throw e;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    orderService.completeAcceptedOrder(order, request);
+                } catch (RuntimeException e) {
+                    log.error("Accepted order {} failed", order.getId(), e);
+                } finally {
+                    capacity.release();
+                }
+            });
+        } catch (TaskRejectedException e) {
+            // only while shutting down, the queue is sized for every admitted order
+            capacity.release();
+            persistenceService.cancelOrder(order.getId(), "Order service is shutting down");
+            rejected.increment();
+            throw overloaded();
+        }
+        return order.getId();
+    }
+
+    private ServiceOverloadedException overloaded() {
+        return new ServiceOverloadedException("Cannot accept order:: too many orders in progress, retry later");
+    }
+}
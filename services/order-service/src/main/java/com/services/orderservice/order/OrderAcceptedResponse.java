@@ -0,0 +1,8 @@
+package com.services.orderservice.order;
+
+public record OrderAcceptedResponse(
+        Integer orderId,
+        String statusUrl
+) {
+
+}
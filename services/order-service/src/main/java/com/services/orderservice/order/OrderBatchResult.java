@@ -0,0 +1,35 @@
+package com.services.orderservice.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+/**
+ * Outcome of one order of a batch; {@code index} is its position in the request.
+ */
+@JsonInclude(Include.NON_NULL)
+public record OrderBatchResult(
+        int index,
+        String reference,
+        Integer orderId,
+        Status status,
+        String error
+) {
+
+    public enum Status {
+        CREATED,
+        DUPLICATE,
+        FAILED
+    }
+
+    static OrderBatchResult created(int index, String reference, Integer orderId) {
+        return new OrderBatchResult(index, reference, orderId, Status.CREATED, null);
+    }
+
+    static OrderBatchResult duplicate(int index, String reference, Integer orderId) {
+        return new OrderBatchResult(index, reference, orderId, Status.DUPLICATE, null);
+    }
+
+    static OrderBatchResult failed(int index, String reference, Integer orderId, String error) {
+        return new OrderBatchResult(index, reference, orderId, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,491 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.customers.customer.CustomerCache;
+import com.services.orderservice.customers.customer.CustomerResponse;
+import com.services.orderservice.customers.payement.PaymentClient;
+import com.services.orderservice.customers.payement.PaymentRequest;
+import com.services.orderservice.customers.product.ProductClient;
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.exception.BusinessException;
+import com.services.orderservice.exception.OrderFailedException;
+import com.services.orderservice.exception.OrderInProgressException;
+import com.services.orderservice.kafka.OrderConfirmation;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+/**
+ * Creates many orders in one call. Each order gets its own result, so a bad order only
+ * fails itself. Work is shared across the batch: every distinct customer is looked up
+ * once, stock is bought with one product-service call per group of orders, and orders
+ * and lines are written as JDBC batches. Every purchase is keyed, like those of single
+ * orders, and its key is stored with the orders it served. References are claimed through
+ * {@link OrderIdempotencyService} like single orders, so a batch and a single submission
+ * of the same reference never both create it.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderBatchService {
+
+    /**
+     * Ends the key of a purchase shared by a group of orders; keys of one order's purchase end
+     * with a UUID, so the two never clash.
+     */
+    static final String GROUP_PURCHASE_SUFFIX = ":group";
+
+    private final OrderRepository repository;
+    private final OrderPersistenceService persistenceService;
+    private final OrderIdempotencyService idempotencyService;
+    private final CustomerCache customerCache;
+    private final ProductClient productClient;
+    private final PaymentClient paymentClient;
+    private final Validator validator;
+    @Qualifier("orderFanOutExecutor")
+    private final ThreadPoolTaskExecutor orderFanOutExecutor;
+
+    @Value("${application.config.batch.max-size:5000}")
+    private int maxBatchSize;
+
+    @Value("${application.config.batch.group-size:200}")
+    private int groupSize;
+
+    public List<OrderBatchResult> createOrders(List<OrderRequest> requests) {
+        if (requests.size() > maxBatchSize) {
+            throw new BusinessException(String.format(
+                    "Cannot create orders:: at most %d orders can be sent in one batch", maxBatchSize));
+        }
+        var results = new OrderBatchResult[requests.size()];
+
+        var items = validate(requests, results);
+        items = skipExistingReferences(items, results);
+        items = claimReferences(items, results);
+
+        var customerErrors = new HashMap<String, String>();
+        var customers = resolveCustomers(items, customerErrors);
+        var ready = new ArrayList<BatchItem>();
+        for (var item : items) {
+            var customer = customers.get(item.request().customerId());
+            if (customer == null) {
+                results[item.index()] = failed(item, null, customerErrors.get(item.request().customerId()));
+                releaseClaim(item);
+            } else {
+                ready.add(item.withCustomer(customer));
+            }
+        }
+
+        for (int from = 0; from < ready.size(); from += groupSize) {
+            processGroup(ready.subList(from, Math.min(from + groupSize, ready.size())), results);
+        }
+        return Arrays.asList(results);
+    }
+
+    private List<BatchItem> validate(List<OrderRequest> requests, OrderBatchResult[] results) {
+        var items = new ArrayList<BatchItem>();
+        var references = new HashSet<String>();
+        for (int i = 0; i < requests.size(); i++) {
+            var request = requests.get(i);
+            var violations = validator.validate(request);
+            if (!violations.isEmpty()) {
+                results[i] = OrderBatchResult.failed(i, request.reference(), null, violations.stream()
+                        .map(ConstraintViolation::getMessage)
+                        .sorted()
+                        .collect(Collectors.joining(", ")));
+            } else if (request.reference() != null && !references.add(request.reference())) {
+                results[i] = OrderBatchResult.failed(i, request.reference(), null, "Duplicate reference in batch");
+            } else {
+                items.add(new BatchItem(i, request, null, null));
+            }
+        }
+        return items;
+    }
+
+    private List<BatchItem> skipExistingReferences(List<BatchItem> items, OrderBatchResult[] results) {
+        var references = items.stream()
+                .map(item -> item.request().reference())
+                .filter(Objects::nonNull)
+                .toList();
+        if (references.isEmpty()) {
+            return items;
+        }
+        Map<String, Integer> existing = repository.findByReferenceIn(references).stream()
+                .collect(Collectors.toMap(OrderReference::getReference, OrderReference::getId));
+        var remaining = new ArrayList<BatchItem>();
+        for (var item : items) {
+            var orderId = existing.get(item.request().reference());
+            if (orderId != null) {
+                results[item.index()] = OrderBatchResult.duplicate(item.index(), item.request().reference(), orderId);
+            } else {
+                remaining.add(item);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * Claims the reference of each order; an order whose reference is held by another submission
+     * fails on its own. Every claim is then either completed with the order or released.
+     */
+    private List<BatchItem> claimReferences(List<BatchItem> items, OrderBatchResult[] results) {
+        var claimed = new ArrayList<BatchItem>();
+        for (var item : items) {
+            var reference = item.request().reference();
+            if (reference == null) {
+                claimed.add(item);
+                continue;
+            }
+            try {
+                var orderId = idempotencyService.claimReference(reference);
+                if (orderId == null) {
+                    claimed.add(item);
+                } else {
+                    results[item.index()] = OrderBatchResult.duplicate(item.index(), reference, orderId);
+                }
+            } catch (OrderFailedException e) {
+                results[item.index()] = failed(item, e.getOrderId(), e.getMsg());
+            } catch (OrderInProgressException e) {
+                results[item.index()] = failed(item, null, e.getMsg());
+            } catch (RuntimeException e) {
+                log.error("Cannot claim order reference {}", reference, e);
+                results[item.index()] = failed(item, null, "Order reference could not be claimed");
+            }
+        }
+        return claimed;
+    }
+
+    private Map<String, CustomerResponse> resolveCustomers(List<BatchItem> items, Map<String, String> errors) {
+        Map<String, Future<CustomerResponse>> lookups = new LinkedHashMap<>();
+        for (var item : items) {
+            lookups.computeIfAbsent(item.request().customerId(), customerId ->
+                    orderFanOutExecutor.submit(() -> customerCache.findById(customerId).orElse(null)));
+        }
+        var customers = new HashMap<String, CustomerResponse>();
+        lookups.forEach((customerId, lookup) -> {
+            try {
+                var customer = lookup.get();
+                if (customer == null) {
+                    errors.put(customerId, "No customer exists with the provided ID");
+                } else {
+                    customers.put(customerId, customer);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new BusinessException("Cannot create orders:: customer lookup was interrupted");
+            } catch (ExecutionException e) {
+                errors.put(customerId, "Customer lookup failed:: " + e.getCause().getMessage());
+            }
+        });
+        return customers;
+    }
+
+    private void processGroup(List<BatchItem> group, OrderBatchResult[] results) {
+        var purchased = purchaseStock(group, results);
+        if (purchased.isEmpty()) {
+            return;
+        }
+        var saved = requestPayments(saveOrders(purchased, results), results);
+
+        List<Future<Integer>> payments = new ArrayList<>();
+        for (var order : saved) {
+            payments.add(orderFanOutExecutor.submit(() -> paymentClient.requestOrderPayment(new PaymentRequest(
+                    order.item().request().amount(),
+                    order.item().request().paymentMethod(),
+                    order.orderId(),
+                    order.item().request().reference(),
+                    order.item().customer()
+            ))));
+        }
+
+        var confirmations = new LinkedHashMap<Integer, OrderConfirmation>();
+        var paid = new LinkedHashMap<Integer, BatchItem>();
+        var unpaid = new ArrayList<BatchItem>();
+        for (int i = 0; i < saved.size(); i++) {
+            var item = saved.get(i).item();
+            var orderId = saved.get(i).orderId();
+            var error = awaitPayment(payments.get(i));
+            if (error == null) {
+                confirmations.put(orderId, new OrderConfirmation(
+                        item.request().reference(),
+                        item.request().amount(),
+                        item.request().paymentMethod(),
+                        item.customer(),
+                        item.request().products()
+                ));
+                paid.put(orderId, item);
+                results[item.index()] = OrderBatchResult.created(item.index(), item.request().reference(), orderId);
+            } else {
+                unpaid.add(item);
+                cancelOrder(orderId, error);
+                failClaim(item, orderId, OrderStatus.CANCELLED);
+                results[item.index()] = failed(item, orderId, error);
+            }
+        }
+        releaseStock(unpaid);
+        confirmOrders(confirmations, paid, results);
+    }
+
+    /**
+     * Saves the group in one transaction. If that fails, the orders are saved one by one so that
+     * a single bad order does not fail the others after their stock was bought; the stock of the
+     * orders that still cannot be saved is released.
+     */
+    private List<SavedOrder> saveOrders(List<BatchItem> purchased, OrderBatchResult[] results) {
+        try {
+            var orders = persistenceService.saveProcessingOrders(
+                    purchased.stream().map(BatchItem::request).toList(),
+                    purchased.stream().map(BatchItem::purchaseKey).toList());
+            var saved = new ArrayList<SavedOrder>(purchased.size());
+            for (int i = 0; i < purchased.size(); i++) {
+                saved.add(completeClaim(purchased.get(i), orders.get(i).getId()));
+            }
+            return saved;
+        } catch (RuntimeException e) {
+            log.warn("Cannot save a group of {} orders, saving them one by one", purchased.size(), e);
+        }
+        var saved = new ArrayList<SavedOrder>();
+        var unsaved = new ArrayList<BatchItem>();
+        for (var item : purchased) {
+            try {
+                var order = persistenceService.saveProcessingOrder(item.request(), item.purchaseKey());
+                saved.add(completeClaim(item, order.getId()));
+            } catch (RuntimeException e) {
+                log.error("Cannot save order {}", item.request().reference(), e);
+                unsaved.add(item);
+                results[item.index()] = failed(item, null, "Order could not be saved");
+            }
+        }
+        releaseStock(unsaved);
+        unsaved.forEach(this::releaseClaim);
+        return saved;
+    }
+
+    /**
+     * Marks the saved orders PAYMENT_REQUESTED before their payments are requested. If that fails,
+     * none of them is charged: they are cancelled and their stock released.
+     */
+    private List<SavedOrder> requestPayments(List<SavedOrder> saved, OrderBatchResult[] results) {
+        if (saved.isEmpty()) {
+            return saved;
+        }
+        try {
+            persistenceService.requestPayments(saved.stream().map(SavedOrder::orderId).toList());
+            return saved;
+        } catch (RuntimeException e) {
+            log.error("Cannot record the payment request of {} orders, cancelling them", saved.size(), e);
+        }
+        for (var order : saved) {
+            var item = order.item();
+            cancelOrder(order.orderId(), "Payment could not be requested");
+            failClaim(item, order.orderId(), OrderStatus.CANCELLED);
+            results[item.index()] = failed(item, order.orderId(), "Payment could not be requested");
+        }
+        releaseStock(saved.stream().map(SavedOrder::item).toList());
+        return List.of();
+    }
+
+    /**
+     * Confirms the paid orders together, or one by one if that fails. The orders that still cannot
+     * be confirmed are paid, so they are neither cancelled nor released: they are set aside for
+     * reconciliation and reported as failed.
+     */
+    private void confirmOrders(
+            Map<Integer, OrderConfirmation> confirmations,
+            Map<Integer, BatchItem> paid,
+            OrderBatchResult[] results
+    ) {
+        try {
+            persistenceService.confirmOrders(confirmations);
+            return;
+        } catch (RuntimeException e) {
+            log.warn("Cannot confirm a group of {} orders, confirming them one by one", confirmations.size(), e);
+        }
+        var unconfirmed = new ArrayList<Integer>();
+        confirmations.forEach((orderId, confirmation) -> {
+            try {
+                persistenceService.confirmOrder(orderId, confirmation);
+            } catch (RuntimeException e) {
+                log.error("Cannot confirm paid order {}", orderId, e);
+                unconfirmed.add(orderId);
+            }
+        });
+        if (unconfirmed.isEmpty()) {
+            return;
+        }
+        try {
+            persistenceService.markForReconciliation(unconfirmed, "Order was paid but could not be confirmed");
+        } catch (RuntimeException e) {
+            // left PAYMENT_REQUESTED, the recovery sweep sets them aside
+            log.error("Cannot set aside paid orders {} for reconciliation", unconfirmed, e);
+        }
+        for (var orderId : unconfirmed) {
+            var item = paid.get(orderId);
+            failClaim(item, orderId, OrderStatus.RECONCILIATION_REQUIRED);
+            results[item.index()] = failed(item, orderId,
+                    "Order was paid but could not be confirmed, it is kept for reconciliation");
+        }
+    }
+
+    /**
+     * Buys the stock of the whole group with one call, under a key of the group. If that call fails,
+     * refused or with an unknown outcome (e.g. timed out after product-service applied it), the group's
+     * purchase is released under its key, which gives back nothing if it never happened, and the orders
+     * are retried one by one under keys of their own, so that only those that cannot be served fail.
+     * When even the release fails the group's outcome stays unknown, so its orders are not retried.
+     */
+    private List<BatchItem> purchaseStock(List<BatchItem> group, OrderBatchResult[] results) {
+        var groupKey = UUID.randomUUID() + GROUP_PURCHASE_SUFFIX;
+        try {
+            productClient.purchaseProducts(groupKey, mergeProducts(group));
+            return group.stream().map(item -> item.withPurchaseKey(groupKey)).toList();
+        } catch (RuntimeException e) {
+            log.info("Grouped purchase of {} orders failed, purchasing them one by one: {}", group.size(), e.getMessage());
+        }
+        try {
+            productClient.releaseProducts(groupKey, mergeProducts(group));
+        } catch (RuntimeException e) {
+            log.error("Cannot release grouped purchase {}, its {} orders fail; its stock may have to be reconciled",
+                    groupKey, group.size(), e);
+            for (var item : group) {
+                results[item.index()] = failed(item, null, "Product purchase failed and could not be undone");
+                releaseClaim(item);
+            }
+            return List.of();
+        }
+        var purchased = new ArrayList<BatchItem>();
+        for (var item : group) {
+            var keyed = item.withPurchaseKey(OrderService.newPurchaseKey(item.request().reference()));
+            try {
+                productClient.purchaseProducts(keyed.purchaseKey(), mergeProducts(List.of(item)));
+                purchased.add(keyed);
+            } catch (RuntimeException e) {
+                releaseStock(List.of(keyed));
+                results[item.index()] = failed(item, null, "Product purchase failed:: " + e.getMessage());
+                releaseClaim(item);
+            }
+        }
+        return purchased;
+    }
+
+    /**
+     * Gives back the stock of orders: each order bought on its own is released under its key; orders
+     * of a grouped purchase, which is known to have happened, are released together without a key,
+     * since the group's key can only be released once.
+     */
+    private void releaseStock(List<BatchItem> items) {
+        var shared = new ArrayList<BatchItem>();
+        for (var item : items) {
+            if (isSharedPurchase(item.purchaseKey())) {
+                shared.add(item);
+            } else {
+                try {
+                    productClient.releaseProducts(item.purchaseKey(), mergeProducts(List.of(item)));
+                } catch (RuntimeException e) {
+                    log.error("Compensation failed:: could not release stock of order {}", item.request().reference(), e);
+                }
+            }
+        }
+        if (shared.isEmpty()) {
+            return;
+        }
+        try {
+            productClient.releaseProducts(mergeProducts(shared));
+        } catch (RuntimeException e) {
+            log.error("Compensation failed:: could not release stock of {} orders", shared.size(), e);
+        }
+    }
+
+    /**
+     * Whether a stored purchase key covers other orders too, so that the stock of one order cannot be
+     * released under it; orders saved before purchase keys were stored have none.
+     */
+    static boolean isSharedPurchase(String purchaseKey) {
+        return purchaseKey == null || purchaseKey.endsWith(GROUP_PURCHASE_SUFFIX);
+    }
+
+    private SavedOrder completeClaim(BatchItem item, Integer orderId) {
+        if (item.request().reference() != null) {
+            idempotencyService.complete(item.request().reference(), orderId);
+        }
+        return new SavedOrder(item, orderId);
+    }
+
+    private void failClaim(BatchItem item, Integer orderId, OrderStatus status) {
+        if (item.request().reference() != null) {
+            idempotencyService.fail(item.request().reference(), orderId, status);
+        }
+    }
+
+    private void releaseClaim(BatchItem item) {
+        if (item.request().reference() != null) {
+            idempotencyService.release(item.request().reference());
+        }
+    }
+
+    private void cancelOrder(Integer orderId, String reason) {
+        try {
+            persistenceService.cancelOrder(orderId, reason);
+        } catch (RuntimeException e) {
+            log.error("Compensation failed:: could not cancel order {}", orderId, e);
+        }
+    }
+
+    private String awaitPayment(Future<Integer> payment) {
+        try {
+            payment.get();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "Payment was interrupted";
+        } catch (ExecutionException e) {
+            return "Payment failed:: " + e.getCause().getMessage();
+        }
+    }
+
+    /**
+     * product-service expects each product at most once per purchase.
+     */
+    private List<ProductPurchaseRequest> mergeProducts(List<BatchItem> items) {
+        Map<Integer, Double> quantities = new LinkedHashMap<>();
+        items.forEach(item -> item.request().products().forEach(product ->
+                quantities.merge(product.productId(), product.quantity(), Double::sum)));
+        return quantities.entrySet().stream()
+                .map(entry -> new ProductPurchaseRequest(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private OrderBatchResult failed(BatchItem item, Integer orderId, String error) {
+        return OrderBatchResult.failed(item.index(), item.request().reference(), orderId, error);
+    }
+
+    private record BatchItem(int index, OrderRequest request, CustomerResponse customer, String purchaseKey) {
+
+        BatchItem withCustomer(CustomerResponse customer) {
+            return new BatchItem(index, request, customer, purchaseKey);
+        }
+
+        BatchItem withPurchaseKey(String purchaseKey) {
+            return new BatchItem(index, request, customer, purchaseKey);
+        }
+    }
+
+    private record SavedOrder(BatchItem item, Integer orderId) {
+    }
+}
@@ -0,0 +1,104 @@
+package com.services.orderservice.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.services.orderservice.kafka.OrderCacheInvalidationPublisher;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded in-process cache of {@link OrderResponse}, reachable by id and by reference.
+ * The reference index only maps to ids (a reference never changes owner), so evicting
+ * an id is enough to drop both views of an order. {@link OrderResponse} carries no status
+ * and its fields are set once at creation, so status transitions leave cached entries valid
+ * and are not invalidated. When broadcasting is enabled (off by default, as nothing invalidates
+ * today), invalidations are also sent to the other order-service instances.
+ */
+@Component
+public class OrderCache {
+
+    private final Cache<Integer, OrderResponse> byId;
+    private final Cache<String, Integer> idByReference;
+    private final Optional<OrderCacheInvalidationPublisher> invalidationPublisher;
+
+    public OrderCache(
+            MeterRegistry meterRegistry,
+            Optional<OrderCacheInvalidationPublisher> invalidationPublisher,
+            @Value("${application.config.order-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.order-cache.expire-after-write-seconds:300}") long expireAfterWriteSeconds
+    ) {
+        this.invalidationPublisher = invalidationPublisher;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.idByReference = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "orders-by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idByReference, "orders-by-reference");
+    }
+
+    /**
+     * Returns the cached order or loads it; a loader returning {@code null} is not cached.
+     */
+    public OrderResponse getById(Integer id, Function<Integer, OrderResponse> loader) {
+        return byId.get(id, key -> {
+            var response = loader.apply(key);
+            if (response != null && response.reference() != null) {
+                idByReference.put(response.reference(), key);
+            }
+            return response;
+        });
+    }
+
+    public OrderResponse getByReference(String reference, Function<String, OrderResponse> loader) {
+        var id = idByReference.getIfPresent(reference);
+        if (id != null) {
+            var cached = byId.getIfPresent(id);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        var response = loader.apply(reference);
+        if (response != null) {
+            put(response);
+        }
+        return response;
+    }
+
+    public void put(OrderResponse response) {
+        byId.put(response.id(), response);
+        if (response.reference() != null) {
+            idByReference.put(response.reference(), response.id());
+        }
+    }
+
+    /**
+     * Drops the order here and, if broadcasting is enabled, on every other instance. To be called
+     * after committing a change to a field that {@link OrderResponse} carries (reference, amount,
+     * payment method, customer) of an existing order; no code path changes them today. Such a caller
+     * needs {@code broadcast-invalidations=true}, otherwise the other instances serve the old values
+     * until {@code expire-after-write-seconds}.
+     */
+    public void invalidate(Integer orderId) {
+        evict(orderId);
+        invalidationPublisher.ifPresent(publisher -> publisher.publish(orderId));
+    }
+
+    /**
+     * Drops the order from this instance only.
+     */
+    public void evict(Integer orderId) {
+        byId.invalidate(orderId);
+    }
+}
@@ -1,16 +1,24 @@
 package com.services.orderservice.order;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.List;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 @RestController
 @RequestMapping("/api/v1/orders")
@@ -18,6 +26,9 @@ import org.springframework.web.bind.annotation.RestController;
 public class OrderController {
 
     private final OrderService service;
+    private final OrderAcceptancePipeline acceptancePipeline;
+    private final OrderBatchService batchService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<Integer> createOrder(
@@ -26,15 +37,96 @@ public class OrderController {
         return ResponseEntity.ok(this.service.createOrder(request));
     }
 
+    @PostMapping(params = "mode=async")
+    public ResponseEntity<OrderAcceptedResponse> acceptOrder(
+            @RequestBody @Valid OrderRequest request
+    ) {
+        Integer orderId = this.acceptancePipeline.accept(request);
+        URI statusUrl = ServletUriComponentsBuilder.fromCurrentContextPath()
+                .path("/api/v1/orders/{order-id}/status")
+                .buildAndExpand(orderId)
+                .toUri();
+        return ResponseEntity.accepted()
+                .location(statusUrl)
+                .body(new OrderAcceptedResponse(orderId, statusUrl.toString()));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<OrderBatchResult>> createOrders(
+            @RequestBody List<OrderRequest> requests
+    ) {
+        return ResponseEntity.ok(this.batchService.createOrders(requests));
+    }
+
     @GetMapping
     public ResponseEntity<List<OrderResponse>> findAll() {
         return ResponseEntity.ok(this.service.findAllOrders());
     }
 
+    @GetMapping(params = "customerId")
+    public ResponseEntity<OrderSummaryPageResponse> findByCustomer(
+            @RequestParam("customerId") String customerId,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return ResponseEntity.ok(this.service.findCustomerOrders(customerId, cursor, size));
+    }
+
+    @GetMapping("/page")
+    public ResponseEntity<OrderPageResponse> findPage(
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "size", required = false) Integer size
+    ) {
+        return ResponseEntity.ok(this.service.findOrdersPage(cursor, size));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAll() {
+        StreamingResponseBody body = outputStream -> this.service.streamAllOrders(order -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(order));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @GetMapping("/details")
+    public ResponseEntity<List<OrderDetailResponse>> findDetails(
+            @RequestParam("ids") List<Integer> orderIds
+    ) {
+        return ResponseEntity.ok(this.service.findDetailsByIds(orderIds));
+    }
+
+    @GetMapping("/{order-id}/details")
+    public ResponseEntity<OrderDetailResponse> findDetailsById(
+            @PathVariable("order-id") Integer orderId
+    ) {
+        return ResponseEntity.ok(this.service.findDetailsById(orderId));
+    }
+
+    @GetMapping("/{order-id}/status")
+    public ResponseEntity<OrderStatusResponse> findStatus(
+            @PathVariable("order-id") Integer orderId
+    ) {
+        return ResponseEntity.ok(this.service.findStatusById(orderId));
+    }
+
     @GetMapping("/{order-id}")
     public ResponseEntity<OrderResponse> findById(
             @PathVariable("order-id") Integer orderId
     ) {
         return ResponseEntity.ok(this.service.findById(orderId));
     }
-}
\ No newline at end of file
+
+    @GetMapping("/reference/{reference}")
+    public ResponseEntity<OrderResponse> findByReference(
+            @PathVariable("reference") String reference
+    ) {
+        return ResponseEntity.ok(this.service.findByReference(reference));
+    }
+}
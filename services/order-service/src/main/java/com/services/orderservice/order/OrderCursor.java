@@ -0,0 +1,40 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of the last order of a page, on the (createdDate, id) sort key.
+ * Clients get it as an opaque string and send it back to fetch the next page.
+ */
+public record OrderCursor(
+        LocalDateTime createdDate,
+        Integer id
+) {
+
+    public static OrderCursor of(Order order) {
+        return new OrderCursor(order.getCreatedDate(), order.getId());
+    }
+
+    public static OrderCursor decode(String cursor) {
+        try {
+            var decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var separator = decoded.lastIndexOf('|');
+            return new OrderCursor(
+                    LocalDateTime.parse(decoded.substring(0, separator)),
+                    Integer.valueOf(decoded.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Invalid page cursor:: " + cursor);
+        }
+    }
+
+    public String encode() {
+        var raw = createdDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,21 @@
+package com.services.orderservice.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.services.orderservice.orderLine.OrderLineResponse;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@JsonInclude(Include.NON_EMPTY)
+public record OrderDetailResponse(
+        Integer id,
+        String reference,
+        BigDecimal amount,
+        PaymentMethod paymentMethod,
+        String customerId,
+        OrderStatus status,
+        List<OrderLineResponse> lines
+) {
+
+}
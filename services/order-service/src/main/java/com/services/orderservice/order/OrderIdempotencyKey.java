@@ -0,0 +1,32 @@
+package com.services.orderservice.order;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Claim on an order reference. The order id stays empty while the submission that owns
+ * the claim is running, and is filled in once the order exists. The status is only set when
+ * the submission failed after saving the order, with the status the order was left in.
+ */
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "order_idempotency_key")
+public class OrderIdempotencyKey {
+    @Id
+    private String reference;
+
+    @Column(name = "order_id")
+    private Integer orderId;
+
+    @Enumerated(EnumType.STRING)
+    private OrderStatus status;
+
+    @Column(name = "created_date", nullable = false)
+    private LocalDateTime createdDate;
+}
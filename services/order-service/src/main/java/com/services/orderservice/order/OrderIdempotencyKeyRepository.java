@@ -0,0 +1,57 @@
+package com.services.orderservice.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+public interface OrderIdempotencyKeyRepository extends JpaRepository<OrderIdempotencyKey, String> {
+
+    /**
+     * Plain insert, so a reference claimed by someone else fails on the primary key
+     * instead of being merged.
+     */
+    @Transactional
+    @Modifying
+    @Query(
+            value = "insert into order_idempotency_key (reference, created_date) values (:reference, :createdDate)",
+            nativeQuery = true
+    )
+    void insertClaim(@Param("reference") String reference, @Param("createdDate") LocalDateTime createdDate);
+
+    @Transactional
+    @Modifying
+    @Query("""
+            update OrderIdempotencyKey k set k.createdDate = :now
+            where k.reference = :reference and k.orderId is null and k.createdDate = :claimedAt""")
+    int takeOverClaim(
+            @Param("reference") String reference,
+            @Param("claimedAt") LocalDateTime claimedAt,
+            @Param("now") LocalDateTime now
+    );
+
+    @Transactional
+    @Modifying
+    @Query("update OrderIdempotencyKey k set k.orderId = :orderId where k.reference = :reference")
+    int completeClaim(@Param("reference") String reference, @Param("orderId") Integer orderId);
+
+    @Transactional
+    @Modifying
+    @Query("update OrderIdempotencyKey k set k.orderId = :orderId, k.status = :status where k.reference = :reference")
+    int failClaim(
+            @Param("reference") String reference,
+            @Param("orderId") Integer orderId,
+            @Param("status") OrderStatus status
+    );
+
+    /**
+     * Only deletes a claim no order was recorded on, so a failed outcome is never released.
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from OrderIdempotencyKey k where k.reference = :reference and k.orderId is null")
+    int releaseClaim(@Param("reference") String reference);
+}
@@ -0,0 +1,207 @@
+package com.services.orderservice.order;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.services.orderservice.exception.OrderFailedException;
+import com.services.orderservice.exception.OrderInProgressException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Makes order submission idempotent on the order reference, before any downstream call.
+ * Duplicates on this instance wait for the running submission and share its outcome;
+ * references already turned into orders are answered from memory, then from the
+ * order_idempotency_key table which also guards against duplicates on other instances.
+ * A submission that fails after saving its order records the order and its status on the
+ * reference, so retries get the same failure; the reference is released only when nothing
+ * was saved.
+ */
+@Service
+@Slf4j
+public class OrderIdempotencyService {
+
+    private final OrderIdempotencyKeyRepository repository;
+    private final Map<String, CompletableFuture<Integer>> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Integer> completed;
+    private final long claimTimeoutSeconds;
+
+    public OrderIdempotencyService(
+            OrderIdempotencyKeyRepository repository,
+            @Value("${application.config.idempotency.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.idempotency.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+            @Value("${application.config.idempotency.claim-timeout-seconds:60}") long claimTimeoutSeconds
+    ) {
+        this.repository = repository;
+        this.claimTimeoutSeconds = claimTimeoutSeconds;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .build();
+    }
+
+    /**
+     * Runs the submission once per reference and returns the id of the order it created.
+     * A {@code null} reference cannot be deduplicated and always runs.
+     */
+    public Integer execute(String reference, Supplier<Integer> submission) {
+        if (reference == null) {
+            return submission.get();
+        }
+        var orderId = completed.getIfPresent(reference);
+        if (orderId != null) {
+            return orderId;
+        }
+        var execution = new CompletableFuture<Integer>();
+        var running = inFlight.putIfAbsent(reference, execution);
+        if (running != null) {
+            return join(running);
+        }
+        try {
+            orderId = claimAndRun(reference, submission);
+            completed.put(reference, orderId);
+            execution.complete(orderId);
+            return orderId;
+        } catch (RuntimeException e) {
+            execution.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(reference, execution);
+        }
+    }
+
+    private Integer claimAndRun(String reference, Supplier<Integer> submission) {
+        var existingOrderId = claim(reference);
+        if (existingOrderId != null) {
+            return existingOrderId;
+        }
+        Integer orderId;
+        try {
+            orderId = submission.get();
+        } catch (OrderFailedException e) {
+            fail(reference, e.getOrderId(), e.getStatus());
+            throw e;
+        } catch (RuntimeException e) {
+            release(reference, e);
+            throw e;
+        }
+        complete(reference, orderId);
+        return orderId;
+    }
+
+    /**
+     * Claims a reference for a submission that does not go through {@link #execute}, e.g. one order
+     * of a batch. Returns the id of the order already created for it, or {@code null} once the caller
+     * owns the reference; it must then {@link #complete} or {@link #release} it.
+     *
+     * @throws OrderInProgressException when another submission holds the reference
+     * @throws OrderFailedException when an earlier submission saved the order and then failed
+     */
+    Integer claimReference(String reference) {
+        return claim(reference);
+    }
+
+    /**
+     * Records the order created for a claimed reference, so that retries are answered with it.
+     */
+    void complete(String reference, Integer orderId) {
+        completed.put(reference, orderId);
+        try {
+            repository.completeClaim(reference, orderId);
+        } catch (RuntimeException e) {
+            // the order exists, a retry will hit the unique reference constraint at worst
+            log.error("Cannot record order {} for reference {}", orderId, reference, e);
+        }
+    }
+
+    /**
+     * Records the order a claimed reference failed with, so that retries get the same failure.
+     */
+    void fail(String reference, Integer orderId, OrderStatus status) {
+        completed.invalidate(reference);
+        try {
+            repository.failClaim(reference, orderId, status);
+        } catch (RuntimeException e) {
+            // the order exists, a retry will hit the unique reference constraint at worst
+            log.error("Cannot record failed order {} for reference {}", orderId, reference, e);
+        }
+    }
+
+    /**
+     * Gives up a claimed reference that no order was created for, so that it can be submitted again.
+     */
+    void release(String reference) {
+        try {
+            repository.releaseClaim(reference);
+        } catch (RuntimeException e) {
+            // the claim is taken over once it times out
+            log.error("Cannot release claim on order reference {}", reference, e);
+        }
+    }
+
+    /**
+     * Returns the id of the order already created for this reference, or {@code null}
+     * once this submission owns the reference.
+     */
+    private Integer claim(String reference) {
+        var now = LocalDateTime.now();
+        try {
+            repository.insertClaim(reference, now);
+            return null;
+        } catch (DataIntegrityViolationException e) {
+            // claimed by an earlier or a concurrent submission
+        }
+        var key = repository.findById(reference)
+                .orElseThrow(() -> inProgress(reference));
+        if (key.getOrderId() != null && key.getStatus() != null) {
+            throw new OrderFailedException(
+                    String.format("Order with reference %s was not completed, order %d is %s",
+                            reference, key.getOrderId(), key.getStatus()),
+                    key.getOrderId(),
+                    key.getStatus());
+        }
+        if (key.getOrderId() != null) {
+            return key.getOrderId();
+        }
+        boolean abandoned = key.getCreatedDate().isBefore(now.minusSeconds(claimTimeoutSeconds));
+        if (abandoned && repository.takeOverClaim(reference, key.getCreatedDate(), now) == 1) {
+            log.warn("Taking over abandoned claim on order reference {}", reference);
+            return null;
+        }
+        throw inProgress(reference);
+    }
+
+    private void release(String reference, RuntimeException cause) {
+        try {
+            repository.releaseClaim(reference);
+        } catch (RuntimeException e) {
+            log.error("Cannot release claim on order reference {}", reference, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private Integer join(CompletableFuture<Integer> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private OrderInProgressException inProgress(String reference) {
+        return new OrderInProgressException(
+                String.format("Order with reference %s is already being processed", reference));
+    }
+}
@@ -1,10 +1,14 @@
 package com.services.orderservice.order;
 
+import com.services.orderservice.orderLine.OrderLineMapper;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 @Service
+@RequiredArgsConstructor
 public class OrderMapper {
 
+    private final OrderLineMapper orderLineMapper;
 
     public Order toOrder(OrderRequest request) {
         if (request == null) {
@@ -13,6 +17,7 @@ public class OrderMapper {
         return Order.builder()
                 .id(request.id())
                 .reference(request.reference())
+                .totalAmount(request.amount())
                 .paymentMethod(request.paymentMethod())
                 .customerId(request.customerId())
                 .build();
@@ -28,4 +33,42 @@ public class OrderMapper {
         );
     }
 
+    public OrderStatusResponse toOrderStatus(Order order) {
+        return new OrderStatusResponse(
+                order.getId(),
+                order.getReference(),
+                order.getStatus(),
+                order.getFailureReason(),
+                order.getLastModifiedDate() != null ? order.getLastModifiedDate() : order.getCreatedDate()
+        );
+    }
+
+    public OrderSummaryResponse toOrderSummary(OrderSummary order) {
+        return new OrderSummaryResponse(
+                order.getId(),
+                order.getReference(),
+                order.getTotalAmount(),
+                order.getPaymentMethod(),
+                order.getStatus(),
+                order.getCreatedDate()
+        );
+    }
+
+    /**
+     * Expects the order lines to be loaded already, e.g. through a fetch join.
+     */
+    public OrderDetailResponse toOrderDetail(Order order) {
+        return new OrderDetailResponse(
+                order.getId(),
+                order.getReference(),
+                order.getTotalAmount(),
+                order.getPaymentMethod(),
+                order.getCustomerId(),
+                order.getStatus(),
+                order.getOrderLines().stream()
+                        .map(orderLineMapper::toOrderLineResponse)
+                        .toList()
+        );
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,9 @@
+package com.services.orderservice.order;
+
+import java.util.List;
+
+public record OrderPageResponse(
+        List<OrderResponse> content,
+        String nextCursor
+) {
+}
@@ -0,0 +1,179 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.kafka.OrderConfirmation;
+import com.services.orderservice.kafka.OrderProducer;
+import com.services.orderservice.metrics.OrderStage;
+import com.services.orderservice.metrics.OrderStageMetrics;
+import com.services.orderservice.orderLine.OrderLineRequest;
+import com.services.orderservice.orderLine.OrderLineService;
+import jakarta.persistence.EntityNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Short local transactions used by the order creation saga. None of these methods
+ * calls a remote service, so a database connection is only held for the duration
+ * of the SQL statements themselves.
+ */
+@Service
+@RequiredArgsConstructor
+public class OrderPersistenceService {
+
+    private final OrderRepository repository;
+    private final OrderMapper mapper;
+    private final OrderLineService orderLineService;
+    private final OrderProducer orderProducer;
+    private final OrderStageMetrics stageMetrics;
+
+    /**
+     * Saves an order accepted by the async pipeline, before any downstream call. Its stock will be
+     * purchased under its reference.
+     */
+    @Transactional
+    public Order savePendingOrder(OrderRequest request) {
+        return saveOrders(List.of(request), OrderStatus.PENDING, List.of(request.reference())).get(0);
+    }
+
+    /**
+     * Saves an order whose stock was already purchased under {@code purchaseKey}.
+     */
+    @Transactional
+    public Order saveProcessingOrder(OrderRequest request, String purchaseKey) {
+        return saveOrders(List.of(request), OrderStatus.PROCESSING, Collections.singletonList(purchaseKey)).get(0);
+    }
+
+    /**
+     * Saves orders whose stock was already purchased, each under its own key or, for a purchase
+     * shared by several orders, under none ({@code null}).
+     */
+    @Transactional
+    public List<Order> saveProcessingOrders(List<OrderRequest> requests, List<String> purchaseKeys) {
+        return saveOrders(requests, OrderStatus.PROCESSING, purchaseKeys);
+    }
+
+    /**
+     * Saves the orders and all their lines in one transaction; ids come from the pooled
+     * sequences, so both tables are written as JDBC batches. Orders are returned in the
+     * order of the requests.
+     */
+    private List<Order> saveOrders(List<OrderRequest> requests, OrderStatus status, List<String> purchaseKeys) {
+        var pendingOrders = new ArrayList<Order>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            var pendingOrder = mapper.toOrder(requests.get(i));
+            pendingOrder.setStatus(status);
+            pendingOrder.setPurchaseKey(purchaseKeys.get(i));
+            pendingOrders.add(pendingOrder);
+        }
+        // flushed here rather than at commit, so the timer covers the inserts themselves
+        var orders = stageMetrics.record(OrderStage.ORDER_INSERT, () -> repository.saveAllAndFlush(pendingOrders));
+
+        var orderLines = new ArrayList<OrderLineRequest>();
+        for (int i = 0; i < requests.size(); i++) {
+            var order = orders.get(i);
+            requests.get(i).products().forEach(purchaseRequest -> orderLines.add(new OrderLineRequest(
+                    null,
+                    order.getId(),
+                    purchaseRequest.productId(),
+                    purchaseRequest.quantity(),
+                    order.getCreatedDate()
+            )));
+        }
+        orderLineService.saveOrderLines(orderLines);
+        return orders;
+    }
+
+    /**
+     * Confirms the order and stores its confirmation event in the outbox, in one transaction.
+     */
+    @Transactional
+    public void confirmOrder(Integer orderId, OrderConfirmation confirmation) {
+        updateStatus(orderId, OrderStatus.CONFIRMED);
+        orderProducer.sendOrderConfirmation(confirmation);
+    }
+
+    /**
+     * Confirms several orders with a single status update and stores their confirmation events.
+     */
+    @Transactional
+    public void confirmOrders(Map<Integer, OrderConfirmation> confirmations) {
+        if (confirmations.isEmpty()) {
+            return;
+        }
+        repository.updateStatusIn(confirmations.keySet(), OrderStatus.CONFIRMED);
+        confirmations.values().forEach(orderProducer::sendOrderConfirmation);
+    }
+
+    /**
+     * Moves an accepted order from PENDING to PROCESSING.
+     *
+     * @return false when the order has already left PENDING, e.g. taken over by {@link OrderRecoverySweeper}
+     */
+    @Transactional
+    public boolean startProcessing(Integer orderId) {
+        return repository.updateStatusFrom(orderId, OrderStatus.PENDING, OrderStatus.PROCESSING) == 1;
+    }
+
+    /**
+     * Records that the payment of a PROCESSING order is about to be requested, before the call, so
+     * that an order interrupted from then on is set aside rather than compensated.
+     *
+     * @return false when the order has already left PROCESSING, e.g. taken over by {@link OrderRecoverySweeper}
+     */
+    @Transactional
+    public boolean requestPayment(Integer orderId) {
+        return repository.updateStatusFrom(orderId, OrderStatus.PROCESSING, OrderStatus.PAYMENT_REQUESTED) == 1;
+    }
+
+    /**
+     * Same as {@link #requestPayment(Integer)} for orders of a batch, all saved PROCESSING just before.
+     */
+    @Transactional
+    public void requestPayments(Collection<Integer> orderIds) {
+        repository.updateStatusIn(orderIds, OrderStatus.PAYMENT_REQUESTED);
+    }
+
+    /**
+     * Sets aside orders whose outcome cannot be settled automatically, e.g. paid but not confirmed.
+     */
+    @Transactional
+    public void markForReconciliation(Collection<Integer> orderIds, String reason) {
+        orderIds.forEach(orderId -> repository.updateStatus(orderId, OrderStatus.RECONCILIATION_REQUIRED, reason));
+    }
+
+    /**
+     * Takes over an order stuck in {@code from} since before {@code before}, moving it to {@code to}.
+     *
+     * @return false when the order moved on meanwhile or another instance took it over first
+     */
+    @Transactional
+    public boolean takeOverStale(Integer orderId, OrderStatus from, OrderStatus to, LocalDateTime before) {
+        return repository.takeOverStale(orderId, from, to, before) == 1;
+    }
+
+    /**
+     * Cancels the order and keeps why, truncated to fit the column.
+     */
+    @Transactional
+    public void cancelOrder(Integer orderId, String reason) {
+        var failureReason = reason == null || reason.length() <= Order.FAILURE_REASON_LENGTH
+                ? reason
+                : reason.substring(0, Order.FAILURE_REASON_LENGTH);
+        if (repository.updateStatus(orderId, OrderStatus.CANCELLED, failureReason) == 0) {
+            throw new EntityNotFoundException(String.format("No order found with the provided ID: %d", orderId));
+        }
+    }
+
+    private void updateStatus(Integer orderId, OrderStatus status) {
+        if (repository.updateStatus(orderId, status) == 0) {
+            throw new EntityNotFoundException(String.format("No order found with the provided ID: %d", orderId));
+        }
+    }
+}
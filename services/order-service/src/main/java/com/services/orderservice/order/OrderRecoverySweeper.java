@@ -0,0 +1,137 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order being created only lives in the memory of the instance running it until it is finished;
+ * async orders even wait in an executor queue. After a crash or a redeploy they would stay PENDING or
+ * PROCESSING forever, so orders that have not moved for {@code stale-after-seconds} are picked up here:
+ * <ul>
+ *     <li>PENDING orders never reached a downstream service and are resumed from their stored lines;</li>
+ *     <li>PROCESSING orders stopped before their payment was requested: their stock is released and they
+ *     are cancelled; orders of a batch, whose stock was bought together with other orders, cannot be
+ *     released on their own and are set aside as RECONCILIATION_REQUIRED;</li>
+ *     <li>PAYMENT_REQUESTED orders may have been paid, so they are never compensated and are set aside
+ *     as RECONCILIATION_REQUIRED.</li>
+ * </ul>
+ * Sync and batch orders are saved PROCESSING, after their stock was bought, so only async orders
+ * that never started are ever PENDING.
+ * Each order is taken over with a conditional update first, so several instances can run the sweep
+ * and an order still queued on a live instance is run only once.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.config.async.recovery.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderRecoverySweeper {
+
+    private final OrderRepository repository;
+    private final OrderPersistenceService persistenceService;
+    private final OrderService orderService;
+    private final Counter resumedCounter;
+    private final Counter compensatedCounter;
+    private final Counter reconciliationCounter;
+
+    @Value("${application.config.async.recovery.stale-after-seconds:300}")
+    private long staleAfterSeconds;
+
+    @Value("${application.config.async.recovery.batch-size:100}")
+    private int batchSize;
+
+    public OrderRecoverySweeper(
+            OrderRepository repository,
+            OrderPersistenceService persistenceService,
+            OrderService orderService,
+            MeterRegistry meterRegistry
+    ) {
+        this.repository = repository;
+        this.persistenceService = persistenceService;
+        this.orderService = orderService;
+        this.resumedCounter = Counter.builder("order.recovered")
+                .description("Stale orders taken over by the recovery sweep")
+                .tag("outcome", "resumed")
+                .register(meterRegistry);
+        this.compensatedCounter = Counter.builder("order.recovered")
+                .description("Stale orders taken over by the recovery sweep")
+                .tag("outcome", "compensated")
+                .register(meterRegistry);
+        this.reconciliationCounter = Counter.builder("order.recovered")
+                .description("Stale orders taken over by the recovery sweep")
+                .tag("outcome", "reconciliation")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.config.async.recovery.interval-ms:60000}",
+            fixedDelayString = "${application.config.async.recovery.interval-ms:60000}"
+    )
+    public void sweep() {
+        var before = LocalDateTime.now().minusSeconds(staleAfterSeconds);
+        var staleOrders = repository.findStale(
+                List.of(OrderStatus.PENDING, OrderStatus.PROCESSING, OrderStatus.PAYMENT_REQUESTED), before, PageRequest.ofSize(batchSize));
+        for (Order order : staleOrders) {
+            try {
+                recover(order, before);
+            } catch (RuntimeException e) {
+                log.error("Cannot recover stale order {}", order.getId(), e);
+            }
+        }
+    }
+
+    private void recover(Order order, LocalDateTime before) {
+        if (order.getStatus() == OrderStatus.PENDING) {
+            if (persistenceService.takeOverStale(order.getId(), OrderStatus.PENDING, OrderStatus.PROCESSING, before)) {
+                log.warn("Resuming order {}, pending since {}", order.getId(), order.getCreatedDate());
+                orderService.resumeAcceptedOrder(order, toRequest(order, products(order)));
+                resumedCounter.increment();
+            }
+        } else if (order.getStatus() == OrderStatus.PAYMENT_REQUESTED) {
+            if (persistenceService.takeOverStale(order.getId(), OrderStatus.PAYMENT_REQUESTED, OrderStatus.RECONCILIATION_REQUIRED, before)) {
+                log.error("Order {} ({}) was interrupted after its payment was requested; it needs reconciliation",
+                        order.getId(), order.getReference());
+                reconciliationCounter.increment();
+            }
+        } else if (OrderBatchService.isSharedPurchase(order.getPurchaseKey())) {
+            if (persistenceService.takeOverStale(order.getId(), OrderStatus.PROCESSING, OrderStatus.RECONCILIATION_REQUIRED, before)) {
+                log.error("Order {} ({}) was interrupted and its stock was bought with other orders; it needs reconciliation",
+                        order.getId(), order.getReference());
+                reconciliationCounter.increment();
+            }
+        } else if (persistenceService.takeOverStale(order.getId(), OrderStatus.PROCESSING, OrderStatus.PROCESSING, before)) {
+            log.warn("Compensating order {}, processing since {}", order.getId(), order.getLastModifiedDate());
+            if (orderService.compensateStaleOrder(order, products(order))) {
+                compensatedCounter.increment();
+            }
+        }
+    }
+
+    private List<ProductPurchaseRequest> products(Order order) {
+        return repository.findWithLinesById(order.getId())
+                .map(Order::getOrderLines)
+                .orElse(List.of())
+                .stream()
+                .map(line -> new ProductPurchaseRequest(line.getProductId(), line.getQuantity()))
+                .toList();
+    }
+
+    private static OrderRequest toRequest(Order order, List<ProductPurchaseRequest> products) {
+        return new OrderRequest(
+                order.getId(),
+                order.getReference(),
+                order.getTotalAmount(),
+                order.getPaymentMethod(),
+                order.getCustomerId(),
+                products
+        );
+    }
+}
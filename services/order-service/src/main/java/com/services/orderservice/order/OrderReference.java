@@ -0,0 +1,11 @@
+package com.services.orderservice.order;
+
+/**
+ * Projection of an order on its reference, to look up existing references without loading orders.
+ */
+public interface OrderReference {
+
+    Integer getId();
+
+    String getReference();
+}
@@ -1,6 +1,124 @@
 package com.services.orderservice.order;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
+
+    Optional<Order> findByReference(String reference);
+
+    @Query("select o from Order o left join fetch o.orderLines where o.id = :id")
+    Optional<Order> findWithLinesById(@Param("id") Integer id);
+
+    @Query("select o from Order o left join fetch o.orderLines where o.id in :ids")
+    List<Order> findAllWithLinesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Modifying
+    @Query("update Order o set o.status = :status, o.lastModifiedDate = CURRENT_TIMESTAMP where o.id = :id")
+    int updateStatus(@Param("id") Integer id, @Param("status") OrderStatus status);
+
+    @Modifying
+    @Query("""
+            update Order o set o.status = :status, o.failureReason = :reason, o.lastModifiedDate = CURRENT_TIMESTAMP
+            where o.id = :id""")
+    int updateStatus(@Param("id") Integer id, @Param("status") OrderStatus status, @Param("reason") String reason);
+
+    @Modifying
+    @Query("""
+            update Order o set o.status = :to, o.lastModifiedDate = CURRENT_TIMESTAMP
+            where o.id = :id and o.status = :from""")
+    int updateStatusFrom(@Param("id") Integer id, @Param("from") OrderStatus from, @Param("to") OrderStatus to);
+
+    /**
+     * Takes over an order left in {@code from} since before {@code before}; touching the last modified
+     * date makes a concurrent take-over of the same order match no row.
+     */
+    @Modifying
+    @Query("""
+            update Order o set o.status = :to, o.lastModifiedDate = CURRENT_TIMESTAMP
+            where o.id = :id and o.status = :from and coalesce(o.lastModifiedDate, o.createdDate) < :before""")
+    int takeOverStale(
+            @Param("id") Integer id,
+            @Param("from") OrderStatus from,
+            @Param("to") OrderStatus to,
+            @Param("before") LocalDateTime before
+    );
+
+    @Query("""
+            select o from Order o
+            where o.status in :statuses and coalesce(o.lastModifiedDate, o.createdDate) < :before
+            order by o.createdDate, o.id""")
+    List<Order> findStale(
+            @Param("statuses") Collection<OrderStatus> statuses,
+            @Param("before") LocalDateTime before,
+            Pageable pageable
+    );
+
+    @Modifying
+    @Query("update Order o set o.status = :status, o.lastModifiedDate = CURRENT_TIMESTAMP where o.id in :ids")
+    int updateStatusIn(@Param("ids") Collection<Integer> ids, @Param("status") OrderStatus status);
+
+    List<OrderReference> findByReferenceIn(Collection<String> references);
+
+    @Query("select o from Order o order by o.createdDate, o.id")
+    List<Order> findFirstPage(Pageable pageable);
+
+    @Query("""
+            select o from Order o
+            where o.createdDate > :createdDate
+               or (o.createdDate = :createdDate and o.id > :id)
+            order by o.createdDate, o.id""")
+    List<Order> findPageAfter(
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Pageable pageable
+    );
+
+    /**
+     * Newest orders of a customer first, served by idx_customer_order_customer_created.
+     */
+    @Query("""
+            select o.id as id, o.reference as reference, o.totalAmount as totalAmount,
+                   o.paymentMethod as paymentMethod, o.status as status, o.createdDate as createdDate
+            from Order o
+            where o.customerId = :customerId
+            order by o.createdDate desc, o.id desc""")
+    List<OrderSummary> findFirstCustomerPage(@Param("customerId") String customerId, Pageable pageable);
+
+    @Query("""
+            select o.id as id, o.reference as reference, o.totalAmount as totalAmount,
+                   o.paymentMethod as paymentMethod, o.status as status, o.createdDate as createdDate
+            from Order o
+            where o.customerId = :customerId
+              and (o.createdDate < :createdDate or (o.createdDate = :createdDate and o.id < :id))
+            order by o.createdDate desc, o.id desc""")
+    List<OrderSummary> findCustomerPageBefore(
+            @Param("customerId") String customerId,
+            @Param("createdDate") LocalDateTime createdDate,
+            @Param("id") Integer id,
+            Pageable pageable
+    );
+
+    /**
+     * Reads every order through a JDBC cursor. Must be consumed inside a transaction,
+     * and the caller should detach entities it is done with to keep memory flat.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select o from Order o order by o.createdDate, o.id")
+    Stream<Order> streamAll();
 }
@@ -1,61 +1,201 @@
 package com.services.orderservice.order;
 
-import com.services.orderservice.customers.customer.CustomerClient;
+import com.services.orderservice.customers.customer.CustomerCache;
+import com.services.orderservice.customers.customer.CustomerResponse;
 import com.services.orderservice.customers.payement.PaymentClient;
 import com.services.orderservice.customers.payement.PaymentRequest;
 import com.services.orderservice.customers.product.ProductClient;
 import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.customers.product.ProductPurchaseResponse;
 import com.services.orderservice.exception.BusinessException;
+import com.services.orderservice.exception.OrderFailedException;
 import com.services.orderservice.kafka.OrderConfirmation;
-import com.services.orderservice.kafka.OrderProducer;
-import com.services.orderservice.orderLine.OrderLineRequest;
-import com.services.orderservice.orderLine.OrderLineService;
+import com.services.orderservice.metrics.OrderStage;
+import com.services.orderservice.metrics.OrderStageMetrics;
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrderService {
 
     private final OrderRepository repository;
     private final OrderMapper mapper;
-    private final CustomerClient customerClient;
+    private final CustomerCache customerCache;
     private final PaymentClient paymentClient;
     private final ProductClient productClient;
-    private final OrderLineService orderLineService;
-    private final OrderProducer orderProducer;
+    private final EntityManager entityManager;
+    private final OrderPersistenceService persistenceService;
+    private final OrderCache orderCache;
+    private final OrderIdempotencyService idempotencyService;
+    private final OrderStageMetrics stageMetrics;
+    @Qualifier("orderFanOutExecutor")
+    private final ThreadPoolTaskExecutor orderFanOutExecutor;
 
-    @Transactional
+    @Value("${application.config.fan-out.enabled:false}")
+    private boolean fanOutEnabled;
+
+    @Value("${application.config.fan-out.customer-timeout-ms:2000}")
+    private long customerTimeoutMs;
+
+    @Value("${application.config.fan-out.product-timeout-ms:3000}")
+    private long productTimeoutMs;
+
+    @Value("${application.config.orders.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${application.config.orders.max-page-size:500}")
+    private int maxPageSize;
+
+    @Value("${application.config.orders.max-detail-batch-size:100}")
+    private int maxDetailBatchSize;
+
+    /**
+     * Creates the order once per reference: a repeated submission gets the id of the
+     * original order without calling any downstream service again.
+     */
     public Integer createOrder(OrderRequest request) {
-        var customerResponse = this.customerClient.findCustomerById(request.customerId());
-        if (customerResponse.getBody() == null) {
-            throw new BusinessException("Cannot create order:: No customer exists with the provided ID");
+        return stageMetrics.recordOrder(() ->
+                idempotencyService.execute(request.reference(), () -> placeOrder(request)));
+    }
+
+    /**
+     * Creates an order as a saga: remote calls run outside any database transaction and
+     * each local step commits on its own. Stock bought from product-service is released
+     * again when a later step fails.
+     */
+    private Integer placeOrder(OrderRequest request) {
+        var downstream = callDownstreams(request, newPurchaseKey(request.reference()));
+
+        Order order;
+        try {
+            order = persistenceService.saveProcessingOrder(request, downstream.purchaseKey());
+        } catch (RuntimeException e) {
+            releaseStock(downstream.purchaseKey(), request.products(), e);
+            throw e;
         }
-        var customer = customerResponse.getBody();
 
+        chargeAndConfirm(order, request, downstream);
+        return order.getId();
+    }
 
-        var purchasedProducts = productClient.purchaseProducts(request.products()).getBody();
-        List<ProductPurchaseRequest> productRequests = purchasedProducts.stream()
-                .map(product -> new ProductPurchaseRequest(product.productId(), product.quantity()))
-                .toList();
+    /**
+     * Runs the downstream steps of an order already saved as PENDING by the async acceptance
+     * pipeline. Failures are not thrown: the order is cancelled with their reason, which
+     * clients read from the status endpoint.
+     */
+    public void completeAcceptedOrder(Order order, OrderRequest request) {
+        stageMetrics.recordOrder(() -> {
+            runAcceptedOrder(order, request);
+            return order.getId();
+        });
+    }
 
-        var order = this.repository.save(mapper.toOrder(request));
+    /**
+     * Runs the downstream steps of a PENDING order taken over by {@link OrderRecoverySweeper}, which
+     * has already moved it to PROCESSING.
+     */
+    void resumeAcceptedOrder(Order order, OrderRequest request) {
+        stageMetrics.recordOrder(() -> {
+            runDownstreamSteps(order, request);
+            return order.getId();
+        });
+    }
 
-        for (ProductPurchaseRequest purchaseRequest : request.products()) {
-            orderLineService.saveOrderLine(
-                    new OrderLineRequest(
-                            null,
-                            order.getId(),
-                            purchaseRequest.productId(),
-                            purchaseRequest.quantity()
-                    )
-            );
+    /**
+     * Compensates an order left PROCESSING by an instance that died: the purchase is released under
+     * its key, then the order is cancelled. Its payment was never requested, orders move to
+     * PAYMENT_REQUESTED before that.
+     *
+     * @return false when the stock could not be released; the order is left as it is for the next sweep
+     */
+    boolean compensateStaleOrder(Order order, List<ProductPurchaseRequest> products) {
+        try {
+            productClient.releaseProducts(purchaseKey(order), products);
+        } catch (RuntimeException e) {
+            log.warn("Cannot release the stock of stale order {}, retrying on the next sweep", order.getId(), e);
+            return false;
+        }
+        var cause = new BusinessException("Order processing was interrupted");
+        cancelOrder(order.getId(), cause);
+        log.warn("Order {} ({}) was cancelled after its processing was interrupted", order.getId(), order.getReference());
+        return true;
+    }
+
+    private void runAcceptedOrder(Order order, OrderRequest request) {
+        if (!persistenceService.startProcessing(order.getId())) {
+            log.info("Accepted order {} is no longer pending, skipping it", order.getId());
+            return;
+        }
+        runDownstreamSteps(order, request);
+    }
+
+    private void runDownstreamSteps(Order order, OrderRequest request) {
+        DownstreamResult downstream;
+        try {
+            downstream = callDownstreams(request, purchaseKey(order));
+        } catch (RuntimeException e) {
+            cancelOrder(order.getId(), e);
+            return;
+        }
+        try {
+            chargeAndConfirm(order, request, downstream);
+        } catch (RuntimeException e) {
+            log.warn("Accepted order {} was not completed", order.getId(), e);
         }
+    }
+
+    /**
+     * Key of a new stock purchase of one order. One key per attempt: a retry of a failed attempt must
+     * not be refused as a repeated purchase. Keys end with the attempt's UUID.
+     */
+    static String newPurchaseKey(String reference) {
+        var attempt = UUID.randomUUID().toString();
+        return reference == null ? attempt : reference + ":" + attempt;
+    }
+
+    /**
+     * Key of the stock purchase of an order, stored with it so that a stale order can still be
+     * compensated later; an async order is purchased under its reference.
+     */
+    static String purchaseKey(Order order) {
+        return order.getPurchaseKey() != null ? order.getPurchaseKey() : order.getReference();
+    }
+
+    public OrderStatusResponse findStatusById(Integer id) {
+        return this.repository.findById(id)
+                .map(this.mapper::toOrderStatus)
+                .orElseThrow(() -> new EntityNotFoundException(String.format("No order found with the provided ID: %d", id)));
+    }
+
+    private void chargeAndConfirm(Order order, OrderRequest request, DownstreamResult downstream) {
+        var customer = downstream.customer();
+        List<ProductPurchaseRequest> productRequests = downstream.purchasedProducts().stream()
+                .map(product -> new ProductPurchaseRequest(product.productId(), product.quantity()))
+                .toList();
+
         var paymentRequest = new PaymentRequest(
                 request.amount(),
                 request.paymentMethod(),
@@ -63,21 +203,45 @@ public class OrderService {
                 order.getReference(),
                 customer
         );
-        paymentClient.requestOrderPayment(paymentRequest);
-
-        orderProducer.sendOrderConfirmation(
-                new OrderConfirmation(
-                        request.reference(),
-                        request.amount(),
-                        request.paymentMethod(),
-                        customer,
-                        productRequests
-                )
-        );
+        try {
+            if (!persistenceService.requestPayment(order.getId())) {
+                throw new BusinessException("Order was taken over by the recovery sweep before its payment");
+            }
+            stageMetrics.record(OrderStage.PAYMENT, () -> paymentClient.requestOrderPayment(paymentRequest));
+        } catch (RuntimeException e) {
+            releaseStock(downstream.purchaseKey(), request.products(), e);
+            cancelOrder(order.getId(), e);
+            var failure = new OrderFailedException(failureReason(e), order.getId(), OrderStatus.CANCELLED);
+            failure.initCause(e);
+            throw failure;
+        }
 
-        return order.getId();
+        try {
+            persistenceService.confirmOrder(
+                    order.getId(),
+                    new OrderConfirmation(
+                            request.reference(),
+                            request.amount(),
+                            request.paymentMethod(),
+                            customer,
+                            productRequests
+                    )
+            );
+        } catch (RuntimeException e) {
+            // paid: neither released nor cancelled
+            log.error("Cannot confirm paid order {}", order.getId(), e);
+            markForReconciliation(order.getId(), e);
+            var failure = new OrderFailedException(
+                    "Order was paid but could not be confirmed, it is kept for reconciliation",
+                    order.getId(),
+                    OrderStatus.RECONCILIATION_REQUIRED);
+            failure.initCause(e);
+            throw failure;
+        }
+        orderCache.put(mapper.fromOrder(order));
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponse> findAllOrders() {
         return this.repository.findAll()
                 .stream()
@@ -85,9 +249,237 @@ public class OrderService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Keyset pagination on (createdDate, id): each page starts right after the cursor,
+     * so the cost of a page does not grow with its position in the table.
+     */
+    @Transactional(readOnly = true)
+    public OrderPageResponse findOrdersPage(String cursor, Integer size) {
+        int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+        var pageable = PageRequest.ofSize(pageSize);
+        List<Order> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = repository.findFirstPage(pageable);
+        } else {
+            var after = OrderCursor.decode(cursor);
+            orders = repository.findPageAfter(after.createdDate(), after.id(), pageable);
+        }
+        String nextCursor = orders.size() == pageSize
+                ? OrderCursor.of(orders.get(orders.size() - 1)).encode()
+                : null;
+        return new OrderPageResponse(
+                orders.stream().map(mapper::fromOrder).toList(),
+                nextCursor
+        );
+    }
+
+    /**
+     * A customer's orders, newest first, with the same keyset pagination as {@link #findOrdersPage}
+     * walking (createdDate, id) downwards. Only the summary columns are read.
+     */
+    @Transactional(readOnly = true)
+    public OrderSummaryPageResponse findCustomerOrders(String customerId, String cursor, Integer size) {
+        if (customerId == null || customerId.isBlank()) {
+            throw new BusinessException("Customer should be present");
+        }
+        int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+        var pageable = PageRequest.ofSize(pageSize);
+        List<OrderSummary> orders;
+        if (cursor == null || cursor.isBlank()) {
+            orders = repository.findFirstCustomerPage(customerId, pageable);
+        } else {
+            var before = OrderCursor.decode(cursor);
+            orders = repository.findCustomerPageBefore(customerId, before.createdDate(), before.id(), pageable);
+        }
+        String nextCursor = null;
+        if (orders.size() == pageSize) {
+            var last = orders.get(orders.size() - 1);
+            nextCursor = new OrderCursor(last.getCreatedDate(), last.getId()).encode();
+        }
+        return new OrderSummaryPageResponse(
+                orders.stream().map(mapper::toOrderSummary).toList(),
+                nextCursor
+        );
+    }
+
+    /**
+     * Hands every order to the consumer one at a time, straight from the JDBC cursor.
+     * Each entity is detached once mapped, so memory use does not depend on the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllOrders(Consumer<OrderResponse> consumer) {
+        try (var orders = repository.streamAll()) {
+            orders.forEach(order -> {
+                consumer.accept(mapper.fromOrder(order));
+                entityManager.detach(order);
+            });
+        }
+    }
+
+    @Transactional(readOnly = true)
     public OrderResponse findById(Integer id) {
-        return this.repository.findById(id)
+        var response = orderCache.getById(id, key -> this.repository.findById(key)
                 .map(this.mapper::fromOrder)
+                .orElse(null));
+        if (response == null) {
+            throw new EntityNotFoundException(String.format("No order found with the provided ID: %d", id));
+        }
+        return response;
+    }
+
+    /**
+     * Loads the order and its lines with a single fetch-join query.
+     */
+    @Transactional(readOnly = true)
+    public OrderDetailResponse findDetailsById(Integer id) {
+        return this.repository.findWithLinesById(id)
+                .map(this.mapper::toOrderDetail)
                 .orElseThrow(() -> new EntityNotFoundException(String.format("No order found with the provided ID: %d", id)));
     }
+
+    /**
+     * Loads the details of several orders in one round trip, in the order the ids were given.
+     * Unknown ids are skipped.
+     */
+    @Transactional(readOnly = true)
+    public List<OrderDetailResponse> findDetailsByIds(List<Integer> ids) {
+        var uniqueIds = new LinkedHashSet<>(ids);
+        if (uniqueIds.size() > maxDetailBatchSize) {
+            throw new BusinessException(String.format(
+                    "Cannot load order details:: at most %d ids can be requested at once", maxDetailBatchSize));
+        }
+        if (uniqueIds.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Order> ordersById = this.repository.findAllWithLinesByIdIn(uniqueIds).stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        return uniqueIds.stream()
+                .map(ordersById::get)
+                .filter(Objects::nonNull)
+                .map(this.mapper::toOrderDetail)
+                .toList();
+    }
+
+    public OrderResponse findByReference(String reference) {
+        var response = orderCache.getByReference(reference, key -> this.repository.findByReference(key)
+                .map(this.mapper::fromOrder)
+                .orElse(null));
+        if (response == null) {
+            throw new EntityNotFoundException(String.format("No order found with the provided reference: %s", reference));
+        }
+        return response;
+    }
+
+    /**
+     * The customer lookup and the stock purchase do not depend on each other. In fan-out mode
+     * both are started together on the bounded executor and joined with their own deadline;
+     * a failed or timed-out customer lookup cancels the purchase if it is still running.
+     * <p>
+     * Whenever the purchase fails, times out or is cancelled, product-service may still have
+     * committed it, so its stock is released under the purchase key. The release is idempotent and
+     * gives nothing back for a purchase that never happened.
+     */
+    private DownstreamResult callDownstreams(OrderRequest request, String purchaseKey) {
+        if (!fanOutEnabled) {
+            var customer = findCustomer(request.customerId());
+            try {
+                return new DownstreamResult(customer, purchaseProducts(purchaseKey, request.products()), purchaseKey);
+            } catch (RuntimeException e) {
+                releaseStock(purchaseKey, request.products(), e);
+                throw e;
+            }
+        }
+        long start = System.nanoTime();
+        Future<CustomerResponse> customerFuture =
+                orderFanOutExecutor.submit(() -> findCustomer(request.customerId()));
+        Future<List<ProductPurchaseResponse>> productsFuture =
+                orderFanOutExecutor.submit(() -> purchaseProducts(purchaseKey, request.products()));
+
+        CustomerResponse customer;
+        List<ProductPurchaseResponse> purchasedProducts;
+        try {
+            customer = await(customerFuture, start + TimeUnit.MILLISECONDS.toNanos(customerTimeoutMs), "customer lookup");
+        } catch (RuntimeException e) {
+            productsFuture.cancel(true);
+            releaseStock(purchaseKey, request.products(), e);
+            throw e;
+        }
+        try {
+            purchasedProducts = await(productsFuture, start + TimeUnit.MILLISECONDS.toNanos(productTimeoutMs), "product purchase");
+        } catch (RuntimeException e) {
+            releaseStock(purchaseKey, request.products(), e);
+            throw e;
+        }
+        return new DownstreamResult(customer, purchasedProducts, purchaseKey);
+    }
+
+    private CustomerResponse findCustomer(String customerId) {
+        return stageMetrics.record(OrderStage.CUSTOMER_LOOKUP, () -> customerCache.findById(customerId))
+                .orElseThrow(() -> new BusinessException("Cannot create order:: No customer exists with the provided ID"));
+    }
+
+    private List<ProductPurchaseResponse> purchaseProducts(String purchaseKey, List<ProductPurchaseRequest> products) {
+        return productClient.purchaseProducts(purchaseKey, products).getBody();
+    }
+
+    /**
+     * Releases the stock bought under {@code purchaseKey}, if any. Package-private for the sweeper of
+     * stale accepted orders.
+     */
+    void releaseStock(String purchaseKey, List<ProductPurchaseRequest> products, RuntimeException cause) {
+        try {
+            productClient.releaseProducts(purchaseKey, products);
+        } catch (RuntimeException e) {
+            log.error("Compensation failed:: could not release stock {}", products, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void cancelOrder(Integer orderId, RuntimeException cause) {
+        try {
+            persistenceService.cancelOrder(orderId, failureReason(cause));
+        } catch (RuntimeException e) {
+            log.error("Compensation failed:: could not cancel order {}", orderId, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private void markForReconciliation(Integer orderId, RuntimeException cause) {
+        try {
+            persistenceService.markForReconciliation(List.of(orderId), "Order was paid but could not be confirmed");
+        } catch (RuntimeException e) {
+            // left PAYMENT_REQUESTED, the recovery sweep sets it aside
+            log.error("Cannot set aside paid order {} for reconciliation", orderId, e);
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static String failureReason(RuntimeException cause) {
+        return cause instanceof BusinessException business ? business.getMsg() : cause.getMessage();
+    }
+
+    private <T> T await(Future<T> future, long deadlineNanos, String call) {
+        try {
+            return future.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw new BusinessException("Cannot create order:: " + call + " timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(true);
+            throw new BusinessException("Cannot create order:: " + call + " was interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record DownstreamResult(
+            CustomerResponse customer,
+            List<ProductPurchaseResponse> purchasedProducts,
+            String purchaseKey
+    ) {
+    }
 }
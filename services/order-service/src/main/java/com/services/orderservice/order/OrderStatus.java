@@ -0,0 +1,12 @@
+package com.services.orderservice.order;
+
+public enum OrderStatus {
+    PENDING,
+    PROCESSING,
+    /** Stock bought and payment requested: if it stays here, whether it was paid is unknown. */
+    PAYMENT_REQUESTED,
+    CONFIRMED,
+    CANCELLED,
+    /** Paid or partly processed, but neither confirmed nor compensated: to be settled by hand. */
+    RECONCILIATION_REQUIRED
+}
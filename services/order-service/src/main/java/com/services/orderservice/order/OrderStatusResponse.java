@@ -0,0 +1,17 @@
+package com.services.orderservice.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import java.time.LocalDateTime;
+
+@JsonInclude(Include.NON_EMPTY)
+public record OrderStatusResponse(
+        Integer id,
+        String reference,
+        OrderStatus status,
+        String failureReason,
+        LocalDateTime updatedAt
+) {
+
+}
@@ -0,0 +1,23 @@
+package com.services.orderservice.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Projection of an order on the columns shown in a customer's order history, read without
+ * loading the entity or its lines.
+ */
+public interface OrderSummary {
+
+    Integer getId();
+
+    String getReference();
+
+    BigDecimal getTotalAmount();
+
+    PaymentMethod getPaymentMethod();
+
+    OrderStatus getStatus();
+
+    LocalDateTime getCreatedDate();
+}
@@ -0,0 +1,9 @@
+package com.services.orderservice.order;
+
+import java.util.List;
+
+public record OrderSummaryPageResponse(
+        List<OrderSummaryResponse> content,
+        String nextCursor
+) {
+}
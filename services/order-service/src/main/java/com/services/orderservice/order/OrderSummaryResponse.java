@@ -0,0 +1,19 @@
+package com.services.orderservice.order;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@JsonInclude(Include.NON_EMPTY)
+public record OrderSummaryResponse(
+        Integer id,
+        String reference,
+        BigDecimal amount,
+        PaymentMethod paymentMethod,
+        OrderStatus status,
+        LocalDateTime createdDate
+) {
+
+}
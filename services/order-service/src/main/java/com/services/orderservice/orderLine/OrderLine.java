@@ -6,6 +6,8 @@ import com.services.orderservice.order.Order;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 
 @AllArgsConstructor
 @Builder
@@ -13,14 +15,24 @@ import lombok.*;
 @Setter
 @Entity
 @NoArgsConstructor
-@Table(name = "customer_line")
+@Table(
+        name = "customer_line",
+        indexes = @Index(name = "idx_customer_line_order_id", columnList = "order_id")
+)
 public class OrderLine {
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_line_seq")
+    @SequenceGenerator(name = "customer_line_seq", sequenceName = "customer_line_seq", allocationSize = 50)
     private Integer id;
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "order_id")
     private Order order;
     private Integer productId;
     private double quantity;
+
+    /**
+     * Copy of the order's creation date, so that a line lives in the same monthly partition as its order.
+     */
+    @Column(name = "created_date", nullable = false, updatable = false)
+    private LocalDateTime createdDate;
 }
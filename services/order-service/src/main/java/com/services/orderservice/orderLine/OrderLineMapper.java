@@ -3,11 +3,12 @@ package com.services.orderservice.orderLine;
 import com.services.orderservice.order.Order;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+
 @Service
 public class OrderLineMapper {
     public OrderLine toOrderLine(OrderLineRequest request) {
         return OrderLine.builder()
-                .id(request.orderId())
                 .productId(request.productId())
                 .order(
                         Order.builder()
@@ -15,13 +16,15 @@ public class OrderLineMapper {
                                 .build()
                 )
                 .quantity(request.quantity())
+                .createdDate(request.createdDate() != null ? request.createdDate() : LocalDateTime.now())
                 .build();
     }
 
     public OrderLineResponse toOrderLineResponse(OrderLine orderLine) {
         return new OrderLineResponse(
                 orderLine.getId(),
-                orderLine.getQuantity()
+                orderLine.getQuantity(),
+                orderLine.getProductId()
         );
     }
 }
\ No newline at end of file
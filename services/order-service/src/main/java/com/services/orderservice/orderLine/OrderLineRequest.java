@@ -1,8 +1,15 @@
 package com.services.orderservice.orderLine;
 
+import java.time.LocalDateTime;
+
+/**
+ * @param createdDate creation date of the order, which is also the partition key of the line;
+ *                    defaults to now when absent
+ */
 public record OrderLineRequest(
         Integer id,
         Integer orderId,
         Integer productId,
-        double quantity
+        double quantity,
+        LocalDateTime createdDate
 )  {}
@@ -2,6 +2,7 @@ package com.services.orderservice.orderLine;
 
 public record OrderLineResponse(
         Integer id,
-        double quantity
+        double quantity,
+        Integer productId
 ) {
 }
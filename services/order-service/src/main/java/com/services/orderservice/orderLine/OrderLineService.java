@@ -1,7 +1,10 @@
 package com.services.orderservice.orderLine;
 
+import com.services.orderservice.metrics.OrderStage;
+import com.services.orderservice.metrics.OrderStageMetrics;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.stream.Collectors;
@@ -12,12 +15,25 @@ public class OrderLineService {
 
     private final OrderLineRepository repository;
     private final OrderLineMapper mapper;
+    private final OrderStageMetrics stageMetrics;
 
     public Integer saveOrderLine(OrderLineRequest request) {
         var order = mapper.toOrderLine(request);
         return repository.save(order).getId();
     }
 
+    /**
+     * Inserts all lines of an order at once. The lines have no id yet, so each one is
+     * persisted without a prior select and Hibernate flushes them as a single JDBC batch.
+     */
+    public void saveOrderLines(List<OrderLineRequest> requests) {
+        var orderLines = requests.stream()
+                .map(mapper::toOrderLine)
+                .toList();
+        stageMetrics.record(OrderStage.LINE_INSERT, () -> repository.saveAllAndFlush(orderLines));
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderLineResponse> findAllByOrderId(Integer orderId) {
         return repository.findAllByOrderId(orderId)
                 .stream()
@@ -0,0 +1,279 @@
+package com.services.orderservice.partition;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of customer_order and customer_line in shape (PostgreSQL only):
+ * creates the partitions of the coming months ahead of time, and moves the partitions that fall
+ * out of the hot window to the order_archive schema, so that queries on the hot tables only scan
+ * recent months. Archived partitions stay queryable through order_archive and the *_history views;
+ * they can be moved to a tablespace on compressed storage and/or converted to a columnar access
+ * method when one is configured.
+ * <p>
+ * A partition is archived in three steps, each of which can be resumed by the next run if the
+ * previous one was interrupted: it is detached concurrently, which cannot run in a transaction
+ * and is why the hot tables have no default partition; it is moved and rewritten while detached,
+ * in its own transaction; it is then attached to the archive parent.
+ * <p>
+ * Every instance runs the job on one dedicated connection; a session-level advisory lock on that
+ * connection lets only one of them work at a time.
+ * <p>
+ * The hot tables have no default partition, so an insert fails for a month whose partition is
+ * missing. The V8 migration creates the first months, the partitions ahead are created again
+ * once the context is up and before the web server takes traffic, and the job is on unless
+ * {@code partitions.enabled} is explicitly false (e.g. on a database without partitions).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.config.partitions.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderPartitionMaintenance implements SmartInitializingSingleton {
+
+    static final List<String> PARTITIONED_TABLES = List.of("customer_order", "customer_line");
+    static final String ARCHIVE_SCHEMA = "order_archive";
+
+    private static final long LOCK_KEY = 0x6f72646572L;
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final Pattern IDENTIFIER = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    private final DataSource dataSource;
+    private final int monthsAhead;
+    private final int hotMonths;
+    private final String archiveTablespace;
+    private final String archiveAccessMethod;
+
+    public OrderPartitionMaintenance(
+            DataSource dataSource,
+            @Value("${application.config.partitions.months-ahead:3}") int monthsAhead,
+            @Value("${application.config.partitions.hot-months:6}") int hotMonths,
+            @Value("${application.config.partitions.archive-tablespace:}") String archiveTablespace,
+            @Value("${application.config.partitions.archive-access-method:}") String archiveAccessMethod
+    ) {
+        if (hotMonths < 1) {
+            throw new IllegalArgumentException("application.config.partitions.hot-months must be at least 1");
+        }
+        this.dataSource = dataSource;
+        this.monthsAhead = monthsAhead;
+        this.hotMonths = hotMonths;
+        this.archiveTablespace = identifierOrEmpty("archive-tablespace", archiveTablespace);
+        this.archiveAccessMethod = identifierOrEmpty("archive-access-method", archiveAccessMethod);
+    }
+
+    /**
+     * Creates the partitions ahead once every bean is ready, Flyway's migrations included, and before
+     * the web server starts; startup fails if they cannot be created.
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        try (Connection connection = dataSource.getConnection()) {
+            createAhead(YearMonth.now(), new JdbcTemplate(new SingleConnectionDataSource(connection, true)));
+        } catch (SQLException e) {
+            throw new CannotGetJdbcConnectionException("Cannot open a connection to create the order partitions", e);
+        }
+    }
+
+    /**
+     * Drains and archives once the application is up; this may take a while, so it does not hold up startup.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${application.config.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        try (Connection connection = dataSource.getConnection()) {
+            var session = new SingleConnectionDataSource(connection, true);
+            maintain(YearMonth.now(), new JdbcTemplate(session),
+                    new TransactionTemplate(new DataSourceTransactionManager(session)));
+        } catch (SQLException e) {
+            log.error("Partition maintenance failed, it will run again on the next schedule",
+                    new CannotGetJdbcConnectionException("Cannot open a connection for partition maintenance", e));
+        } catch (RuntimeException e) {
+            log.error("Partition maintenance failed, it will run again on the next schedule", e);
+        }
+    }
+
+    /**
+     * Runs the job on {@code session}, which must be bound to a single connection in auto-commit mode.
+     */
+    void maintain(YearMonth currentMonth, JdbcTemplate session, TransactionTemplate transactions) {
+        whileLocked(session, () -> {
+            YearMonth oldestHotMonth = currentMonth.minusMonths(hotMonths - 1);
+            for (String table : PARTITIONED_TABLES) {
+                drainDefault(session, transactions, table);
+                createAhead(session, table, currentMonth);
+                archiveBefore(session, transactions, table, oldestHotMonth);
+            }
+        });
+    }
+
+    /**
+     * Only creates the partitions ahead, on {@code session} like {@link #maintain}. When another instance
+     * holds the lock it is running the job, which creates them too.
+     */
+    void createAhead(YearMonth currentMonth, JdbcTemplate session) {
+        whileLocked(session, () -> {
+            for (String table : PARTITIONED_TABLES) {
+                createAhead(session, table, currentMonth);
+            }
+        });
+    }
+
+    private void whileLocked(JdbcTemplate session, Runnable work) {
+        Boolean locked = session.queryForObject("select pg_try_advisory_lock(?)", Boolean.class, LOCK_KEY);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("Partition maintenance already running on another instance");
+            return;
+        }
+        try {
+            work.run();
+        } finally {
+            // the connection goes back to the pool, a session lock would outlive this run
+            session.queryForObject("select pg_advisory_unlock(?)", Boolean.class, LOCK_KEY);
+        }
+    }
+
+    /**
+     * Moves the rows of the former default partition, detached by the V4 migration, into their
+     * monthly partitions and drops it. Rows of customer_order are inserted again through the parent,
+     * so their entries in customer_order_reference are removed first and re-added by its trigger.
+     */
+    private void drainDefault(JdbcTemplate session, TransactionTemplate transactions, String table) {
+        String defaultTable = table + "_default";
+        Boolean exists = session.queryForObject("select to_regclass(?) is not null", Boolean.class, defaultTable);
+        if (!Boolean.TRUE.equals(exists)) {
+            return;
+        }
+        transactions.executeWithoutResult(status -> {
+            var months = session.queryForList(
+                    "select distinct to_char(created_date, 'YYYYMM') from " + defaultTable, String.class);
+            for (String month : months) {
+                createPartition(session, table, YearMonth.parse(month, SUFFIX));
+            }
+            if (table.equals("customer_order")) {
+                session.execute("delete from customer_order_reference r using customer_order_default d"
+                        + " where r.reference = d.reference");
+            }
+            session.execute("insert into %s select * from %s".formatted(table, defaultTable));
+            session.execute("drop table " + defaultTable);
+        });
+        log.info("Moved the rows of {} into their monthly partitions", defaultTable);
+    }
+
+    private void createAhead(JdbcTemplate session, String table, YearMonth currentMonth) {
+        for (int i = 0; i <= monthsAhead; i++) {
+            createPartition(session, table, currentMonth.plusMonths(i));
+        }
+    }
+
+    private void createPartition(JdbcTemplate session, String table, YearMonth month) {
+        session.execute("create table if not exists %s partition of %s for values %s"
+                .formatted(partitionName(table, month), table, bounds(month)));
+    }
+
+    private void archiveBefore(
+            JdbcTemplate session, TransactionTemplate transactions, String table, YearMonth oldestHotMonth) {
+        var pattern = Pattern.compile(Pattern.quote(table) + "_p(\\d{6})");
+        for (MonthlyTable partition : monthlyTables(session, table)) {
+            var matcher = pattern.matcher(partition.name());
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(matcher.group(1), SUFFIX);
+            if (month.isBefore(oldestHotMonth)) {
+                archive(session, transactions, table, partition, month);
+            }
+        }
+    }
+
+    private void archive(
+            JdbcTemplate session, TransactionTemplate transactions, String table, MonthlyTable partition, YearMonth month) {
+        String archived = ARCHIVE_SCHEMA + "." + partition.name();
+        if (partition.inArchive() && partition.attached()) {
+            return;
+        }
+        if (!partition.inArchive()) {
+            if (partition.attached()) {
+                // FINALIZE completes a concurrent detach that was interrupted half-way
+                session.execute("alter table %s detach partition %s %s"
+                        .formatted(table, partition.name(), partition.detachPending() ? "finalize" : "concurrently"));
+            }
+            transactions.executeWithoutResult(status -> {
+                session.execute("alter table %s set schema %s".formatted(partition.name(), ARCHIVE_SCHEMA));
+                if (!archiveTablespace.isEmpty()) {
+                    session.execute("alter table %s set tablespace %s".formatted(archived, archiveTablespace));
+                }
+                if (!archiveAccessMethod.isEmpty()) {
+                    session.execute("alter table %s set access method %s".formatted(archived, archiveAccessMethod));
+                }
+            });
+        }
+        session.execute("alter table %s.%s attach partition %s for values %s"
+                .formatted(ARCHIVE_SCHEMA, table, archived, bounds(month)));
+        log.info("Archived partition {} to {}", partition.name(), ARCHIVE_SCHEMA);
+    }
+
+    /**
+     * Monthly tables of {@code table} in the hot and archive schemas, attached or not, so that an
+     * archive interrupted between two steps is picked up where it stopped.
+     */
+    private List<MonthlyTable> monthlyTables(JdbcTemplate session, String table) {
+        return session.query("""
+                        select c.relname, n.nspname = ? as in_archive, c.relispartition as attached,
+                               coalesce(i.inhdetachpending, false) as detach_pending
+                        from pg_class c
+                        join pg_namespace n on n.oid = c.relnamespace
+                        left join pg_inherits i on i.inhrelid = c.oid
+                        where c.relkind = 'r'
+                          and n.nspname in (current_schema(), ?)
+                          and c.relname like ?
+                        order by c.relname""",
+                (rs, rowNum) -> new MonthlyTable(
+                        rs.getString("relname"),
+                        rs.getBoolean("in_archive"),
+                        rs.getBoolean("attached"),
+                        rs.getBoolean("detach_pending")),
+                ARCHIVE_SCHEMA, ARCHIVE_SCHEMA, table.replace("_", "\\_") + "\\_p%");
+    }
+
+    static String partitionName(String table, YearMonth month) {
+        return table + "_p" + month.format(SUFFIX);
+    }
+
+    private static String bounds(YearMonth month) {
+        return "from ('%s') to ('%s')".formatted(month.atDay(1), month.plusMonths(1).atDay(1));
+    }
+
+    private static String identifierOrEmpty(String property, String value) {
+        if (value == null || value.isBlank()) {
+            return "";
+        }
+        if (!IDENTIFIER.matcher(value).matches()) {
+            throw new IllegalArgumentException("application.config.partitions." + property + " is not a valid identifier: " + value);
+        }
+        return value;
+    }
+
+    record MonthlyTable(String name, boolean inArchive, boolean attached, boolean detachPending) {
+    }
+}
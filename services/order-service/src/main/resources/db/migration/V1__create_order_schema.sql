@@ -0,0 +1,116 @@
+-- Orders and order lines are partitioned by month on created_date. Monthly partitions are created
+-- ahead of time by OrderPartitionMaintenance; the default partitions only catch rows the job has
+-- not prepared for. Partitions older than the hot window are detached and moved to order_archive.
+
+create sequence customer_order_seq increment by 50;
+create sequence customer_line_seq increment by 50;
+create sequence order_outbox_seq increment by 50;
+
+create table customer_order
+(
+    id                 integer      not null,
+    reference          varchar(255) not null,
+    total_amount       numeric(38, 2),
+    payment_method     varchar(255),
+    customer_id        varchar(255),
+    status             varchar(255),
+    failure_reason     varchar(500),
+    created_date       timestamp(6) not null,
+    last_modified_date timestamp(6),
+    primary key (id, created_date)
+) partition by range (created_date);
+
+create index idx_customer_order_created_date_id on customer_order (created_date, id);
+create index idx_customer_order_customer_created on customer_order (customer_id, created_date, id);
+create index idx_customer_order_reference on customer_order (reference);
+
+create table customer_order_default partition of customer_order default;
+
+-- A unique constraint on a partitioned table has to include the partition key, so the uniqueness
+-- of references across every partition, archived ones included, is kept in a plain table.
+create table customer_order_reference
+(
+    reference    varchar(255) primary key,
+    order_id     integer      not null,
+    created_date timestamp(6) not null
+);
+
+create function customer_order_reference_insert() returns trigger
+    language plpgsql as
+$$
+begin
+    insert into customer_order_reference (reference, order_id, created_date)
+    values (new.reference, new.id, new.created_date);
+    return new;
+end;
+$$;
+
+create trigger customer_order_reference_unique
+    after insert
+    on customer_order
+    for each row
+execute function customer_order_reference_insert();
+
+-- No foreign key to customer_order: it would have to include the order's created_date, which the
+-- line copies so that both rows land in the same monthly partition.
+create table customer_line
+(
+    id           integer          not null,
+    order_id     integer,
+    product_id   integer,
+    quantity     double precision not null,
+    created_date timestamp(6)     not null,
+    primary key (id, created_date)
+) partition by range (created_date);
+
+create index idx_customer_line_order_id on customer_line (order_id);
+
+create table customer_line_default partition of customer_line default;
+
+create table order_outbox
+(
+    id             bigint primary key,
+    topic          varchar(255) not null,
+    message_key    varchar(255),
+    payload        text         not null,
+    created_date   timestamp(6) not null,
+    published_date timestamp(6)
+);
+
+create index idx_order_outbox_unpublished on order_outbox (published_date, id);
+
+create table order_idempotency_key
+(
+    reference    varchar(255) primary key,
+    order_id     integer,
+    created_date timestamp(6) not null
+);
+
+-- Cold store: detached partitions are attached here unchanged. A column added to the hot tables
+-- must be added to these parents too, or archiving the next partition fails.
+create schema order_archive;
+
+create table order_archive.customer_order
+(
+    like customer_order including defaults
+) partition by range (created_date);
+
+create table order_archive.customer_line
+(
+    like customer_line including defaults
+) partition by range (created_date);
+
+-- Full history for reporting; the application itself only reads the hot tables.
+create view customer_order_history as
+select *
+from customer_order
+union all
+select *
+from order_archive.customer_order;
+
+create view customer_line_history as
+select *
+from customer_line
+union all
+select *
+from order_archive.customer_line;
@@ -0,0 +1,4 @@
+-- Orders still PENDING or PROCESSING, looked up by OrderRecoverySweeper. Only unfinished orders are
+-- indexed, so the index stays small whatever the size of the table.
+create index idx_customer_order_unfinished on customer_order (created_date, id)
+    where status in ('PENDING', 'PROCESSING');
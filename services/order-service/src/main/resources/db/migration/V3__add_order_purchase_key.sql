@@ -0,0 +1,4 @@
+-- Key the stock of an order was purchased under, so that OrderRecoverySweeper can release it.
+-- Added to the archive parent too, attaching a detached partition needs the same columns.
+alter table customer_order add column purchase_key varchar(255);
+alter table order_archive.customer_order add column purchase_key varchar(255);
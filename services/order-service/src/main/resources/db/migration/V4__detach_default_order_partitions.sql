@@ -0,0 +1,6 @@
+-- DETACH PARTITION CONCURRENTLY, used to archive old months without blocking the hot tables, is
+-- refused while a partitioned table has a default partition. The default partitions are detached
+-- and left as plain tables: OrderPartitionMaintenance moves any rows they hold into their monthly
+-- partitions, then drops them. Months are created well ahead, so no insert relies on a default.
+alter table customer_order detach partition customer_order_default;
+alter table customer_line detach partition customer_line_default;
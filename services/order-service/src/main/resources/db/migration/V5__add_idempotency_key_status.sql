@@ -0,0 +1,3 @@
+-- Status an order was left in when its submission failed after saving it, so that retries of the
+-- reference are answered with that outcome instead of being run again.
+alter table order_idempotency_key add column status varchar(255);
@@ -0,0 +1,4 @@
+-- The relay claims events for a short lease and commits before sending them, so that no
+-- transaction stays open while Kafka acknowledges; an expired lease makes the events claimable
+-- again. Published events are deleted after the retention period, by published_date.
+alter table order_outbox add column claimed_until timestamp(6);
@@ -0,0 +1,6 @@
+-- Orders interrupted after their payment was requested are set aside by OrderRecoverySweeper, so
+-- PAYMENT_REQUESTED joins the statuses of the unfinished-orders index.
+drop index idx_customer_order_unfinished;
+
+create index idx_customer_order_unfinished on customer_order (created_date, id)
+    where status in ('PENDING', 'PROCESSING', 'PAYMENT_REQUESTED');
@@ -0,0 +1,21 @@
+-- Since V4 the hot tables have no default partition, so an insert needs the partition of its month.
+-- The current and next months are created here, so that a new database takes orders before
+-- OrderPartitionMaintenance has ever run; it creates the following months ahead.
+do
+$$
+    declare
+        first_day date;
+        tbl       text;
+    begin
+        for i in 0..1
+            loop
+                first_day := (date_trunc('month', current_date) + make_interval(months => i))::date;
+                foreach tbl in array array ['customer_order', 'customer_line']
+                    loop
+                        execute format('create table if not exists %I partition of %I for values from (%L) to (%L)',
+                                       tbl || '_p' || to_char(first_day, 'YYYYMM'), tbl,
+                                       first_day, (first_day + interval '1 month')::date);
+                    end loop;
+            end loop;
+    end;
+$$;
@@ -0,0 +1,94 @@
+package com.services.orderservice.config;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Compares the former bare RestTemplate (one JDK connection per request) with the pooled
+ * transport against a WireMock downstream. Opt-in, as it only prints figures:
+ * {@code mvn test -Dtest=OutboundHttpTransportBenchmarkTest -Dbenchmark=true}
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@DisplayName("⏱️ Outbound HTTP transport benchmark")
+class OutboundHttpTransportBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS_PER_THREAD = 500;
+
+    @Test
+    @DisplayName("⏱️ Bare RestTemplate vs pooled transport")
+    void compareTransports() throws Exception {
+        var wireMockServer = new WireMockServer(options().dynamicPort().containerThreads(THREADS * 2));
+        wireMockServer.start();
+        wireMockServer.stubFor(post("/purchase").willReturn(okJson("[{\"productId\":1,\"quantity\":2}]")));
+        var transport = new OutboundHttpTransport(
+                new MockEnvironment().withProperty("application.config.http.product.max-connections", String.valueOf(THREADS)),
+                new SimpleMeterRegistry()
+        );
+        try {
+            String url = wireMockServer.baseUrl() + "/purchase";
+            var bare = new RestTemplate();
+            var pooled = new RestTemplate(transport.requestFactory(OutboundHttpTransport.PRODUCT));
+
+            // warm-up of both paths, then the measured runs
+            run(bare, url);
+            run(pooled, url);
+            report("bare RestTemplate", run(bare, url));
+            report("pooled transport", run(pooled, url));
+        } finally {
+            transport.destroy();
+            wireMockServer.stop();
+        }
+    }
+
+    private long[] run(RestTemplate restTemplate, String url) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<long[]>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    long[] latencies = new long[REQUESTS_PER_THREAD];
+                    for (int i = 0; i < REQUESTS_PER_THREAD; i++) {
+                        long start = System.nanoTime();
+                        restTemplate.postForObject(url, "[{\"productId\":1,\"quantity\":2}]", String.class);
+                        latencies[i] = System.nanoTime() - start;
+                    }
+                    return latencies;
+                }));
+            }
+            long[] all = new long[THREADS * REQUESTS_PER_THREAD];
+            for (int t = 0; t < THREADS; t++) {
+                System.arraycopy(futures.get(t).get(), 0, all, t * REQUESTS_PER_THREAD, REQUESTS_PER_THREAD);
+            }
+            return all;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void report(String name, long[] latencies) {
+        Arrays.sort(latencies);
+        long total = Arrays.stream(latencies).sum();
+        System.out.printf("%-18s requests=%d mean=%.2fms p50=%.2fms p99=%.2fms%n",
+                name,
+                latencies.length,
+                total / (double) latencies.length / 1_000_000,
+                latencies[latencies.length / 2] / 1_000_000.0,
+                latencies[(int) (latencies.length * 0.99)] / 1_000_000.0);
+    }
+}
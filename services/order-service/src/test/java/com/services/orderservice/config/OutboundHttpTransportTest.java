@@ -0,0 +1,102 @@
+package com.services.orderservice.config;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.*;
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("🧪 OutboundHttpTransport Tests")
+class OutboundHttpTransportTest {
+
+    private static WireMockServer wireMockServer;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboundHttpTransport transport;
+
+    @BeforeAll
+    static void setupWireMock() {
+        wireMockServer = new WireMockServer(options().dynamicPort());
+        wireMockServer.start();
+    }
+
+    @AfterAll
+    static void tearDownWireMock() {
+        wireMockServer.stop();
+    }
+
+    @BeforeEach
+    void setUp() {
+        wireMockServer.resetAll();
+        wireMockServer.stubFor(get("/fast").willReturn(ok("fast")));
+        wireMockServer.stubFor(get("/slow").willReturn(ok("slow").withFixedDelay(1000)));
+
+        var environment = new MockEnvironment()
+                .withProperty("application.config.http.product.max-connections", "1")
+                .withProperty("application.config.http.product.acquire-timeout-ms", "100");
+        meterRegistry = new SimpleMeterRegistry();
+        transport = new OutboundHttpTransport(environment, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.destroy();
+    }
+
+    @Test
+    @DisplayName("✅ Should keep one connection alive across sequential requests")
+    void shouldReuseConnection() {
+        var restTemplate = new RestTemplate(transport.requestFactory(OutboundHttpTransport.PRODUCT));
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("fast", restTemplate.getForObject(wireMockServer.baseUrl() + "/fast", String.class));
+        }
+
+        assertEquals(1, meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", OutboundHttpTransport.PRODUCT).gauge().value());
+        assertEquals(1, meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", OutboundHttpTransport.PRODUCT).tag("state", "available").gauge().value());
+    }
+
+    @Test
+    @DisplayName("🚫 Should fail fast when the downstream pool is exhausted")
+    void shouldFailFastWhenPoolExhausted() throws Exception {
+        var restTemplate = new RestTemplate(transport.requestFactory(OutboundHttpTransport.PRODUCT));
+
+        var slowCall = CompletableFuture.supplyAsync(
+                () -> restTemplate.getForObject(wireMockServer.baseUrl() + "/slow", String.class));
+        // let the slow call take the only connection
+        Thread.sleep(200);
+
+        assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(wireMockServer.baseUrl() + "/fast", String.class));
+        assertEquals("slow", slowCall.get(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("✅ Should isolate the pools of different downstreams")
+    void shouldIsolateDownstreams() throws Exception {
+        var productTemplate = new RestTemplate(transport.requestFactory(OutboundHttpTransport.PRODUCT));
+        var customerTemplate = new RestTemplate(transport.requestFactory(OutboundHttpTransport.CUSTOMER));
+
+        var slowCall = CompletableFuture.supplyAsync(
+                () -> productTemplate.getForObject(wireMockServer.baseUrl() + "/slow", String.class));
+        Thread.sleep(200);
+
+        assertEquals("fast", customerTemplate.getForObject(wireMockServer.baseUrl() + "/fast", String.class));
+        assertEquals("slow", slowCall.get(2, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,121 @@
+package com.services.orderservice.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Routes between two separate in-memory H2 databases, each one knowing its own name.
+ */
+@DisplayName("🧪 ReadReplicaRoutingDataSource Tests")
+class ReadReplicaRoutingDataSourceTest {
+
+    private DataSource primary;
+    private DataSource replica;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        primary = database("routing-primary");
+        replica = database("routing-replica");
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("✅ Should send read-only transactions to the replica and the others to the primary")
+    void shouldRouteByReadOnlyFlag() {
+        // GIVEN
+        var routing = routing("select 0", 5);
+
+        // WHEN
+        String read = whoAmI(routing, true);
+        String write = whoAmI(routing, false);
+
+        // THEN
+        assertEquals("routing-replica", read);
+        assertEquals("routing-primary", write);
+        assertEquals(1.0, meterRegistry.get("order.datasource.routed").tag("target", "replica").counter().count());
+        assertEquals(1.0, meterRegistry.get("order.datasource.replica.healthy").gauge().value());
+    }
+
+    @Test
+    @DisplayName("🔁 Should fall back to the primary when the replica lags too far behind")
+    void shouldFallBackWhenReplicaLags() {
+        // GIVEN
+        var routing = routing("select 30", 5);
+
+        // WHEN
+        String read = whoAmI(routing, true);
+
+        // THEN
+        assertEquals("routing-primary", read);
+        assertEquals(30.0, meterRegistry.get("order.datasource.replica.lag").gauge().value());
+        assertEquals(1.0, meterRegistry.get("order.datasource.replica.fallback").counter().count());
+    }
+
+    @Test
+    @DisplayName("❌ Should leave out a replica that fails its health check until it recovers")
+    void shouldSkipUnhealthyReplica() {
+        // GIVEN
+        var routing = routing("select lag from replica_status", 5);
+
+        // WHEN
+        String whileDown = whoAmI(routing, true);
+        new JdbcTemplate(replica).execute("create table replica_status as select 0 as lag");
+        routing.checkReplicas();
+        String afterRecovery = whoAmI(routing, true);
+
+        // THEN
+        assertEquals("routing-primary", whileDown);
+        assertEquals("routing-replica", afterRecovery);
+    }
+
+    @Test
+    @DisplayName("📡 Should leave out a replica whose lag is unknown")
+    void shouldSkipReplicaWithUnknownLag() {
+        // GIVEN
+        var routing = routing("select cast(null as double)", 5);
+
+        // WHEN
+        String read = whoAmI(routing, true);
+
+        // THEN
+        assertEquals("routing-primary", read);
+        assertEquals(0.0, meterRegistry.get("order.datasource.replica.healthy").gauge().value());
+    }
+
+    private ReadReplicaRoutingDataSource routing(String lagQuery, double maxLagSeconds) {
+        var routing = new ReadReplicaRoutingDataSource(
+                primary, Map.of("replica", replica), maxLagSeconds, lagQuery, 1, meterRegistry);
+        routing.afterPropertiesSet();
+        return routing;
+    }
+
+    private String whoAmI(ReadReplicaRoutingDataSource routing, boolean readOnly) {
+        var dataSource = new LazyConnectionDataSourceProxy(routing);
+        var transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                new JdbcTemplate(dataSource).queryForObject("select name from whoami", String.class));
+    }
+
+    private static DataSource database(String name) {
+        var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        var jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("drop all objects");
+        jdbcTemplate.execute("create table whoami (name varchar(50))");
+        jdbcTemplate.update("insert into whoami (name) values (?)", name);
+        return dataSource;
+    }
+}
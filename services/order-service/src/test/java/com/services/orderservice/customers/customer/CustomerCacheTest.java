@@ -0,0 +1,136 @@
+package com.services.orderservice.customers.customer;
+
+import feign.FeignException;
+import feign.Request;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 CustomerCache Unit Tests")
+class CustomerCacheTest {
+
+    @Mock private CustomerClient customerClient;
+
+    private CustomerCache customerCache;
+    private CustomerResponse customer;
+
+    @BeforeEach
+    void setUp() {
+        customerCache = new CustomerCache(customerClient, new SimpleMeterRegistry(), 100, 60, 10);
+        customer = new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com");
+    }
+
+    @Test
+    @DisplayName("✅ Should call customer-service once for repeated lookups")
+    void shouldCacheKnownCustomer() {
+        // GIVEN
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+
+        // WHEN
+        var first = customerCache.findById("1");
+        var second = customerCache.findById("1");
+
+        // THEN
+        assertEquals(Optional.of(customer), first);
+        assertEquals(Optional.of(customer), second);
+        verify(customerClient, times(1)).findCustomerById("1");
+    }
+
+    @Test
+    @DisplayName("🚫 Should cache an unknown customer returned without body")
+    void shouldCacheUnknownCustomer() {
+        when(customerClient.findCustomerById("404")).thenReturn(ResponseEntity.ok(null));
+
+        assertTrue(customerCache.findById("404").isEmpty());
+        assertTrue(customerCache.findById("404").isEmpty());
+
+        verify(customerClient, times(1)).findCustomerById("404");
+    }
+
+    @Test
+    @DisplayName("🚫 Should treat a 404 from customer-service as an unknown customer")
+    void shouldCacheNotFoundResponse() {
+        when(customerClient.findCustomerById("404")).thenThrow(notFound());
+
+        assertTrue(customerCache.findById("404").isEmpty());
+        assertTrue(customerCache.findById("404").isEmpty());
+
+        verify(customerClient, times(1)).findCustomerById("404");
+    }
+
+    @Test
+    @DisplayName("⚠️ Should not cache a failed lookup")
+    void shouldNotCacheFailure() {
+        // GIVEN
+        when(customerClient.findCustomerById("1"))
+                .thenThrow(new RuntimeException("Customer service unavailable"))
+                .thenReturn(ResponseEntity.ok(customer));
+
+        // WHEN + THEN
+        RuntimeException ex = assertThrows(RuntimeException.class, () -> customerCache.findById("1"));
+        assertEquals("Customer service unavailable", ex.getMessage());
+        assertEquals(Optional.of(customer), customerCache.findById("1"));
+        verify(customerClient, times(2)).findCustomerById("1");
+    }
+
+    @Test
+    @DisplayName("🔀 Should share one in-flight lookup between concurrent callers")
+    void shouldShareInFlightLookup() throws Exception {
+        // GIVEN
+        int callers = 8;
+        CountDownLatch lookupStarted = new CountDownLatch(1);
+        CountDownLatch releaseLookup = new CountDownLatch(1);
+        when(customerClient.findCustomerById("1")).thenAnswer(invocation -> {
+            lookupStarted.countDown();
+            releaseLookup.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok(customer);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            // WHEN
+            Future<Optional<CustomerResponse>> leader = executor.submit(() -> customerCache.findById("1"));
+            assertTrue(lookupStarted.await(1, TimeUnit.SECONDS));
+            List<Future<Optional<CustomerResponse>>> followers = new ArrayList<>();
+            for (int i = 1; i < callers; i++) {
+                followers.add(executor.submit(() -> customerCache.findById("1")));
+            }
+            releaseLookup.countDown();
+
+            // THEN
+            assertEquals(Optional.of(customer), leader.get(1, TimeUnit.SECONDS));
+            for (var follower : followers) {
+                assertEquals(Optional.of(customer), follower.get(1, TimeUnit.SECONDS));
+            }
+            verify(customerClient, times(1)).findCustomerById("1");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FeignException.NotFound notFound() {
+        Request request = Request.create(Request.HttpMethod.GET, "/api/v1/customers/404", new HashMap<>(), null,
+                StandardCharsets.UTF_8, null);
+        return new FeignException.NotFound("Not Found", request, null, null);
+    }
+}
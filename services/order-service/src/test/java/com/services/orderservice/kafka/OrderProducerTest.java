@@ -0,0 +1,139 @@
+package com.services.orderservice.kafka;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.services.orderservice.customers.customer.CustomerResponse;
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.metrics.OrderStageMetrics;
+import com.services.orderservice.order.PaymentMethod;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OrderProducer Unit Tests")
+class OrderProducerTest {
+
+    @Mock private KafkaTemplate<String, OrderConfirmation> kafkaTemplate;
+    @Mock private OutboxEventRepository outboxRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SimpleMeterRegistry meterRegistry;
+    private OrderProducer producer;
+    private OrderConfirmation confirmation;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        producer = new OrderProducer(
+                kafkaTemplate,
+                outboxRepository,
+                objectMapper,
+                new OrderStageMetrics(new SimpleMeterRegistry(), 60),
+                meterRegistry,
+                1
+        );
+        ReflectionTestUtils.setField(producer, "acquireTimeoutMs", 10L);
+        confirmation = new OrderConfirmation(
+                "REF123",
+                BigDecimal.valueOf(2000),
+                PaymentMethod.CREDIT_CARD,
+                new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com"),
+                List.of(new ProductPurchaseRequest(1, 2))
+        );
+    }
+
+    @Test
+    @DisplayName("🔑 Should store the customer id as the record key")
+    void shouldStoreCustomerIdAsKey() {
+        producer.sendOrderConfirmation(confirmation);
+
+        ArgumentCaptor<OutboxEvent> event = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxRepository).save(event.capture());
+        assertEquals("1", event.getValue().getMessageKey());
+        assertEquals(OrderProducer.ORDER_TOPIC, event.getValue().getTopic());
+    }
+
+    @Test
+    @DisplayName("🔑 Should send the event with its key")
+    void shouldSendWithKey() throws Exception {
+        // GIVEN
+        when(kafkaTemplate.send(any(Message.class))).thenReturn(CompletableFuture.completedFuture(null));
+
+        // WHEN
+        producer.publish(event(1L));
+
+        // THEN
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Message<OrderConfirmation>> message = ArgumentCaptor.forClass(Message.class);
+        verify(kafkaTemplate).send(message.capture());
+        assertEquals("1", message.getValue().getHeaders().get(KafkaHeaders.KEY));
+        assertEquals(OrderProducer.ORDER_TOPIC, message.getValue().getHeaders().get(KafkaHeaders.TOPIC));
+        assertEquals("REF123", message.getValue().getPayload().orderReference());
+    }
+
+    @Test
+    @DisplayName("⏳ Should refuse a send while the in-flight limit is reached")
+    void shouldApplyBackpressure() throws Exception {
+        // GIVEN one send awaiting its acknowledgement, with a limit of one
+        CompletableFuture<SendResult<String, OrderConfirmation>> pending = new CompletableFuture<>();
+        when(kafkaTemplate.send(any(Message.class)))
+                .thenReturn(pending)
+                .thenReturn(CompletableFuture.completedFuture(null));
+        producer.publish(event(1L));
+
+        // WHEN
+        var refused = producer.publish(event(2L));
+
+        // THEN
+        assertTrue(refused.isCompletedExceptionally());
+        assertEquals(1.0, meterRegistry.get("order.kafka.rejected").counter().count());
+        assertEquals(1.0, meterRegistry.get("order.kafka.in-flight").gauge().value());
+
+        // the acknowledgement frees the permit
+        pending.complete(null);
+        assertFalse(producer.publish(event(2L)).isCompletedExceptionally());
+        verify(kafkaTemplate, times(2)).send(any(Message.class));
+    }
+
+    @Test
+    @DisplayName("⚠️ Should count failed sends by cause and release the permit")
+    void shouldCountFailedSends() throws Exception {
+        when(kafkaTemplate.send(any(Message.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        producer.publish(event(1L));
+        producer.publish(event(2L));
+
+        assertEquals(2.0, meterRegistry.get("order.kafka.errors").tag("exception", "IllegalStateException").counter().count());
+        assertEquals(0.0, meterRegistry.get("order.kafka.in-flight").gauge().value());
+    }
+
+    private OutboxEvent event(Long id) throws Exception {
+        return OutboxEvent.builder()
+                .id(id)
+                .topic(OrderProducer.ORDER_TOPIC)
+                .messageKey("1")
+                .payload(objectMapper.writeValueAsString(confirmation))
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,154 @@
+package com.services.orderservice.kafka;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OutboxRelay Unit Tests")
+class OutboxRelayTest {
+
+    @Mock private OutboxEventRepository repository;
+    @Mock private OrderProducer orderProducer;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(repository, orderProducer, transactionTemplate, meterRegistry);
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "sendTimeoutMs", 1000L);
+        ReflectionTestUtils.setField(relay, "claimLeaseMs", 5000L);
+        ReflectionTestUtils.setField(relay, "retentionHours", 24L);
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    @DisplayName("✅ Should mark only acknowledged events as published and release the others")
+    void shouldMarkOnlyAcknowledgedEvents() {
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        when(repository.findClaimable(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(first, second));
+        doReturn(CompletableFuture.completedFuture(null)).when(orderProducer).publish(first);
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down"))).when(orderProducer).publish(second);
+        when(repository.findFirstByPublishedDateIsNullOrderById()).thenReturn(Optional.of(second));
+
+        relay.relay();
+
+        verify(repository, times(1)).markPublished(eq(List.of(1L)), any(LocalDateTime.class));
+        verify(repository, times(1)).releaseClaims(List.of(2L));
+        verify(repository, never()).countByPublishedDateIsNull();
+        assertEquals(1.0, meterRegistry.get("order.outbox.published").counter().count());
+        assertEquals(1.0, meterRegistry.get("order.outbox.failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("🔑 Should hold back a customer's later events once an earlier one fails")
+    void shouldKeepCustomerEventsInOrder() {
+        OutboxEvent firstOfA = event(1L, "A");
+        OutboxEvent firstOfB = event(2L, "B");
+        OutboxEvent secondOfA = event(3L, "A");
+        OutboxEvent secondOfB = event(4L, "B");
+        when(repository.findClaimable(any(LocalDateTime.class), any(Limit.class)))
+                .thenReturn(List.of(firstOfA, firstOfB, secondOfA, secondOfB));
+        doReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down"))).when(orderProducer).publish(firstOfA);
+        doReturn(CompletableFuture.completedFuture(null)).when(orderProducer).publish(firstOfB);
+        doReturn(CompletableFuture.completedFuture(null)).when(orderProducer).publish(secondOfB);
+        when(repository.findFirstByPublishedDateIsNullOrderById()).thenReturn(Optional.of(firstOfA));
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(orderProducer);
+        inOrder.verify(orderProducer).publish(firstOfB);
+        inOrder.verify(orderProducer).publish(secondOfB);
+        verify(orderProducer, never()).publish(secondOfA);
+        verify(repository).markPublished(eq(List.of(2L, 4L)), any(LocalDateTime.class));
+        verify(repository).releaseClaims(List.of(1L, 3L));
+    }
+
+    @Test
+    @DisplayName("🔒 Should claim the batch in its own transaction before sending it")
+    void shouldClaimBeforeSending() {
+        OutboxEvent first = event(1L);
+        when(repository.findClaimable(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of(first));
+        doReturn(CompletableFuture.completedFuture(null)).when(orderProducer).publish(first);
+        when(repository.findFirstByPublishedDateIsNullOrderById()).thenReturn(Optional.empty());
+
+        relay.relay();
+
+        InOrder inOrder = inOrder(transactionTemplate, repository, orderProducer);
+        inOrder.verify(transactionTemplate).execute(any());
+        inOrder.verify(repository).claim(eq(List.of(1L)), any(LocalDateTime.class));
+        inOrder.verify(orderProducer).publish(first);
+        inOrder.verify(transactionTemplate).executeWithoutResult(any());
+        inOrder.verify(repository).markPublished(eq(List.of(1L)), any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("🚫 Should not update anything when the outbox is empty")
+    void shouldDoNothingWhenOutboxIsEmpty() {
+        when(repository.findClaimable(any(LocalDateTime.class), any(Limit.class))).thenReturn(List.of());
+        when(repository.findFirstByPublishedDateIsNullOrderById()).thenReturn(Optional.empty());
+
+        relay.relay();
+
+        verify(orderProducer, never()).publish(any());
+        verify(repository, never()).claim(anyList(), any());
+        verify(repository, never()).markPublished(anyList(), any());
+        assertEquals(0.0, meterRegistry.get("order.outbox.lag").gauge().value());
+    }
+
+    @Test
+    @DisplayName("🧹 Should delete published events past the retention in batches and sample the pending count")
+    void shouldDeleteExpiredEvents() {
+        when(repository.deletePublishedBefore(any(LocalDateTime.class), eq(10))).thenReturn(10, 3);
+        when(repository.countByPublishedDateIsNull()).thenReturn(4L);
+
+        relay.housekeeping();
+
+        verify(repository, times(2)).deletePublishedBefore(any(LocalDateTime.class), eq(10));
+        assertEquals(4.0, meterRegistry.get("order.outbox.pending").gauge().value());
+    }
+
+    private OutboxEvent event(Long id) {
+        return event(id, null);
+    }
+
+    private OutboxEvent event(Long id, String messageKey) {
+        return OutboxEvent.builder()
+                .id(id)
+                .messageKey(messageKey)
+                .topic(OrderProducer.ORDER_TOPIC)
+                .payload("{}")
+                .createdDate(LocalDateTime.now())
+                .build();
+    }
+}
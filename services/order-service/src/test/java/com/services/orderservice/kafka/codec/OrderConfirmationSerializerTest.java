@@ -0,0 +1,115 @@
+package com.services.orderservice.kafka.codec;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.services.orderservice.customers.customer.CustomerResponse;
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.kafka.OrderConfirmation;
+import com.services.orderservice.kafka.OrderProducer;
+import com.services.orderservice.order.PaymentMethod;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("🧪 OrderConfirmationSerializer Unit Tests")
+class OrderConfirmationSerializerTest {
+
+    private final OrderConfirmationSerializer serializer = new OrderConfirmationSerializer();
+
+    @Test
+    @DisplayName("✅ Should write every field in schema order")
+    void shouldWriteAllFields() {
+        // GIVEN
+        var confirmation = new OrderConfirmation(
+                "REF123",
+                new BigDecimal("2000.50"),
+                PaymentMethod.CREDIT_CARD,
+                new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com"),
+                List.of(new ProductPurchaseRequest(1, 2), new ProductPurchaseRequest(null, 0.5))
+        );
+
+        // WHEN
+        byte[] data = serializer.serialize(OrderProducer.ORDER_TOPIC, confirmation);
+
+        // THEN
+        var reader = new BinaryEvents.Reader(data);
+        assertEquals(BinaryEvents.VERSION, reader.version());
+        assertEquals(BinaryEvents.ORDER_CONFIRMATION, reader.type());
+        assertEquals("REF123", reader.readString());
+        assertEquals(new BigDecimal("2000.50"), reader.readDecimal());
+        assertEquals("CREDIT_CARD", reader.readEnum(BinaryEvents.PAYMENT_METHODS));
+        assertTrue(reader.readPresence());
+        assertEquals("1", reader.readString());
+        assertEquals("Salma", reader.readString());
+        assertEquals("Imassenda", reader.readString());
+        assertEquals("salma@example.com", reader.readString());
+        assertEquals(2, reader.readListSize());
+        assertEquals(1, reader.readNullableInt());
+        assertEquals(2.0, reader.readDouble());
+        assertNull(reader.readNullableInt());
+        assertEquals(0.5, reader.readDouble());
+    }
+
+    @Test
+    @DisplayName("🔒 Should match the version 1 wire format byte for byte")
+    void shouldMatchPinnedWireFormat() {
+        // GIVEN the reference event, pinned with the same bytes in notification-service
+        var confirmation = new OrderConfirmation(
+                "REF123",
+                new BigDecimal("2000.50"),
+                PaymentMethod.CREDIT_CARD,
+                new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com"),
+                List.of(new ProductPurchaseRequest(1, 2), new ProductPurchaseRequest(null, 0.5))
+        );
+
+        // WHEN
+        byte[] data = serializer.serialize(OrderProducer.ORDER_TOPIC, confirmation);
+
+        // THEN
+        assertEquals("ec0101" // magic, version, ORDER_CONFIRMATION
+                        + "07524546313233" // "REF123"
+                        + "04030d7204" // 2000.50: 3 bytes unscaled, zig-zag scale 2
+                        + "02" // CREDIT_CARD
+                        + "01" + "0231" + "0653616c6d61" + "0a496d617373656e6461"
+                        + "1273616c6d61406578616d706c652e636f6d" // customer
+                        + "03" // 2 products
+                        + "0102" + "4000000000000000" // 1, 2.0
+                        + "00" + "3fe0000000000000", // null, 0.5
+                HexFormat.of().formatHex(data));
+    }
+
+    @Test
+    @DisplayName("✅ Should keep null fields distinct from empty ones")
+    void shouldWriteNulls() {
+        var confirmation = new OrderConfirmation(null, null, null, null, null);
+
+        var reader = new BinaryEvents.Reader(serializer.serialize(OrderProducer.ORDER_TOPIC, confirmation));
+
+        assertNull(reader.readString());
+        assertNull(reader.readDecimal());
+        assertNull(reader.readEnum(BinaryEvents.PAYMENT_METHODS));
+        assertFalse(reader.readPresence());
+        assertEquals(-1, reader.readListSize());
+    }
+
+    @Test
+    @DisplayName("📦 Should be smaller than the JSON payload")
+    void shouldBeSmallerThanJson() throws Exception {
+        var confirmation = new OrderConfirmation(
+                "REF123",
+                new BigDecimal("2000.50"),
+                PaymentMethod.CREDIT_CARD,
+                new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com"),
+                List.of(new ProductPurchaseRequest(1, 2), new ProductPurchaseRequest(2, 1))
+        );
+
+        byte[] binary = serializer.serialize(OrderProducer.ORDER_TOPIC, confirmation);
+        byte[] json = new ObjectMapper().writeValueAsBytes(confirmation);
+
+        assertTrue(binary.length * 2 < json.length, binary.length + " bytes vs " + json.length + " bytes of JSON");
+    }
+}
@@ -0,0 +1,328 @@
+package com.services.orderservice.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.services.orderservice.config.OutboundHttpTransport;
+import com.services.orderservice.customers.customer.CustomerResponse;
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.customers.product.ProductPurchaseResponse;
+import com.services.orderservice.kafka.OrderProducer;
+import com.services.orderservice.order.OrderRequest;
+import com.services.orderservice.order.PaymentMethod;
+import com.services.orderservice.stubs.CustomerClientStub;
+import com.services.orderservice.stubs.DownstreamBehaviour;
+import com.services.orderservice.stubs.PaymentClientStub;
+import com.services.orderservice.stubs.ProductClientStub;
+import com.services.orderservice.stubs.RandomErrorTransformer;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.github.tomakehurst.wiremock.core.WireMockConfiguration.options;
+
+/**
+ * Drives {@code POST /api/v1/orders} at a fixed arrival rate against the full service: H2, embedded Kafka
+ * with the outbox relay on, and WireMock stand-ins for customer, product and payment with log-normal latency
+ * and random 503s. Arrivals follow a Poisson process and do not wait for earlier responses (open model), and
+ * latency is measured from the intended send time, so a saturated service shows up as growing latency
+ * rather than as a lower offered rate.
+ * <p>
+ * Opt-in, as it only prints figures:
+ * <pre>
+ * mvn test -Dtest=OrderLoadTest -Dloadtest=true -Dloadtest.rate=300 -Dloadtest.duration-seconds=60 \
+ *     -Dloadtest.payment.latency-median-ms=40 -Dloadtest.payment.error-rate=0.02
+ * </pre>
+ * Each stand-in reads {@code loadtest.<customer|product|payment>.latency-median-ms}, {@code .latency-sigma} and
+ * {@code .error-rate}. Service settings such as {@code application.config.http.payment.max-connections} or
+ * {@code spring.datasource.hikari.maximum-pool-size} can be passed the same way.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {
+                "spring.kafka.bootstrap-servers=${spring.embedded.kafka.brokers}",
+                "spring.kafka.producer.bootstrap-servers=${spring.embedded.kafka.brokers}",
+                "spring.kafka.producer.value-serializer=com.services.orderservice.kafka.codec.OrderConfirmationSerializer",
+                "spring.jpa.show-sql=false",
+                "eureka.client.enabled=false",
+                "application.config.outbox.relay-enabled=true"
+        }
+)
+@EmbeddedKafka(partitions = 6, topics = OrderProducer.ORDER_TOPIC)
+@ActiveProfiles("test")
+@DisplayName("⏱️ Order creation load test")
+class OrderLoadTest {
+
+    private static final double RATE = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 30);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private static final int CUSTOMERS = Integer.getInteger("loadtest.customers", 100);
+    private static final int MAX_OUTSTANDING = Integer.getInteger("loadtest.max-outstanding", 10_000);
+    private static final long SAMPLE_INTERVAL_MS = 100;
+
+    private static final DownstreamBehaviour CUSTOMER = DownstreamBehaviour.fromSystemProperties("loadtest.customer", 5, 0.5, 0);
+    private static final DownstreamBehaviour PRODUCT = DownstreamBehaviour.fromSystemProperties("loadtest.product", 10, 0.5, 0);
+    private static final DownstreamBehaviour PAYMENT = DownstreamBehaviour.fromSystemProperties("loadtest.payment", 20, 0.5, 0);
+
+    private static final WireMockServer wireMockServer = new WireMockServer(options()
+            .dynamicPort()
+            .containerThreads(200)
+            .asynchronousResponseEnabled(true)
+            .asynchronousResponseThreads(50)
+            .extensions(new RandomErrorTransformer()));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final AtomicLong referenceSequence = new AtomicLong();
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        wireMockServer.start();
+        registry.add("application.config.customer-url", () -> wireMockServer.baseUrl() + "/api/v1/customers");
+        registry.add("application.config.product-url", () -> wireMockServer.baseUrl() + "/api/v1/products");
+        registry.add("application.config.payment-url", () -> wireMockServer.baseUrl() + "/api/v1/payments");
+    }
+
+    @AfterAll
+    static void tearDownWireMock() {
+        wireMockServer.stop();
+    }
+
+    @Test
+    @DisplayName("⏱️ Open-model arrivals on POST /api/v1/orders")
+    void createOrdersAtTargetRate() throws Exception {
+        stubDownstreams();
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        run(httpClient, WARMUP_SECONDS);
+        LoadResult result = run(httpClient, DURATION_SECONDS);
+
+        System.out.printf("target=%.0f req/s duration=%ds customer[%s] product[%s] payment[%s]%n",
+                RATE, DURATION_SECONDS, CUSTOMER, PRODUCT, PAYMENT);
+        result.print();
+    }
+
+    private void stubDownstreams() throws Exception {
+        var customerStub = new CustomerClientStub(wireMockServer, objectMapper);
+        var productStub = new ProductClientStub(wireMockServer, objectMapper);
+        var paymentStub = new PaymentClientStub(wireMockServer);
+
+        for (int i = 0; i < CUSTOMERS; i++) {
+            String customerId = customerId(i);
+            customerStub.stubFindCustomerById_WithBehaviour(
+                    customerId,
+                    new CustomerResponse(customerId, "Load", "Test" + i, "load.test" + i + "@email.com"),
+                    CUSTOMER
+            );
+        }
+        productStub.stubPurchaseProducts_WithBehaviour(
+                List.of(new ProductPurchaseResponse(1, "Laptop", "Dell XPS", BigDecimal.valueOf(1200), 2)),
+                PRODUCT
+        );
+        productStub.stubReleaseProducts_Success();
+        paymentStub.stubRequestOrderPayment_WithBehaviour(1, PAYMENT);
+    }
+
+    private LoadResult run(HttpClient httpClient, int durationSeconds) throws Exception {
+        int expected = (int) Math.ceil(RATE * durationSeconds * 1.2) + 16;
+        long[] latencies = new long[expected];
+        AtomicInteger completed = new AtomicInteger();
+        AtomicInteger outstanding = new AtomicInteger();
+        Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        int dropped = 0;
+
+        PoolSampler sampler = new PoolSampler();
+        ScheduledExecutorService sampling = Executors.newSingleThreadScheduledExecutor();
+        sampling.scheduleAtFixedRate(sampler::sample, 0, SAMPLE_INTERVAL_MS, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long meanGapNanos = (long) (TimeUnit.SECONDS.toNanos(1) / RATE);
+        long intended = start;
+        int sent = 0;
+        while (sent < expected) {
+            // exponential gaps: a Poisson arrival process at the target rate
+            intended += (long) (-Math.log(1 - ThreadLocalRandom.current().nextDouble()) * meanGapNanos);
+            if (intended >= end) {
+                break;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (outstanding.get() >= MAX_OUTSTANDING) {
+                dropped++;
+                continue;
+            }
+            outstanding.incrementAndGet();
+            long scheduledAt = intended;
+            httpClient.sendAsync(orderRequest(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        latencies[completed.getAndIncrement()] = System.nanoTime() - scheduledAt;
+                        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                        String outcome = cause != null ? cause.getClass().getSimpleName() : String.valueOf(response.statusCode());
+                        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+                        outstanding.decrementAndGet();
+                    });
+            sent++;
+        }
+        long drainDeadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (outstanding.get() > 0 && System.nanoTime() < drainDeadline) {
+            Thread.sleep(10);
+        }
+        long elapsed = System.nanoTime() - start;
+        sampling.shutdownNow();
+
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return new LoadResult(sent, dropped, outstanding.get(), elapsed, Arrays.copyOf(latencies, completed.get()), counts, sampler);
+    }
+
+    private HttpRequest orderRequest() {
+        long sequence = referenceSequence.incrementAndGet();
+        OrderRequest order = new OrderRequest(
+                null,
+                "LOAD-" + sequence,
+                BigDecimal.valueOf(2400),
+                PaymentMethod.CREDIT_CARD,
+                customerId((int) (sequence % CUSTOMERS)),
+                List.of(new ProductPurchaseRequest(1, 2))
+        );
+        try {
+            return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/orders"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(order)))
+                    .build();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String customerId(int index) {
+        return "LOAD-CUST-" + index;
+    }
+
+    /**
+     * Peak and mean occupancy of the JDBC pool and of the outbound HTTP pools while the load runs.
+     */
+    private class PoolSampler {
+
+        private final HikariPoolMXBean hikari;
+        private int samples;
+        private long activeSum;
+        private int maxActive;
+        private int maxAwaiting;
+        private int total;
+        private final Map<String, int[]> httpPeaks = new TreeMap<>();
+
+        PoolSampler() {
+            try {
+                hikari = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+            } catch (Exception e) {
+                throw new IllegalStateException("The load test expects a Hikari pool", e);
+            }
+            for (String name : List.of(OutboundHttpTransport.CUSTOMER, OutboundHttpTransport.PRODUCT, OutboundHttpTransport.PAYMENT)) {
+                httpPeaks.put(name, new int[2]);
+            }
+        }
+
+        synchronized void sample() {
+            int active = hikari.getActiveConnections();
+            samples++;
+            activeSum += active;
+            maxActive = Math.max(maxActive, active);
+            maxAwaiting = Math.max(maxAwaiting, hikari.getThreadsAwaitingConnection());
+            total = hikari.getTotalConnections();
+            httpPeaks.forEach((name, peaks) -> {
+                peaks[0] = Math.max(peaks[0], (int) gauge("httpcomponents.httpclient.pool.total.connections", name, "leased"));
+                peaks[1] = Math.max(peaks[1], (int) gauge("httpcomponents.httpclient.pool.total.pending", name, null));
+            });
+        }
+
+        private double gauge(String meter, String httpClient, String state) {
+            var search = meterRegistry.find(meter).tag("httpclient", httpClient);
+            Gauge gauge = state == null ? search.gauge() : search.tag("state", state).gauge();
+            return gauge == null ? 0 : gauge.value();
+        }
+
+        synchronized void print() {
+            System.out.printf("jdbc pool        size=%d active(mean)=%.1f active(max)=%d awaiting(max)=%d%n",
+                    total, samples == 0 ? 0.0 : activeSum / (double) samples, maxActive, maxAwaiting);
+            httpPeaks.forEach((name, peaks) ->
+                    System.out.printf("http pool %-8s leased(max)=%d pending(max)=%d%n", name, peaks[0], peaks[1]));
+        }
+    }
+
+    private record LoadResult(int sent, int dropped, int unfinished, long elapsedNanos, long[] latencies,
+                              Map<String, Long> outcomes, PoolSampler pools) {
+
+        void print() {
+            Arrays.sort(latencies);
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            long succeeded = outcomes.getOrDefault("200", 0L);
+            System.out.printf("sent=%d completed=%d dropped=%d unfinished=%d throughput=%.1f req/s (ok %.1f req/s)%n",
+                    sent, latencies.length, dropped, unfinished, latencies.length / seconds, succeeded / seconds);
+            System.out.printf("latency p50=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                    percentile(0.50), percentile(0.99), percentile(0.999),
+                    latencies.length == 0 ? 0.0 : latencies[latencies.length - 1] / 1_000_000.0);
+            System.out.println("outcomes " + outcomes);
+            pools.print();
+        }
+
+        private double percentile(double quantile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+            int index = Math.min(latencies.length - 1, (int) Math.ceil(latencies.length * quantile) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.services.orderservice.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("🧪 OrderStageMetrics Tests")
+class OrderStageMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStageMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new OrderStageMetrics(meterRegistry, 60);
+    }
+
+    @Test
+    @DisplayName("✅ Should time each stage with its downstream and outcome")
+    void shouldTagStageTimers() {
+        metrics.record(OrderStage.PAYMENT, () -> 1);
+        assertThrows(IllegalStateException.class, () -> metrics.record(OrderStage.PAYMENT, () -> {
+            throw new IllegalStateException("Payment service unavailable");
+        }));
+
+        assertEquals(1, meterRegistry.get("order.stage")
+                .tags("stage", "payment", "downstream", "payment-service", "outcome", "success")
+                .timer().count());
+        assertEquals(1, meterRegistry.get("order.stage")
+                .tags("stage", "payment", "outcome", "failure")
+                .timer().count());
+        // built once per stage and outcome, not per recording
+        assertEquals(OrderStage.values().length * 2, meterRegistry.get("order.stage").timers().size());
+    }
+
+    @Test
+    @DisplayName("✅ Should report each stage's share of order time over the window, asynchronous stages apart")
+    void shouldReportBreakdown() {
+        metrics.recordOrder(() -> {
+            metrics.record(OrderStage.CUSTOMER_LOOKUP, () -> sleep(20));
+            metrics.record(OrderStage.ORDER_INSERT, () -> sleep(5));
+            return 1;
+        });
+
+        var breakdown = new OrderLatencyEndpoint(metrics).breakdown();
+
+        assertEquals(1, breakdown.orders());
+        assertEquals(60, breakdown.windowSeconds());
+        var lookup = breakdown.stages().stream()
+                .filter(stage -> stage.stage().equals("customer-lookup"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1, lookup.count());
+        assertTrue(lookup.meanMs() >= 20);
+        assertTrue(lookup.shareOfOrderTime() > 0.5 && lookup.shareOfOrderTime() <= 1.0);
+        assertTrue(breakdown.stages().stream().noneMatch(stage -> stage.stage().equals("kafka-send")));
+        var kafka = breakdown.asyncStages().stream()
+                .filter(stage -> stage.stage().equals("kafka-send"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(0, kafka.count());
+        assertNull(kafka.shareOfOrderTime());
+    }
+
+    private static int sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+}
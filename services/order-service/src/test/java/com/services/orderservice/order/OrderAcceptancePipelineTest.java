@@ -0,0 +1,133 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OrderAcceptancePipeline Unit Tests")
+class OrderAcceptancePipelineTest {
+
+    @Mock private OrderService orderService;
+    @Mock private OrderPersistenceService persistenceService;
+    @Mock private OrderIdempotencyService idempotencyService;
+
+    private ThreadPoolTaskExecutor executor;
+    private SimpleMeterRegistry meterRegistry;
+    private OrderRequest orderRequest;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.initialize();
+        meterRegistry = new SimpleMeterRegistry();
+
+        orderRequest = new OrderRequest(
+                null,
+                "REF123",
+                BigDecimal.valueOf(2000),
+                PaymentMethod.CREDIT_CARD,
+                "1",
+                List.of(new ProductPurchaseRequest(1, 2))
+        );
+        order = Order.builder().id(1).reference("REF123").build();
+
+        when(idempotencyService.execute(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<Integer>>getArgument(1).get());
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    private OrderAcceptancePipeline pipeline(int maxInFlight) {
+        return new OrderAcceptancePipeline(
+                orderService, persistenceService, idempotencyService, executor, meterRegistry, maxInFlight);
+    }
+
+    @Test
+    @DisplayName("✅ Should save the order as pending and complete it in the background")
+    void shouldAcceptAndCompleteInBackground() throws Exception {
+        CountDownLatch completed = new CountDownLatch(1);
+        when(persistenceService.savePendingOrder(orderRequest)).thenReturn(order);
+        doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(orderService).completeAcceptedOrder(order, orderRequest);
+
+        Integer orderId = pipeline(10).accept(orderRequest);
+
+        assertEquals(1, orderId);
+        assertTrue(completed.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    @DisplayName("🚫 Should refuse orders beyond the in-flight limit without saving them")
+    void shouldRejectWhenFull() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(persistenceService.savePendingOrder(orderRequest)).thenReturn(order);
+        doAnswer(invocation -> release.await(1, TimeUnit.SECONDS))
+                .when(orderService).completeAcceptedOrder(order, orderRequest);
+        var pipeline = pipeline(1);
+
+        pipeline.accept(orderRequest);
+
+        assertThrows(ServiceOverloadedException.class, () -> pipeline.accept(orderRequest));
+        verify(persistenceService, times(1)).savePendingOrder(orderRequest);
+        assertEquals(1, meterRegistry.get("order.async.rejected").counter().count());
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("🔄 Should free capacity once an accepted order is finished")
+    void shouldReleaseCapacityAfterCompletion() throws Exception {
+        CountDownLatch completed = new CountDownLatch(1);
+        when(persistenceService.savePendingOrder(orderRequest)).thenReturn(order);
+        doAnswer(invocation -> {
+            completed.countDown();
+            return null;
+        }).when(orderService).completeAcceptedOrder(order, orderRequest);
+        var pipeline = pipeline(1);
+
+        pipeline.accept(orderRequest);
+        assertTrue(completed.await(1, TimeUnit.SECONDS));
+        // the permit is returned right after completeAcceptedOrder
+        executor.getThreadPoolExecutor().shutdown();
+        assertTrue(executor.getThreadPoolExecutor().awaitTermination(1, TimeUnit.SECONDS));
+
+        assertEquals(0, meterRegistry.get("order.async.in-flight").gauge().value());
+    }
+
+    @Test
+    @DisplayName("↩️ Should free capacity when the order cannot be saved")
+    void shouldReleaseCapacityWhenSaveFails() {
+        when(persistenceService.savePendingOrder(orderRequest)).thenThrow(new RuntimeException("Database unavailable"));
+        var pipeline = pipeline(1);
+
+        assertThrows(RuntimeException.class, () -> pipeline.accept(orderRequest));
+
+        assertEquals(0, meterRegistry.get("order.async.in-flight").gauge().value());
+        verify(orderService, never()).completeAcceptedOrder(any(), any());
+    }
+}
@@ -0,0 +1,317 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.customers.customer.CustomerCache;
+import com.services.orderservice.customers.customer.CustomerClient;
+import com.services.orderservice.customers.customer.CustomerResponse;
+import com.services.orderservice.customers.payement.PaymentClient;
+import com.services.orderservice.customers.payement.PaymentRequest;
+import com.services.orderservice.customers.product.ProductClient;
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.exception.BusinessException;
+import com.services.orderservice.exception.OrderInProgressException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OrderBatchService Unit Tests")
+class OrderBatchServiceTest {
+
+    @Mock private OrderRepository repository;
+    @Mock private OrderPersistenceService persistenceService;
+    @Mock private OrderIdempotencyService idempotencyService;
+    @Mock private CustomerClient customerClient;
+    @Mock private ProductClient productClient;
+    @Mock private PaymentClient paymentClient;
+
+    private ThreadPoolTaskExecutor executor;
+    private OrderBatchService batchService;
+    private CustomerResponse customer;
+
+    @BeforeEach
+    void setUp() {
+        executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.initialize();
+        batchService = new OrderBatchService(
+                repository,
+                persistenceService,
+                idempotencyService,
+                new CustomerCache(customerClient, new SimpleMeterRegistry(), 100, 60, 10),
+                productClient,
+                paymentClient,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                executor
+        );
+        ReflectionTestUtils.setField(batchService, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(batchService, "groupSize", 10);
+
+        customer = new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com");
+        lenient().when(repository.findByReferenceIn(any())).thenReturn(List.of());
+        lenient().when(persistenceService.saveProcessingOrders(anyList(), anyList())).thenAnswer(invocation -> {
+            List<OrderRequest> requests = invocation.getArgument(0);
+            List<Order> orders = new ArrayList<>();
+            for (var request : requests) {
+                orders.add(Order.builder().id(100 + orders.size()).reference(request.reference()).build());
+            }
+            return orders;
+        });
+    }
+
+    @AfterEach
+    void shutdownExecutor() {
+        executor.shutdown();
+    }
+
+    private OrderRequest request(String reference, String customerId, int productId, double quantity) {
+        return new OrderRequest(
+                null,
+                reference,
+                BigDecimal.valueOf(100),
+                PaymentMethod.CREDIT_CARD,
+                customerId,
+                List.of(new ProductPurchaseRequest(productId, quantity))
+        );
+    }
+
+    @Test
+    @DisplayName("✅ Should create every valid order with one customer lookup and one purchase")
+    void shouldCreateOrdersWithSharedCalls() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        var invalid = new OrderRequest(null, "REF-3", BigDecimal.valueOf(-1), null, "1", List.of());
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 2),
+                request("REF-2", "1", 1, 3),
+                invalid
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(100, results.get(0).orderId());
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(1).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(2).status());
+        verify(customerClient, times(1)).findCustomerById("1");
+        verify(productClient, times(1)).purchaseProducts(endsWith(":group"), eq(List.of(new ProductPurchaseRequest(1, 5))));
+        verify(persistenceService, times(1)).saveProcessingOrders(anyList(), argThat(keys ->
+                keys.size() == 2 && keys.get(0).endsWith(":group") && keys.get(0).equals(keys.get(1))));
+        verify(persistenceService, times(1)).confirmOrders(argThat(confirmations ->
+                confirmations.keySet().equals(Set.of(100, 101))));
+    }
+
+    @Test
+    @DisplayName("🔄 Should fall back to one purchase per order when the grouped purchase is refused")
+    void shouldFallBackToSinglePurchases() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        when(productClient.purchaseProducts(anyString(), anyList())).thenAnswer(invocation -> {
+            List<ProductPurchaseRequest> products = invocation.getArgument(1);
+            if (products.stream().anyMatch(product -> product.productId() == 2)) {
+                throw new RuntimeException("Insufficient stock quantity for product with ID:: 2");
+            }
+            return ResponseEntity.ok(List.of());
+        });
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 2, 1)
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).status());
+        assertTrue(results.get(1).error().contains("Insufficient stock"));
+        verify(productClient, times(3)).purchaseProducts(anyString(), anyList());
+        verify(productClient, times(1)).releaseProducts(endsWith(":group"), anyList());
+        verify(productClient, times(1)).releaseProducts(startsWith("REF-2:"), eq(List.of(new ProductPurchaseRequest(2, 1))));
+    }
+
+    @Test
+    @DisplayName("⏱️ Should undo a grouped purchase that timed out after it was applied before buying one by one")
+    void shouldReleaseGroupedPurchaseWithUnknownOutcome() {
+        // GIVEN product-service took the stock of the group but the answer never came back
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        when(productClient.purchaseProducts(anyString(), anyList())).thenAnswer(invocation -> {
+            if (invocation.<String>getArgument(0).endsWith(":group")) {
+                throw new ResourceAccessException("Read timed out");
+            }
+            return ResponseEntity.ok(List.of());
+        });
+
+        // WHEN
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 2, 1)
+        ));
+
+        // THEN the group is released under its own key before each order is bought under its own
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(1).status());
+        var group = List.of(new ProductPurchaseRequest(1, 1), new ProductPurchaseRequest(2, 1));
+        ArgumentCaptor<String> groupKey = ArgumentCaptor.forClass(String.class);
+        verify(productClient).purchaseProducts(groupKey.capture(), eq(group));
+        InOrder inOrder = inOrder(productClient);
+        inOrder.verify(productClient).purchaseProducts(groupKey.getValue(), group);
+        inOrder.verify(productClient).releaseProducts(groupKey.getValue(), group);
+        inOrder.verify(productClient).purchaseProducts(startsWith("REF-1:"), eq(List.of(new ProductPurchaseRequest(1, 1))));
+        inOrder.verify(productClient).purchaseProducts(startsWith("REF-2:"), eq(List.of(new ProductPurchaseRequest(2, 1))));
+        verify(persistenceService, times(1)).saveProcessingOrders(anyList(), argThat(keys ->
+                keys.get(0).startsWith("REF-1:") && keys.get(1).startsWith("REF-2:")));
+    }
+
+    @Test
+    @DisplayName("🚫 Should fail only the orders of an unknown customer")
+    void shouldFailOrdersOfUnknownCustomer() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        when(customerClient.findCustomerById("2")).thenReturn(ResponseEntity.ok(null));
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "2", 1, 1)
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).status());
+        verify(productClient, times(1)).purchaseProducts(anyString(), eq(List.of(new ProductPurchaseRequest(1, 1))));
+    }
+
+    @Test
+    @DisplayName("↩️ Should release stock and cancel only the orders whose payment fails")
+    void shouldCompensateFailedPayments() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        when(paymentClient.requestOrderPayment(any(PaymentRequest.class))).thenAnswer(invocation -> {
+            PaymentRequest payment = invocation.getArgument(0);
+            if ("REF-2".equals(payment.orderReference())) {
+                throw new RuntimeException("Payment refused");
+            }
+            return 1;
+        });
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 2, 4)
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).status());
+        assertEquals(101, results.get(1).orderId());
+        verify(productClient, times(1)).releaseProducts(List.of(new ProductPurchaseRequest(2, 4)));
+        verify(persistenceService, times(1)).cancelOrder(101, "Payment failed:: Payment refused");
+        verify(persistenceService, times(1)).requestPayments(List.of(100, 101));
+    }
+
+    @Test
+    @DisplayName("🔁 Should report existing and repeated references without creating them again")
+    void shouldReportDuplicates() {
+        OrderReference existing = mock(OrderReference.class);
+        when(existing.getReference()).thenReturn("REF-1");
+        when(existing.getId()).thenReturn(7);
+        when(repository.findByReferenceIn(any())).thenReturn(List.of(existing));
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 1, 1),
+                request("REF-2", "1", 1, 1)
+        ));
+
+        assertEquals(OrderBatchResult.Status.DUPLICATE, results.get(0).status());
+        assertEquals(7, results.get(0).orderId());
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(1).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(2).status());
+    }
+
+    @Test
+    @DisplayName("⏳ Should fail only the order whose reference is being processed elsewhere")
+    void shouldFailOrderClaimedElsewhere() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        when(idempotencyService.claimReference("REF-2"))
+                .thenThrow(new OrderInProgressException("Order with reference REF-2 is already being processed"));
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 2, 1)
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).status());
+        verify(productClient, times(1)).purchaseProducts(anyString(), eq(List.of(new ProductPurchaseRequest(1, 1))));
+        verify(idempotencyService, times(1)).complete("REF-1", 100);
+        verify(idempotencyService, never()).release(anyString());
+    }
+
+    @Test
+    @DisplayName("💾 Should save orders one by one when the group cannot be saved")
+    void shouldFallBackToSingleSaves() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        when(persistenceService.saveProcessingOrders(anyList(), anyList())).thenThrow(new RuntimeException("Value too long"));
+        when(persistenceService.saveProcessingOrder(any(OrderRequest.class), endsWith(":group"))).thenAnswer(invocation -> {
+            OrderRequest request = invocation.getArgument(0);
+            if ("REF-2".equals(request.reference())) {
+                throw new RuntimeException("Value too long");
+            }
+            return Order.builder().id(200).reference(request.reference()).build();
+        });
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 2, 3)
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(200, results.get(0).orderId());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).status());
+        verify(productClient, times(1)).releaseProducts(List.of(new ProductPurchaseRequest(2, 3)));
+        verify(idempotencyService, times(1)).release("REF-2");
+    }
+
+    @Test
+    @DisplayName("🧾 Should keep paid orders that cannot be confirmed for reconciliation")
+    void shouldSetAsideUnconfirmedOrders() {
+        when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+        doThrow(new RuntimeException("Connection refused")).when(persistenceService).confirmOrders(anyMap());
+        doThrow(new RuntimeException("Connection refused")).when(persistenceService).confirmOrder(eq(101), any());
+
+        var results = batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 2, 1)
+        ));
+
+        assertEquals(OrderBatchResult.Status.CREATED, results.get(0).status());
+        assertEquals(OrderBatchResult.Status.FAILED, results.get(1).status());
+        assertEquals(101, results.get(1).orderId());
+        verify(persistenceService, times(1)).markForReconciliation(eq(List.of(101)), anyString());
+        verify(productClient, never()).releaseProducts(anyList());
+        verify(persistenceService, never()).cancelOrder(anyInt(), anyString());
+    }
+
+    @Test
+    @DisplayName("🚫 Should reject a batch larger than the configured maximum")
+    void shouldRejectOversizedBatch() {
+        ReflectionTestUtils.setField(batchService, "maxBatchSize", 1);
+
+        assertThrows(BusinessException.class, () -> batchService.createOrders(List.of(
+                request("REF-1", "1", 1, 1),
+                request("REF-2", "1", 1, 1)
+        )));
+        verifyNoInteractions(customerClient, productClient, paymentClient);
+    }
+}
@@ -0,0 +1,172 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.exception.OrderFailedException;
+import com.services.orderservice.exception.OrderInProgressException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OrderIdempotencyService Unit Tests")
+class OrderIdempotencyServiceTest {
+
+    @Mock private OrderIdempotencyKeyRepository repository;
+
+    private OrderIdempotencyService idempotencyService;
+    private AtomicInteger submissions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new OrderIdempotencyService(repository, 100, 60, 60);
+        submissions = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("✅ Should run the submission once and answer repeats from memory")
+    void shouldRunSubmissionOnce() {
+        Supplier<Integer> submission = () -> {
+            submissions.incrementAndGet();
+            return 7;
+        };
+
+        assertEquals(7, idempotencyService.execute("REF123", submission));
+        assertEquals(7, idempotencyService.execute("REF123", submission));
+
+        assertEquals(1, submissions.get());
+        verify(repository, times(1)).insertClaim(eq("REF123"), any(LocalDateTime.class));
+        verify(repository, times(1)).completeClaim("REF123", 7);
+    }
+
+    @Test
+    @DisplayName("✅ Should return the order recorded by another instance")
+    void shouldReturnOrderRecordedInDatabase() {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(repository).insertClaim(eq("REF123"), any(LocalDateTime.class));
+        when(repository.findById("REF123")).thenReturn(Optional.of(
+                new OrderIdempotencyKey("REF123", 3, null, LocalDateTime.now())));
+
+        Integer result = idempotencyService.execute("REF123", submissions::incrementAndGet);
+
+        assertEquals(3, result);
+        assertEquals(0, submissions.get());
+    }
+
+    @Test
+    @DisplayName("🚫 Should reject a reference still being processed elsewhere")
+    void shouldRejectClaimHeldElsewhere() {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(repository).insertClaim(eq("REF123"), any(LocalDateTime.class));
+        when(repository.findById("REF123")).thenReturn(Optional.of(
+                new OrderIdempotencyKey("REF123", null, null, LocalDateTime.now())));
+
+        assertThrows(OrderInProgressException.class,
+                () -> idempotencyService.execute("REF123", submissions::incrementAndGet));
+        assertEquals(0, submissions.get());
+    }
+
+    @Test
+    @DisplayName("🔄 Should take over a claim abandoned past its timeout")
+    void shouldTakeOverAbandonedClaim() {
+        LocalDateTime claimedAt = LocalDateTime.now().minusMinutes(5);
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(repository).insertClaim(eq("REF123"), any(LocalDateTime.class));
+        when(repository.findById("REF123")).thenReturn(Optional.of(
+                new OrderIdempotencyKey("REF123", null, null, claimedAt)));
+        when(repository.takeOverClaim(eq("REF123"), eq(claimedAt), any(LocalDateTime.class))).thenReturn(1);
+
+        assertEquals(1, idempotencyService.execute("REF123", submissions::incrementAndGet));
+        verify(repository, times(1)).completeClaim("REF123", 1);
+    }
+
+    @Test
+    @DisplayName("↩️ Should release the claim when the submission fails")
+    void shouldReleaseClaimOnFailure() {
+        assertThrows(IllegalStateException.class, () -> idempotencyService.execute("REF123", () -> {
+            throw new IllegalStateException("Payment service unavailable");
+        }));
+
+        verify(repository, times(1)).releaseClaim("REF123");
+        verify(repository, never()).completeClaim(anyString(), anyInt());
+    }
+
+    @Test
+    @DisplayName("🧾 Should keep the claim with the order a failed submission saved")
+    void shouldRecordFailedOrder() {
+        var failure = new OrderFailedException("Payment refused", 4, OrderStatus.CANCELLED);
+
+        assertThrows(OrderFailedException.class, () -> idempotencyService.execute("REF123", () -> {
+            throw failure;
+        }));
+
+        verify(repository, times(1)).failClaim("REF123", 4, OrderStatus.CANCELLED);
+        verify(repository, never()).releaseClaim(anyString());
+    }
+
+    @Test
+    @DisplayName("🧾 Should answer a retry with the recorded failure")
+    void shouldReturnRecordedFailure() {
+        doThrow(new DataIntegrityViolationException("duplicate key"))
+                .when(repository).insertClaim(eq("REF123"), any(LocalDateTime.class));
+        when(repository.findById("REF123")).thenReturn(Optional.of(
+                new OrderIdempotencyKey("REF123", 4, OrderStatus.CANCELLED, LocalDateTime.now())));
+
+        var failure = assertThrows(OrderFailedException.class,
+                () -> idempotencyService.execute("REF123", submissions::incrementAndGet));
+
+        assertEquals(4, failure.getOrderId());
+        assertEquals(OrderStatus.CANCELLED, failure.getStatus());
+        assertEquals(0, submissions.get());
+    }
+
+    @Test
+    @DisplayName("🔗 Should coalesce concurrent duplicates onto the running submission")
+    void shouldCoalesceConcurrentDuplicates() throws Exception {
+        CountDownLatch submissionStarted = new CountDownLatch(1);
+        CountDownLatch releaseSubmission = new CountDownLatch(1);
+        Supplier<Integer> submission = () -> {
+            submissions.incrementAndGet();
+            submissionStarted.countDown();
+            try {
+                releaseSubmission.await(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return 5;
+        };
+
+        var first = CompletableFuture.supplyAsync(() -> idempotencyService.execute("REF123", submission));
+        assertTrue(submissionStarted.await(1, TimeUnit.SECONDS));
+        var duplicate = CompletableFuture.supplyAsync(() -> idempotencyService.execute("REF123", submission));
+        releaseSubmission.countDown();
+
+        assertEquals(5, first.get(1, TimeUnit.SECONDS));
+        assertEquals(5, duplicate.get(1, TimeUnit.SECONDS));
+        assertEquals(1, submissions.get());
+    }
+
+    @Test
+    @DisplayName("✅ Should not deduplicate submissions without a reference")
+    void shouldAlwaysRunWithoutReference() {
+        idempotencyService.execute(null, submissions::incrementAndGet);
+        idempotencyService.execute(null, submissions::incrementAndGet);
+
+        assertEquals(2, submissions.get());
+        verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,129 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.orderLine.OrderLineRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "eureka.client.enabled=false"
+})
+@ActiveProfiles("test")
+@DisplayName("🧪 OrderPersistenceService statements per order")
+class OrderPersistenceServiceTest {
+
+    @Autowired private OrderPersistenceService persistenceService;
+    @Autowired private OrderService orderService;
+    @Autowired private OrderRepository orderRepository;
+    @Autowired private OrderLineRepository orderLineRepository;
+    @Autowired private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @AfterEach
+    void cleanDatabase() {
+        orderLineRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("✅ Should insert the order and its lines without any select-before-insert")
+    void shouldInsertOrderAndLinesWithoutSelect() {
+        persistenceService.savePendingOrder(orderRequest("ORD-BATCH-1"));
+
+        assertEquals(4, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(0, statistics.getEntityFetchCount());
+        assertEquals(0, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    @DisplayName("✅ Should write all lines of an order in one JDBC batch")
+    void shouldBatchOrderLineInserts() {
+        // the first order warms up the pooled sequences
+        persistenceService.savePendingOrder(orderRequest("ORD-BATCH-1"));
+        statistics.clear();
+
+        persistenceService.savePendingOrder(orderRequest("ORD-BATCH-2"));
+
+        // one insert for the order, one batched insert for its three lines, no sequence call
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(4, statistics.getEntityInsertCount());
+    }
+
+    @Test
+    @DisplayName("✅ Should load several orders with their lines in a single query")
+    void shouldLoadOrderDetailsInOneQuery() {
+        var first = persistenceService.savePendingOrder(orderRequest("ORD-DETAIL-1"));
+        var second = persistenceService.savePendingOrder(orderRequest("ORD-DETAIL-2"));
+        statistics.clear();
+
+        List<OrderDetailResponse> details = orderService.findDetailsByIds(List.of(second.getId(), first.getId()));
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(List.of(second.getId(), first.getId()),
+                details.stream().map(OrderDetailResponse::id).toList());
+        assertEquals(3, details.get(0).lines().size());
+        assertEquals(3, details.get(1).lines().size());
+    }
+
+    @Test
+    @DisplayName("✅ Should page a customer's orders newest first, one query per page")
+    void shouldPageCustomerOrders() {
+        var first = persistenceService.savePendingOrder(orderRequest("ORD-HISTORY-1"));
+        var second = persistenceService.savePendingOrder(orderRequest("ORD-HISTORY-2"));
+        var third = persistenceService.savePendingOrder(orderRequest("ORD-HISTORY-3"));
+        persistenceService.savePendingOrder(orderRequest("ORD-OTHER-1", "CUST002"));
+        statistics.clear();
+
+        OrderSummaryPageResponse firstPage = orderService.findCustomerOrders("CUST001", null, 2);
+        OrderSummaryPageResponse secondPage = orderService.findCustomerOrders("CUST001", firstPage.nextCursor(), 2);
+
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+        assertEquals(List.of(third.getId(), second.getId()),
+                firstPage.content().stream().map(OrderSummaryResponse::id).toList());
+        assertEquals(List.of(first.getId()),
+                secondPage.content().stream().map(OrderSummaryResponse::id).toList());
+        assertNull(secondPage.nextCursor());
+    }
+
+    private OrderRequest orderRequest(String reference) {
+        return orderRequest(reference, "CUST001");
+    }
+
+    private OrderRequest orderRequest(String reference, String customerId) {
+        return new OrderRequest(
+                null,
+                reference,
+                BigDecimal.valueOf(300),
+                PaymentMethod.PAYPAL,
+                customerId,
+                List.of(
+                        new ProductPurchaseRequest(1, 1),
+                        new ProductPurchaseRequest(2, 2),
+                        new ProductPurchaseRequest(3, 3)
+                )
+        );
+    }
+}
@@ -0,0 +1,153 @@
+package com.services.orderservice.order;
+
+import com.services.orderservice.customers.product.ProductPurchaseRequest;
+import com.services.orderservice.orderLine.OrderLine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OrderRecoverySweeper Unit Tests")
+class OrderRecoverySweeperTest {
+
+    @Mock private OrderRepository repository;
+    @Mock private OrderPersistenceService persistenceService;
+    @Mock private OrderService orderService;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderRecoverySweeper sweeper;
+    private Order order;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new OrderRecoverySweeper(repository, persistenceService, orderService, meterRegistry);
+        ReflectionTestUtils.setField(sweeper, "staleAfterSeconds", 300L);
+        ReflectionTestUtils.setField(sweeper, "batchSize", 100);
+
+        order = Order.builder()
+                .id(1)
+                .reference("REF123")
+                .totalAmount(BigDecimal.valueOf(2000))
+                .paymentMethod(PaymentMethod.CREDIT_CARD)
+                .customerId("1")
+                .createdDate(LocalDateTime.now().minusHours(1))
+                .build();
+        var line = new OrderLine();
+        line.setProductId(7);
+        line.setQuantity(2);
+        var orderWithLines = Order.builder().id(1).orderLines(List.of(line)).build();
+        lenient().when(repository.findWithLinesById(1)).thenReturn(Optional.of(orderWithLines));
+    }
+
+    @Test
+    @DisplayName("▶️ Should resume a stale pending order from its stored lines")
+    void shouldResumeStalePendingOrder() {
+        order.setStatus(OrderStatus.PENDING);
+        when(repository.findStale(anyCollection(), any(), any())).thenReturn(List.of(order));
+        when(persistenceService.takeOverStale(eq(1), eq(OrderStatus.PENDING), eq(OrderStatus.PROCESSING), any()))
+                .thenReturn(true);
+
+        sweeper.sweep();
+
+        ArgumentCaptor<OrderRequest> request = ArgumentCaptor.forClass(OrderRequest.class);
+        verify(orderService, times(1)).resumeAcceptedOrder(eq(order), request.capture());
+        assertEquals("REF123", request.getValue().reference());
+        assertEquals(BigDecimal.valueOf(2000), request.getValue().amount());
+        assertEquals(List.of(new ProductPurchaseRequest(7, 2)), request.getValue().products());
+        assertEquals(1.0, meterRegistry.get("order.recovered").tag("outcome", "resumed").counter().count());
+    }
+
+    @Test
+    @DisplayName("↩️ Should compensate a stale processing order")
+    void shouldCompensateStaleProcessingOrder() {
+        order.setStatus(OrderStatus.PROCESSING);
+        order.setPurchaseKey("REF123:1f0c");
+        when(repository.findStale(anyCollection(), any(), any())).thenReturn(List.of(order));
+        when(persistenceService.takeOverStale(eq(1), eq(OrderStatus.PROCESSING), eq(OrderStatus.PROCESSING), any()))
+                .thenReturn(true);
+        when(orderService.compensateStaleOrder(order, List.of(new ProductPurchaseRequest(7, 2)))).thenReturn(true);
+
+        sweeper.sweep();
+
+        verify(orderService, never()).resumeAcceptedOrder(any(), any());
+        assertEquals(1.0, meterRegistry.get("order.recovered").tag("outcome", "compensated").counter().count());
+    }
+
+    @Test
+    @DisplayName("🧾 Should set aside a stale order whose stock was bought with other orders")
+    void shouldSetAsideOrderWithoutPurchaseKey() {
+        order.setStatus(OrderStatus.PROCESSING);
+        when(repository.findStale(anyCollection(), any(), any())).thenReturn(List.of(order));
+        when(persistenceService.takeOverStale(eq(1), eq(OrderStatus.PROCESSING), eq(OrderStatus.RECONCILIATION_REQUIRED), any()))
+                .thenReturn(true);
+
+        sweeper.sweep();
+
+        verify(orderService, never()).compensateStaleOrder(any(), any());
+        assertEquals(1.0, meterRegistry.get("order.recovered").tag("outcome", "reconciliation").counter().count());
+    }
+
+    @Test
+    @DisplayName("💳 Should set aside a stale order whose payment was requested instead of compensating it")
+    void shouldSetAsideOrderWithRequestedPayment() {
+        // GIVEN an order that may have been paid, e.g. paid but neither confirmed nor set aside
+        order.setStatus(OrderStatus.PAYMENT_REQUESTED);
+        order.setPurchaseKey("REF123:1f0c");
+        when(repository.findStale(anyCollection(), any(), any())).thenReturn(List.of(order));
+        when(persistenceService.takeOverStale(
+                eq(1), eq(OrderStatus.PAYMENT_REQUESTED), eq(OrderStatus.RECONCILIATION_REQUIRED), any()))
+                .thenReturn(true);
+
+        // WHEN
+        sweeper.sweep();
+
+        // THEN its stock is kept and it is not cancelled
+        verify(orderService, never()).compensateStaleOrder(any(), any());
+        verify(orderService, never()).resumeAcceptedOrder(any(), any());
+        assertEquals(1.0, meterRegistry.get("order.recovered").tag("outcome", "reconciliation").counter().count());
+    }
+
+    @Test
+    @DisplayName("⏭️ Should leave an order taken over by another instance")
+    void shouldSkipOrderTakenOverElsewhere() {
+        order.setStatus(OrderStatus.PENDING);
+        when(repository.findStale(anyCollection(), any(), any())).thenReturn(List.of(order));
+        when(persistenceService.takeOverStale(anyInt(), any(), any(), any())).thenReturn(false);
+
+        sweeper.sweep();
+
+        verify(orderService, never()).resumeAcceptedOrder(any(), any());
+        verify(orderService, never()).compensateStaleOrder(any(), any());
+    }
+
+    @Test
+    @DisplayName("🔁 Should keep sweeping when one order fails")
+    void shouldContinueAfterFailure() {
+        var other = Order.builder().id(2).reference("REF456").purchaseKey("REF456").status(OrderStatus.PROCESSING).build();
+        order.setStatus(OrderStatus.PENDING);
+        when(repository.findStale(anyCollection(), any(), any())).thenReturn(List.of(order, other));
+        when(persistenceService.takeOverStale(eq(1), any(), any(), any())).thenThrow(new RuntimeException("Database unavailable"));
+        when(persistenceService.takeOverStale(eq(2), any(), any(), any())).thenReturn(true);
+        when(repository.findWithLinesById(2)).thenReturn(Optional.empty());
+
+        sweeper.sweep();
+
+        verify(orderService, times(1)).compensateStaleOrder(other, List.of());
+    }
+}
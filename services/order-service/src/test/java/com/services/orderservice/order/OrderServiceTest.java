@@ -1,5 +1,6 @@
 package com.services.orderservice.order;
 
+import com.services.orderservice.customers.customer.CustomerCache;
 import com.services.orderservice.customers.customer.CustomerClient;
 import com.services.orderservice.customers.customer.CustomerResponse;
 import com.services.orderservice.customers.payement.PaymentClient;
@@ -8,24 +9,34 @@ import com.services.orderservice.customers.product.ProductClient;
 import com.services.orderservice.customers.product.ProductPurchaseRequest;
 import com.services.orderservice.customers.product.ProductPurchaseResponse;
 import com.services.orderservice.exception.BusinessException;
+import com.services.orderservice.exception.OrderFailedException;
 import com.services.orderservice.kafka.OrderConfirmation;
-import com.services.orderservice.kafka.OrderProducer;
-import com.services.orderservice.orderLine.OrderLineRequest;
-import com.services.orderservice.orderLine.OrderLineService;
+import com.services.orderservice.metrics.OrderStageMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,8 +52,13 @@ class OrderServiceTest {
     @Mock private CustomerClient customerClient;
     @Mock private ProductClient productClient;
     @Mock private PaymentClient paymentClient;
-    @Mock private OrderLineService orderLineService;
-    @Mock private OrderProducer orderProducer;
+    @Mock private OrderPersistenceService persistenceService;
+    @Mock private OrderIdempotencyService idempotencyService;
+    @Spy private OrderCache orderCache = new OrderCache(new SimpleMeterRegistry(), Optional.empty(), 100, 60);
+    @Spy private OrderStageMetrics stageMetrics = new OrderStageMetrics(new SimpleMeterRegistry(), 60);
+    // the real cache, reading through the mocked client (resolved lazily, once mocks are injected)
+    @Spy private CustomerCache customerCache =
+            new CustomerCache(id -> customerClient.findCustomerById(id), new SimpleMeterRegistry(), 100, 60, 10);
 
     // 🔹 Class under test
     @InjectMocks
@@ -53,9 +69,15 @@ class OrderServiceTest {
     private Order order;
     private CustomerResponse customer;
     private ProductPurchaseResponse productResponse;
+    private OrderResponse orderResponse;
 
     @BeforeEach
     void setUp() {
+        // idempotency is covered by OrderIdempotencyServiceTest, here every submission runs
+        lenient().when(idempotencyService.execute(any(), any())).thenAnswer(invocation ->
+                invocation.<Supplier<Integer>>getArgument(1).get());
+        lenient().when(persistenceService.requestPayment(anyInt())).thenReturn(true);
+
         orderRequest = new OrderRequest(
                 1,
                 "REF123",
@@ -69,6 +91,10 @@ class OrderServiceTest {
         order.setId(1);
         order.setReference("REF123");
 
+        orderResponse = new OrderResponse(
+                1, "REF123", BigDecimal.valueOf(2000), PaymentMethod.CREDIT_CARD, "1"
+        );
+
         customer = new CustomerResponse("1", "Salma", "Imassenda", "salma@example.com");
 
         productResponse = new ProductPurchaseResponse(
@@ -93,10 +119,10 @@ class OrderServiceTest {
             // GIVEN
             when(customerClient.findCustomerById("1"))
                     .thenReturn(ResponseEntity.ok(customer));
-            when(productClient.purchaseProducts(any()))
+            when(productClient.purchaseProducts(anyString(), any()))
                     .thenReturn(ResponseEntity.ok(List.of(productResponse)));
-            when(mapper.toOrder(orderRequest)).thenReturn(order);
-            when(repository.save(order)).thenReturn(order);
+            when(persistenceService.saveProcessingOrder(eq(orderRequest), anyString())).thenReturn(order);
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
 
             // WHEN
             Integer result = orderService.createOrder(orderRequest);
@@ -104,10 +130,28 @@ class OrderServiceTest {
             // THEN
             assertNotNull(result);
             assertEquals(1, result);
-            verify(repository, times(1)).save(order);
-            verify(orderLineService, times(1)).saveOrderLine(any(OrderLineRequest.class));
-            verify(paymentClient, times(1)).requestOrderPayment(any(PaymentRequest.class));
-            verify(orderProducer, times(1)).sendOrderConfirmation(any(OrderConfirmation.class));
+            verify(persistenceService, times(1)).saveProcessingOrder(eq(orderRequest), startsWith("REF123:"));
+            InOrder paymentOrder = inOrder(persistenceService, paymentClient);
+            paymentOrder.verify(persistenceService).requestPayment(1);
+            paymentOrder.verify(paymentClient).requestOrderPayment(any(PaymentRequest.class));
+            verify(persistenceService, times(1)).confirmOrder(eq(1), any(OrderConfirmation.class));
+        }
+
+        @Test
+        @DisplayName("🗃️ Should serve the created order from the cache")
+        void shouldPopulateCacheOnCreate() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+            when(persistenceService.saveProcessingOrder(eq(orderRequest), anyString())).thenReturn(order);
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
+
+            orderService.createOrder(orderRequest);
+
+            assertEquals(orderResponse, orderService.findById(1));
+            assertEquals(orderResponse, orderService.findByReference("REF123"));
+            verify(repository, never()).findById(anyInt());
+            verify(repository, never()).findByReference(anyString());
         }
 
         @Test
@@ -122,7 +166,7 @@ class OrderServiceTest {
                     () -> orderService.createOrder(orderRequest));
 
             verify(customerClient, times(1)).findCustomerById(anyString());
-            verify(repository, never()).save(any(Order.class));
+            verify(persistenceService, never()).saveProcessingOrder(any(OrderRequest.class), any());
         }
 
         @Test
@@ -130,17 +174,270 @@ class OrderServiceTest {
         void shouldHandleExceptionWhenPaymentFails() {
             // GIVEN
             when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
-            when(productClient.purchaseProducts(any()))
+            when(productClient.purchaseProducts(anyString(), any()))
                     .thenReturn(ResponseEntity.ok(List.of(productResponse)));
-            when(mapper.toOrder(orderRequest)).thenReturn(order);
-            when(repository.save(order)).thenReturn(order);
+            when(persistenceService.saveProcessingOrder(eq(orderRequest), anyString())).thenReturn(order);
             doThrow(new RuntimeException("Payment service unavailable"))
                     .when(paymentClient).requestOrderPayment(any(PaymentRequest.class));
 
             // WHEN + THEN
+            OrderFailedException ex = assertThrows(OrderFailedException.class,
+                    () -> orderService.createOrder(orderRequest));
+            assertEquals(1, ex.getOrderId());
+            assertEquals(OrderStatus.CANCELLED, ex.getStatus());
+            verify(paymentClient, times(1)).requestOrderPayment(any(PaymentRequest.class));
+            verify(productClient, times(1)).releaseProducts(anyString(), eq(orderRequest.products()));
+            verify(persistenceService, times(1)).cancelOrder(1, "Payment service unavailable");
+            // the cached view has no status, a cancellation leaves it valid
+            verify(orderCache, never()).invalidate(anyInt());
+            verify(persistenceService, never()).confirmOrder(anyInt(), any(OrderConfirmation.class));
+        }
+
+        @Test
+        @DisplayName("🧾 Should keep a paid order that cannot be confirmed for reconciliation")
+        void shouldSetAsideUnconfirmedOrder() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+            when(persistenceService.saveProcessingOrder(eq(orderRequest), anyString())).thenReturn(order);
+            doThrow(new RuntimeException("Connection refused"))
+                    .when(persistenceService).confirmOrder(eq(1), any(OrderConfirmation.class));
+
+            OrderFailedException ex = assertThrows(OrderFailedException.class,
+                    () -> orderService.createOrder(orderRequest));
+
+            assertEquals(OrderStatus.RECONCILIATION_REQUIRED, ex.getStatus());
+            verify(persistenceService, times(1)).markForReconciliation(eq(List.of(1)), anyString());
+            verify(productClient, never()).releaseProducts(anyString(), any());
+            verify(persistenceService, never()).cancelOrder(anyInt(), anyString());
+        }
+
+        @Test
+        @DisplayName("↩️ Should release purchased stock when the order cannot be saved")
+        void shouldReleaseStockWhenOrderCannotBeSaved() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+            when(persistenceService.saveProcessingOrder(eq(orderRequest), anyString()))
+                    .thenThrow(new RuntimeException("Database unavailable"));
+
             assertThrows(RuntimeException.class, () -> orderService.createOrder(orderRequest));
+            verify(productClient, times(1)).releaseProducts(anyString(), eq(orderRequest.products()));
+            verify(paymentClient, never()).requestOrderPayment(any(PaymentRequest.class));
+        }
+
+        @Test
+        @DisplayName("↩️ Should release the purchase when its outcome is unknown")
+        void shouldReleaseStockWhenPurchaseFails() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenThrow(new RuntimeException("Read timed out"));
+
+            assertThrows(RuntimeException.class, () -> orderService.createOrder(orderRequest));
+            verify(productClient, times(1)).releaseProducts(startsWith("REF123:"), eq(orderRequest.products()));
+            verify(persistenceService, never()).saveProcessingOrder(any(OrderRequest.class), any());
+        }
+    }
+
+    // ===================================================
+    // 🧩 COMPLETE ACCEPTED ORDER TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 completeAcceptedOrder() method")
+    class CompleteAcceptedOrderTests {
+
+        @BeforeEach
+        void orderIsPending() {
+            lenient().when(persistenceService.startProcessing(1)).thenReturn(true);
+        }
+
+        @Test
+        @DisplayName("✅ Should confirm an accepted order once all steps succeed")
+        void shouldConfirmAcceptedOrder() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
+
+            orderService.completeAcceptedOrder(order, orderRequest);
+
+            verify(persistenceService, times(1)).startProcessing(1);
+            verify(paymentClient, times(1)).requestOrderPayment(any(PaymentRequest.class));
+            verify(persistenceService, times(1)).confirmOrder(eq(1), any(OrderConfirmation.class));
+            verify(persistenceService, never()).saveProcessingOrder(any(OrderRequest.class), any());
+        }
+
+        @Test
+        @DisplayName("🚫 Should cancel an accepted order with the reason instead of throwing")
+        void shouldCancelAcceptedOrderWhenCustomerNotFound() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(null));
+
+            assertDoesNotThrow(() -> orderService.completeAcceptedOrder(order, orderRequest));
+
+            verify(persistenceService, times(1))
+                    .cancelOrder(1, "Cannot create order:: No customer exists with the provided ID");
+            verify(paymentClient, never()).requestOrderPayment(any(PaymentRequest.class));
+        }
+
+        @Test
+        @DisplayName("↩️ Should release stock and cancel when the payment fails")
+        void shouldCompensateWhenPaymentFails() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+            doThrow(new RuntimeException("Payment service unavailable"))
+                    .when(paymentClient).requestOrderPayment(any(PaymentRequest.class));
+
+            assertDoesNotThrow(() -> orderService.completeAcceptedOrder(order, orderRequest));
+
+            verify(productClient, times(1)).releaseProducts(eq("REF123"), eq(orderRequest.products()));
+            verify(persistenceService, times(1)).cancelOrder(1, "Payment service unavailable");
+            verify(persistenceService, never()).confirmOrder(anyInt(), any(OrderConfirmation.class));
+        }
+
+        @Test
+        @DisplayName("⏭️ Should skip an order that is no longer pending")
+        void shouldSkipOrderTakenOver() {
+            when(persistenceService.startProcessing(1)).thenReturn(false);
+
+            orderService.completeAcceptedOrder(order, orderRequest);
+
+            verify(customerClient, never()).findCustomerById(anyString());
+            verify(productClient, never()).purchaseProducts(anyString(), any());
+        }
+
+        @Test
+        @DisplayName("↩️ Should release the stock of a stale order before cancelling it")
+        void shouldCompensateStaleOrder() {
+            assertTrue(orderService.compensateStaleOrder(order, orderRequest.products()));
+
+            verify(productClient, times(1)).releaseProducts("REF123", orderRequest.products());
+            verify(persistenceService, times(1)).cancelOrder(1, "Order processing was interrupted");
+        }
+
+        @Test
+        @DisplayName("⏳ Should leave a stale order as it is when its stock cannot be released")
+        void shouldKeepStaleOrderWhenReleaseFails() {
+            doThrow(new RuntimeException("Product service unavailable"))
+                    .when(productClient).releaseProducts(anyString(), anyList());
+
+            assertFalse(orderService.compensateStaleOrder(order, orderRequest.products()));
+
+            verify(persistenceService, never()).cancelOrder(anyInt(), anyString());
+        }
+    }
+
+    // ===================================================
+    // 🧩 FIND ORDER STATUS TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 findStatusById() method")
+    class FindStatusByIdTests {
+
+        @Test
+        @DisplayName("✅ Should return the current status of the order")
+        void shouldReturnStatus() {
+            OrderStatusResponse status = new OrderStatusResponse(1, "REF123", OrderStatus.PROCESSING, null, null);
+            when(repository.findById(1)).thenReturn(Optional.of(order));
+            when(mapper.toOrderStatus(order)).thenReturn(status);
+
+            assertEquals(OrderStatus.PROCESSING, orderService.findStatusById(1).status());
+        }
+
+        @Test
+        @DisplayName("🚫 Should throw EntityNotFoundException when order not found")
+        void shouldThrowExceptionWhenOrderNotFound() {
+            when(repository.findById(99)).thenReturn(Optional.empty());
+
+            assertThrows(EntityNotFoundException.class, () -> orderService.findStatusById(99));
+        }
+    }
+
+    // ===================================================
+    // 🧩 CREATE ORDER FAN-OUT TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 createOrder() in fan-out mode")
+    class CreateOrderFanOutTests {
+
+        private ThreadPoolTaskExecutor executor;
+
+        @BeforeEach
+        void enableFanOut() {
+            executor = new ThreadPoolTaskExecutor();
+            executor.setCorePoolSize(2);
+            executor.initialize();
+            ReflectionTestUtils.setField(orderService, "orderFanOutExecutor", executor);
+            ReflectionTestUtils.setField(orderService, "fanOutEnabled", true);
+            ReflectionTestUtils.setField(orderService, "customerTimeoutMs", 1000L);
+            ReflectionTestUtils.setField(orderService, "productTimeoutMs", 1000L);
+        }
+
+        @AfterEach
+        void shutdownExecutor() {
+            executor.shutdown();
+        }
+
+        @Test
+        @DisplayName("✅ Should create order when customer and products are resolved concurrently")
+        void shouldCreateOrderWithConcurrentCalls() {
+            when(customerClient.findCustomerById("1")).thenReturn(ResponseEntity.ok(customer));
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+            when(persistenceService.saveProcessingOrder(eq(orderRequest), anyString())).thenReturn(order);
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
+
+            Integer result = orderService.createOrder(orderRequest);
+
+            assertEquals(1, result);
             verify(paymentClient, times(1)).requestOrderPayment(any(PaymentRequest.class));
         }
+
+        @Test
+        @DisplayName("🚫 Should cancel the in-flight purchase and release it when customer lookup fails")
+        void shouldCancelAndReleasePurchaseWhenCustomerLookupFails() throws Exception {
+            CountDownLatch purchaseStarted = new CountDownLatch(1);
+            CountDownLatch purchaseInterrupted = new CountDownLatch(1);
+            when(productClient.purchaseProducts(anyString(), any())).thenAnswer(invocation -> {
+                purchaseStarted.countDown();
+                try {
+                    Thread.sleep(5000);
+                } catch (InterruptedException e) {
+                    purchaseInterrupted.countDown();
+                }
+                return ResponseEntity.ok(List.of(productResponse));
+            });
+            when(customerClient.findCustomerById("1")).thenAnswer(invocation -> {
+                purchaseStarted.await(1, TimeUnit.SECONDS);
+                return ResponseEntity.ok(null);
+            });
+
+            assertThrows(BusinessException.class, () -> orderService.createOrder(orderRequest));
+
+            assertTrue(purchaseInterrupted.await(1, TimeUnit.SECONDS));
+            // the interrupted call may still have been committed by product-service
+            verify(productClient, times(1)).releaseProducts(startsWith("REF123:"), eq(orderRequest.products()));
+            verify(persistenceService, never()).saveProcessingOrder(any(OrderRequest.class), any());
+        }
+
+        @Test
+        @DisplayName("⏱️ Should fail when the customer lookup exceeds its timeout")
+        void shouldFailWhenCustomerLookupTimesOut() {
+            ReflectionTestUtils.setField(orderService, "customerTimeoutMs", 50L);
+            when(customerClient.findCustomerById("1")).thenAnswer(invocation -> {
+                Thread.sleep(500);
+                return ResponseEntity.ok(customer);
+            });
+            when(productClient.purchaseProducts(anyString(), any()))
+                    .thenReturn(ResponseEntity.ok(List.of(productResponse)));
+
+            BusinessException ex = assertThrows(BusinessException.class,
+                    () -> orderService.createOrder(orderRequest));
+
+            assertTrue(ex.getMsg().contains("timed out"));
+            verify(productClient, times(1)).releaseProducts(anyString(), eq(orderRequest.products()));
+            verify(persistenceService, never()).saveProcessingOrder(any(OrderRequest.class), any());
+        }
     }
 
     // ===================================================
@@ -193,6 +490,116 @@ class OrderServiceTest {
         }
     }
 
+    // ===================================================
+    // 🧩 FIND ORDERS PAGE TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 findOrdersPage() method")
+    class FindOrdersPageTests {
+
+        @BeforeEach
+        void setPageSizes() {
+            ReflectionTestUtils.setField(orderService, "defaultPageSize", 2);
+            ReflectionTestUtils.setField(orderService, "maxPageSize", 10);
+        }
+
+        @Test
+        @DisplayName("✅ Should return the first page with a cursor on its last order")
+        void shouldReturnFirstPageWithCursor() {
+            order.setCreatedDate(LocalDateTime.of(2025, 1, 1, 10, 0));
+            Order order2 = Order.builder().id(2).createdDate(LocalDateTime.of(2025, 1, 1, 11, 0)).build();
+            when(repository.findFirstPage(any(Pageable.class))).thenReturn(List.of(order, order2));
+
+            OrderPageResponse page = orderService.findOrdersPage(null, null);
+
+            assertEquals(2, page.content().size());
+            OrderCursor next = OrderCursor.decode(page.nextCursor());
+            assertEquals(2, next.id());
+            assertEquals(order2.getCreatedDate(), next.createdDate());
+        }
+
+        @Test
+        @DisplayName("✅ Should continue after the cursor and stop on a short page")
+        void shouldContinueAfterCursor() {
+            LocalDateTime createdDate = LocalDateTime.of(2025, 1, 1, 11, 0);
+            String cursor = new OrderCursor(createdDate, 2).encode();
+            when(repository.findPageAfter(eq(createdDate), eq(2), any(Pageable.class))).thenReturn(List.of(order));
+
+            OrderPageResponse page = orderService.findOrdersPage(cursor, 5);
+
+            assertEquals(1, page.content().size());
+            assertNull(page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("🚫 Should reject a malformed cursor")
+        void shouldRejectMalformedCursor() {
+            assertThrows(BusinessException.class, () -> orderService.findOrdersPage("not-a-cursor", 5));
+            verify(repository, never()).findPageAfter(any(), any(), any());
+        }
+    }
+
+    // ===================================================
+    // 🧩 FIND CUSTOMER ORDERS TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 findCustomerOrders() method")
+    class FindCustomerOrdersTests {
+
+        @BeforeEach
+        void setPageSizes() {
+            ReflectionTestUtils.setField(orderService, "defaultPageSize", 2);
+            ReflectionTestUtils.setField(orderService, "maxPageSize", 10);
+        }
+
+        @Test
+        @DisplayName("✅ Should return the newest orders with a cursor on the oldest of the page")
+        void shouldReturnFirstPageWithCursor() {
+            // GIVEN
+            OrderSummary newest = summary(2, LocalDateTime.of(2025, 1, 2, 10, 0));
+            OrderSummary older = summary(1, LocalDateTime.of(2025, 1, 1, 10, 0));
+            when(repository.findFirstCustomerPage(eq("1"), any(Pageable.class))).thenReturn(List.of(newest, older));
+
+            // WHEN
+            OrderSummaryPageResponse page = orderService.findCustomerOrders("1", null, null);
+
+            // THEN
+            assertEquals(2, page.content().size());
+            OrderCursor next = OrderCursor.decode(page.nextCursor());
+            assertEquals(1, next.id());
+            assertEquals(older.getCreatedDate(), next.createdDate());
+            verify(mapper, times(2)).toOrderSummary(any(OrderSummary.class));
+        }
+
+        @Test
+        @DisplayName("✅ Should continue before the cursor and stop on a short page")
+        void shouldContinueBeforeCursor() {
+            LocalDateTime createdDate = LocalDateTime.of(2025, 1, 1, 10, 0);
+            String cursor = new OrderCursor(createdDate, 5).encode();
+            when(repository.findCustomerPageBefore(eq("1"), eq(createdDate), eq(5), any(Pageable.class)))
+                    .thenReturn(List.of(summary(4, createdDate)));
+
+            OrderSummaryPageResponse page = orderService.findCustomerOrders("1", cursor, 5);
+
+            assertEquals(1, page.content().size());
+            assertNull(page.nextCursor());
+        }
+
+        @Test
+        @DisplayName("🚫 Should reject a missing customer id")
+        void shouldRejectBlankCustomer() {
+            assertThrows(BusinessException.class, () -> orderService.findCustomerOrders(" ", null, null));
+            verifyNoInteractions(repository);
+        }
+
+        private OrderSummary summary(Integer id, LocalDateTime createdDate) {
+            OrderSummary summary = mock(OrderSummary.class);
+            lenient().when(summary.getId()).thenReturn(id);
+            lenient().when(summary.getCreatedDate()).thenReturn(createdDate);
+            return summary;
+        }
+    }
+
     // ===================================================
     // 🧩 FIND ORDER BY ID TESTS
     // ===================================================
@@ -228,5 +635,114 @@ class OrderServiceTest {
 
             verify(repository, times(1)).findById(99);
         }
+
+        @Test
+        @DisplayName("🗃️ Should hit the repository only once for repeated lookups")
+        void shouldCacheOrderAfterFirstLookup() {
+            when(repository.findById(1)).thenReturn(Optional.of(order));
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
+
+            orderService.findById(1);
+            orderService.findById(1);
+
+            verify(repository, times(1)).findById(1);
+        }
+
+        @Test
+        @DisplayName("🔄 Should reload the order once it has been invalidated")
+        void shouldReloadAfterInvalidation() {
+            when(repository.findById(1)).thenReturn(Optional.of(order));
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
+
+            orderService.findById(1);
+            orderCache.invalidate(1);
+            orderService.findById(1);
+
+            verify(repository, times(2)).findById(1);
+        }
+    }
+
+    // ===================================================
+    // 🧩 FIND ORDER DETAILS TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 findDetailsById() / findDetailsByIds() methods")
+    class FindOrderDetailsTests {
+
+        @Test
+        @DisplayName("✅ Should return order details loaded with their lines")
+        void shouldReturnOrderDetails() {
+            OrderDetailResponse details = new OrderDetailResponse(
+                    1, "REF123", BigDecimal.valueOf(2000), PaymentMethod.CREDIT_CARD, "1",
+                    OrderStatus.CONFIRMED, List.of()
+            );
+            when(repository.findWithLinesById(1)).thenReturn(Optional.of(order));
+            when(mapper.toOrderDetail(order)).thenReturn(details);
+
+            assertEquals(details, orderService.findDetailsById(1));
+        }
+
+        @Test
+        @DisplayName("🚫 Should throw EntityNotFoundException when order not found")
+        void shouldThrowExceptionWhenOrderNotFound() {
+            when(repository.findWithLinesById(99)).thenReturn(Optional.empty());
+
+            assertThrows(EntityNotFoundException.class, () -> orderService.findDetailsById(99));
+        }
+
+        @Test
+        @DisplayName("✅ Should keep the requested order and skip unknown ids")
+        void shouldKeepRequestedOrder() {
+            Order order2 = Order.builder().id(2).build();
+            when(repository.findAllWithLinesByIdIn(any())).thenReturn(List.of(order, order2));
+            when(mapper.toOrderDetail(any(Order.class))).thenAnswer(invocation -> {
+                Order source = invocation.getArgument(0);
+                return new OrderDetailResponse(source.getId(), null, null, null, null, null, List.of());
+            });
+
+            List<OrderDetailResponse> result = orderService.findDetailsByIds(List.of(2, 99, 1, 2));
+
+            assertEquals(List.of(2, 1), result.stream().map(OrderDetailResponse::id).toList());
+            verify(repository, times(1)).findAllWithLinesByIdIn(any());
+        }
+
+        @Test
+        @DisplayName("🚫 Should reject a batch larger than the configured maximum")
+        void shouldRejectOversizedBatch() {
+            ReflectionTestUtils.setField(orderService, "maxDetailBatchSize", 2);
+
+            assertThrows(BusinessException.class, () -> orderService.findDetailsByIds(List.of(1, 2, 3)));
+            verify(repository, never()).findAllWithLinesByIdIn(any());
+        }
+    }
+
+    // ===================================================
+    // 🧩 FIND ORDER BY REFERENCE TESTS
+    // ===================================================
+    @Nested
+    @DisplayName("🧩 findByReference() method")
+    class FindByReferenceTests {
+
+        @Test
+        @DisplayName("✅ Should return order when found by reference and cache it by ID too")
+        void shouldReturnOrderWhenFound() {
+            when(repository.findByReference("REF123")).thenReturn(Optional.of(order));
+            when(mapper.fromOrder(order)).thenReturn(orderResponse);
+
+            OrderResponse result = orderService.findByReference("REF123");
+
+            assertEquals(1, result.id());
+            assertEquals(orderResponse, orderService.findById(1));
+            verify(repository, never()).findById(anyInt());
+        }
+
+        @Test
+        @DisplayName("🚫 Should throw EntityNotFoundException when reference is unknown")
+        void shouldThrowExceptionWhenOrderNotFound() {
+            when(repository.findByReference("UNKNOWN")).thenReturn(Optional.empty());
+
+            assertThrows(EntityNotFoundException.class,
+                    () -> orderService.findByReference("UNKNOWN"));
+        }
     }
 }
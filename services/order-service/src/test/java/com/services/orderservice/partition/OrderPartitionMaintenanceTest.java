@@ -0,0 +1,171 @@
+package com.services.orderservice.partition;
+
+import com.services.orderservice.partition.OrderPartitionMaintenance.MonthlyTable;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("🧪 OrderPartitionMaintenance Unit Tests")
+class OrderPartitionMaintenanceTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        lenient().when(jdbcTemplate.queryForObject(startsWith("select pg_advisory_unlock"), eq(Boolean.class), any()))
+                .thenReturn(true);
+        lenient().when(jdbcTemplate.queryForObject(startsWith("select to_regclass"), eq(Boolean.class), any()))
+                .thenReturn(false);
+    }
+
+    private void givenMonthlyTables(String table, MonthlyTable... tables) {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(), any(), eq(table.replace("_", "\\_") + "\\_p%")))
+                .thenReturn(List.of(tables));
+    }
+
+    private List<String> executedStatements() {
+        var statements = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).execute(statements.capture());
+        return statements.getAllValues();
+    }
+
+    @Test
+    @DisplayName("✅ Should create the coming partitions and archive those past the hot window")
+    void shouldCreateAheadAndArchiveOldPartitions() {
+        // GIVEN
+        var maintenance = new OrderPartitionMaintenance(null, 1, 6, "cold", "");
+        when(jdbcTemplate.queryForObject(startsWith("select pg_try_advisory_lock"), eq(Boolean.class), any())).thenReturn(true);
+        givenMonthlyTables("customer_order",
+                new MonthlyTable("customer_order_p202604", false, true, false),
+                new MonthlyTable("customer_order_p202605", false, true, false));
+        givenMonthlyTables("customer_line", new MonthlyTable("customer_line_p202605", false, true, false));
+
+        // WHEN
+        maintenance.maintain(YearMonth.of(2026, 10), jdbcTemplate, transactionTemplate);
+
+        // THEN
+        List<String> executed = executedStatements();
+        assertTrue(executed.contains("create table if not exists customer_order_p202610 partition of customer_order"
+                + " for values from ('2026-10-01') to ('2026-11-01')"));
+        assertTrue(executed.contains("create table if not exists customer_line_p202611 partition of customer_line"
+                + " for values from ('2026-11-01') to ('2026-12-01')"));
+        assertTrue(executed.contains("alter table customer_order detach partition customer_order_p202604 concurrently"));
+        assertTrue(executed.contains("alter table order_archive.customer_order_p202604 set tablespace cold"));
+        assertTrue(executed.contains("alter table order_archive.customer_order attach partition order_archive.customer_order_p202604"
+                + " for values from ('2026-04-01') to ('2026-05-01')"));
+        assertTrue(executed.stream().noneMatch(sql -> sql.contains("p202605")));
+        verify(transactionTemplate, times(1)).executeWithoutResult(any());
+        verify(jdbcTemplate, times(1)).queryForObject(startsWith("select pg_advisory_unlock"), eq(Boolean.class), any());
+    }
+
+    @Test
+    @DisplayName("🔁 Should resume an archive interrupted after the partition was detached")
+    void shouldResumeInterruptedArchive() {
+        // GIVEN
+        var maintenance = new OrderPartitionMaintenance(null, 0, 6, "", "");
+        when(jdbcTemplate.queryForObject(startsWith("select pg_try_advisory_lock"), eq(Boolean.class), any())).thenReturn(true);
+        givenMonthlyTables("customer_order",
+                new MonthlyTable("customer_order_p202603", false, true, true),
+                new MonthlyTable("customer_order_p202604", true, false, false));
+        givenMonthlyTables("customer_line");
+
+        // WHEN
+        maintenance.maintain(YearMonth.of(2026, 10), jdbcTemplate, transactionTemplate);
+
+        // THEN
+        List<String> executed = executedStatements();
+        assertTrue(executed.contains("alter table customer_order detach partition customer_order_p202603 finalize"));
+        assertTrue(executed.contains("alter table order_archive.customer_order attach partition order_archive.customer_order_p202604"
+                + " for values from ('2026-04-01') to ('2026-05-01')"));
+        assertFalse(executed.contains("alter table customer_order_p202604 set schema order_archive"));
+    }
+
+    @Test
+    @DisplayName("📦 Should move the rows of the former default partition into their monthly partitions")
+    void shouldDrainDefaultPartition() {
+        // GIVEN
+        var maintenance = new OrderPartitionMaintenance(null, 0, 6, "", "");
+        when(jdbcTemplate.queryForObject(startsWith("select pg_try_advisory_lock"), eq(Boolean.class), any())).thenReturn(true);
+        when(jdbcTemplate.queryForObject(startsWith("select to_regclass"), eq(Boolean.class), eq("customer_order_default")))
+                .thenReturn(true);
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class))).thenReturn(List.of("202611"));
+        givenMonthlyTables("customer_order");
+        givenMonthlyTables("customer_line");
+
+        // WHEN
+        maintenance.maintain(YearMonth.of(2026, 10), jdbcTemplate, transactionTemplate);
+
+        // THEN
+        InOrder inOrder = inOrder(jdbcTemplate);
+        inOrder.verify(jdbcTemplate).execute("create table if not exists customer_order_p202611 partition of customer_order"
+                + " for values from ('2026-11-01') to ('2026-12-01')");
+        inOrder.verify(jdbcTemplate).execute(startsWith("delete from customer_order_reference"));
+        inOrder.verify(jdbcTemplate).execute("insert into customer_order select * from customer_order_default");
+        inOrder.verify(jdbcTemplate).execute("drop table customer_order_default");
+    }
+
+    @Test
+    @DisplayName("🚀 Should only create the coming partitions before the application takes traffic")
+    void shouldCreateAheadOnStartup() {
+        // GIVEN
+        var maintenance = new OrderPartitionMaintenance(null, 1, 6, "", "");
+        when(jdbcTemplate.queryForObject(startsWith("select pg_try_advisory_lock"), eq(Boolean.class), any())).thenReturn(true);
+
+        // WHEN
+        maintenance.createAhead(YearMonth.of(2026, 10), jdbcTemplate);
+
+        // THEN
+        assertEquals(List.of(
+                "create table if not exists customer_order_p202610 partition of customer_order for values from ('2026-10-01') to ('2026-11-01')",
+                "create table if not exists customer_order_p202611 partition of customer_order for values from ('2026-11-01') to ('2026-12-01')",
+                "create table if not exists customer_line_p202610 partition of customer_line for values from ('2026-10-01') to ('2026-11-01')",
+                "create table if not exists customer_line_p202611 partition of customer_line for values from ('2026-11-01') to ('2026-12-01')"
+        ), executedStatements());
+        verify(jdbcTemplate, times(1)).queryForObject(startsWith("select pg_advisory_unlock"), eq(Boolean.class), any());
+    }
+
+    @Test
+    @DisplayName("🚫 Should do nothing when another instance holds the lock")
+    void shouldSkipWhenLockIsHeldElsewhere() {
+        // GIVEN
+        var maintenance = new OrderPartitionMaintenance(null, 3, 6, "", "");
+        when(jdbcTemplate.queryForObject(startsWith("select pg_try_advisory_lock"), eq(Boolean.class), any())).thenReturn(false);
+
+        // WHEN
+        maintenance.maintain(YearMonth.of(2026, 10), jdbcTemplate, transactionTemplate);
+
+        // THEN
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, never()).queryForObject(startsWith("select pg_advisory_unlock"), eq(Boolean.class), any());
+    }
+
+    @Test
+    @DisplayName("❌ Should reject an archive tablespace that is not a plain identifier")
+    void shouldRejectInvalidTablespace() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderPartitionMaintenance(null, 3, 6, "cold; drop table x", ""));
+    }
+}
@@ -54,6 +54,19 @@ public class CustomerClientStub {
         );
     }
 
+    /**
+     * Mock un client existant avec une latence et un taux d'erreur donnés (tests de charge)
+     */
+    public void stubFindCustomerById_WithBehaviour(String customerId, CustomerResponse customerResponse, DownstreamBehaviour behaviour) throws JsonProcessingException {
+        wireMockServer.stubFor(
+                get(urlEqualTo("/api/v1/customers/" + customerId))
+                        .willReturn(behaviour.applyTo(aResponse()
+                                .withStatus(200)
+                                .withHeader("Content-Type", "application/json")
+                                .withBody(objectMapper.writeValueAsString(customerResponse))))
+        );
+    }
+
     /**
      * Vérifier que le service a été appelé
      */
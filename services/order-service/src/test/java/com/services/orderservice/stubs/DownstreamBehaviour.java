@@ -0,0 +1,44 @@
+package com.services.orderservice.stubs;
+
+import com.github.tomakehurst.wiremock.client.ResponseDefinitionBuilder;
+
+/**
+ * Comportement d'un service distant simulé : latence log-normale (médiane, sigma) et taux d'erreur.
+ *
+ * @param latencyMedianMs médiane de la latence en millisecondes, 0 pour répondre immédiatement
+ * @param latencySigma    dispersion de la loi log-normale (0.5 donne un p99 d'environ 3x la médiane)
+ * @param errorRate       fraction des réponses remplacées par une 503, entre 0 et 1
+ */
+public record DownstreamBehaviour(double latencyMedianMs, double latencySigma, double errorRate) {
+
+    public static final DownstreamBehaviour IMMEDIATE = new DownstreamBehaviour(0, 0, 0);
+
+    /**
+     * Lit {@code <prefix>.latency-median-ms}, {@code <prefix>.latency-sigma} et {@code <prefix>.error-rate}
+     * dans les propriétés système, avec les valeurs par défaut données.
+     */
+    public static DownstreamBehaviour fromSystemProperties(String prefix, double defaultMedianMs, double defaultSigma, double defaultErrorRate) {
+        return new DownstreamBehaviour(
+                Double.parseDouble(System.getProperty(prefix + ".latency-median-ms", String.valueOf(defaultMedianMs))),
+                Double.parseDouble(System.getProperty(prefix + ".latency-sigma", String.valueOf(defaultSigma))),
+                Double.parseDouble(System.getProperty(prefix + ".error-rate", String.valueOf(defaultErrorRate)))
+        );
+    }
+
+    public ResponseDefinitionBuilder applyTo(ResponseDefinitionBuilder response) {
+        if (latencyMedianMs > 0) {
+            response = response.withLogNormalRandomDelay(latencyMedianMs, latencySigma);
+        }
+        if (errorRate > 0) {
+            response = response
+                    .withTransformers(RandomErrorTransformer.NAME)
+                    .withTransformerParameter(RandomErrorTransformer.ERROR_RATE, errorRate);
+        }
+        return response;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("median=%.0fms sigma=%.2f errors=%.1f%%", latencyMedianMs, latencySigma, errorRate * 100);
+    }
+}
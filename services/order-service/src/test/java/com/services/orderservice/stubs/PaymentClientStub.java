@@ -63,6 +63,19 @@ public class PaymentClientStub {
         );
     }
 
+    /**
+     * Mock un paiement réussi avec une latence et un taux d'erreur donnés (tests de charge)
+     */
+    public void stubRequestOrderPayment_WithBehaviour(Integer paymentId, DownstreamBehaviour behaviour) {
+        wireMockServer.stubFor(
+                post(urlEqualTo("/api/v1/payments"))
+                        .willReturn(behaviour.applyTo(aResponse()
+                                .withStatus(200)
+                                .withHeader("Content-Type", "application/json")
+                                .withBody(paymentId.toString())))
+        );
+    }
+
     /**
      * Vérifier que le service a été appelé
      */
@@ -26,7 +26,7 @@ public class ProductClientStub {
      */
     public void stubPurchaseProducts_Success(List<ProductPurchaseResponse> productResponses) throws JsonProcessingException {
         wireMockServer.stubFor(
-                post(urlEqualTo("/api/v1/products/purchase"))
+                post(urlPathEqualTo("/api/v1/products/purchase"))
                         .willReturn(aResponse()
                                 .withStatus(200)
                                 .withHeader("Content-Type", "application/json")
@@ -39,7 +39,7 @@ public class ProductClientStub {
      */
     public void stubPurchaseProducts_InsufficientStock() {
         wireMockServer.stubFor(
-                post(urlEqualTo("/api/v1/products/purchase"))
+                post(urlPathEqualTo("/api/v1/products/purchase"))
                         .willReturn(aResponse()
                                 .withStatus(400)
                                 .withBody("Insufficient stock"))
@@ -51,7 +51,7 @@ public class ProductClientStub {
      */
     public void stubPurchaseProducts_ProductNotFound() {
         wireMockServer.stubFor(
-                post(urlEqualTo("/api/v1/products/purchase"))
+                post(urlPathEqualTo("/api/v1/products/purchase"))
                         .willReturn(aResponse()
                                 .withStatus(404)
                                 .withBody("Product not found"))
@@ -63,17 +63,41 @@ public class ProductClientStub {
      */
     public void stubPurchaseProducts_ServerError() {
         wireMockServer.stubFor(
-                post(urlEqualTo("/api/v1/products/purchase"))
+                post(urlPathEqualTo("/api/v1/products/purchase"))
                         .willReturn(aResponse()
                                 .withStatus(500)
                                 .withBody("Internal Server Error"))
         );
     }
 
+    /**
+     * Mock l'achat de produits avec une latence et un taux d'erreur donnés (tests de charge)
+     */
+    public void stubPurchaseProducts_WithBehaviour(List<ProductPurchaseResponse> productResponses, DownstreamBehaviour behaviour) throws JsonProcessingException {
+        wireMockServer.stubFor(
+                post(urlPathEqualTo("/api/v1/products/purchase"))
+                        .willReturn(behaviour.applyTo(aResponse()
+                                .withStatus(200)
+                                .withHeader("Content-Type", "application/json")
+                                .withBody(objectMapper.writeValueAsString(productResponses))))
+        );
+    }
+
+    /**
+     * Mock la remise en stock après une commande annulée (200)
+     */
+    public void stubReleaseProducts_Success() {
+        wireMockServer.stubFor(
+                post(urlPathEqualTo("/api/v1/products/release"))
+                        .willReturn(aResponse()
+                                .withStatus(200))
+        );
+    }
+
     /**
      * Vérifier que le service a été appelé
      */
     public void verifyPurchaseProductsCalled(int times) {
-        wireMockServer.verify(times, postRequestedFor(urlEqualTo("/api/v1/products/purchase")));
+        wireMockServer.verify(times, postRequestedFor(urlPathEqualTo("/api/v1/products/purchase")));
     }
 }
@@ -0,0 +1,43 @@
+package com.services.orderservice.stubs;
+
+import com.github.tomakehurst.wiremock.extension.Parameters;
+import com.github.tomakehurst.wiremock.extension.ResponseTransformerV2;
+import com.github.tomakehurst.wiremock.http.Response;
+import com.github.tomakehurst.wiremock.stubbing.ServeEvent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Remplace une fraction des réponses d'un stub par une erreur serveur.
+ * Ne s'applique qu'aux stubs déclarés avec {@code withTransformers(RandomErrorTransformer.NAME)}.
+ */
+public class RandomErrorTransformer implements ResponseTransformerV2 {
+
+    public static final String NAME = "random-errors";
+    public static final String ERROR_RATE = "errorRate";
+    public static final String ERROR_STATUS = "errorStatus";
+
+    @Override
+    public Response transform(Response response, ServeEvent serveEvent) {
+        Parameters parameters = serveEvent.getTransformerParameters();
+        double errorRate = parameters.getDouble(ERROR_RATE, 0.0);
+        if (ThreadLocalRandom.current().nextDouble() >= errorRate) {
+            return response;
+        }
+        return Response.Builder.like(response)
+                .but()
+                .status(parameters.getInt(ERROR_STATUS, 503))
+                .body("Injected failure")
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public boolean applyGlobally() {
+        return false;
+    }
+}
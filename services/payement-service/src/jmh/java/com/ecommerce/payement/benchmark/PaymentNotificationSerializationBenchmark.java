@@ -0,0 +1,78 @@
+package com.ecommerce.payement.benchmark;
+
+import com.ecommerce.payement.notification.PaymentNotificationRequest;
+import com.ecommerce.payement.notification.codec.PaymentNotificationSerializer;
+import com.ecommerce.payement.payement.PaymentMethod;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the payment notification on the producer side, with the {@link JsonSerializer} configured like
+ * payement-service.properties (type mapping header included), compared with the binary
+ * {@link PaymentNotificationSerializer}. The payload sizes of both formats are printed once per trial.
+ * Run with {@code mvn -Pjmh verify -DskipTests}; the gc profiler reports the allocation rate per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentNotificationSerializationBenchmark {
+
+    private JsonSerializer<PaymentNotificationRequest> serializer;
+    private PaymentNotificationSerializer binarySerializer;
+    private PaymentNotificationRequest paymentNotification;
+
+    @Setup
+    public void setUp() {
+        serializer = new JsonSerializer<>(new ObjectMapper().findAndRegisterModules());
+        serializer.configure(
+                Map.of(JsonSerializer.TYPE_MAPPINGS, "paymentConfirmation:com.ecommerce.payement.notification.PaymentNotificationRequest"),
+                false
+        );
+        paymentNotification = new PaymentNotificationRequest(
+                "ORD-2024-000001",
+                new BigDecimal("1249.90"),
+                PaymentMethod.CREDIT_CARD,
+                "Jane",
+                "Doe",
+                "jane.doe@example.com"
+        );
+        binarySerializer = new PaymentNotificationSerializer();
+        System.out.printf("%nbytes per event: json=%d binary=%d%n",
+                serializer.serialize("payment-topic", new RecordHeaders(), paymentNotification).length,
+                binarySerializer.serialize("payment-topic", paymentNotification).length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        serializer.close();
+    }
+
+    @Benchmark
+    public byte[] kafkaSerialize() {
+        return serializer.serialize("payment-topic", new RecordHeaders(), paymentNotification);
+    }
+
+    @Benchmark
+    public byte[] binarySerialize() {
+        return binarySerializer.serialize("payment-topic", paymentNotification);
+    }
+}
@@ -0,0 +1,268 @@
+package com.ecommerce.payement.notification.codec;
+
+import org.apache.kafka.common.errors.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the events exchanged between order-service, payement-service and
+ * notification-service. The schemas are embedded: fields are written in a fixed order, without names,
+ * after a three byte header (magic byte, schema version, event type). A JSON payload always starts with
+ * '{' or whitespace, so a reader tells both formats apart from the first byte. Each service keeps its own
+ * copy of this class (the services share no build); the same reference events are pinned byte for byte
+ * in each service's tests, so a copy that drifts fails its build.
+ * <p>
+ * Version 1 layouts:
+ * <pre>
+ * ORDER_CONFIRMATION   string orderReference, decimal totalAmount, enum paymentMethod,
+ *                      customer? (string id, string firstname, string lastname, string email),
+ *                      list of (int? productId, double quantity)
+ * PAYMENT_CONFIRMATION string orderReference, decimal amount, enum paymentMethod,
+ *                      string customerFirstname, string customerLastname, string customerEmail
+ * </pre>
+ * Strings, decimals, enums and lists are prefixed with their length or index plus one, zero meaning null.
+ * A later version may only append fields at the end of an event: an older reader decodes the fields it
+ * knows and ignores the rest.
+ */
+public final class BinaryEvents {
+
+    public static final byte MAGIC = (byte) 0xEC;
+    public static final byte VERSION = 1;
+
+    public static final byte ORDER_CONFIRMATION = 1;
+    public static final byte PAYMENT_CONFIRMATION = 2;
+
+    /**
+     * Symbols of the payment method enum, encoded by position rather than by the local ordinal.
+     * New symbols go at the end.
+     */
+    public static final List<String> PAYMENT_METHODS = List.of("PAYPAL", "CREDIT_CARD", "VISA", "MASTER_CARD", "BITCOIN");
+
+    private BinaryEvents() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data != null && data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static final class Writer {
+
+        private byte[] buffer;
+        private int position;
+
+        public Writer(byte type) {
+            buffer = new byte[128];
+            writeByte(MAGIC);
+            writeByte(VERSION);
+            writeByte(type);
+        }
+
+        public Writer writeString(String value) {
+            if (value == null) {
+                return writeVarint(0);
+            }
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarint(bytes.length + 1);
+            return writeBytes(bytes);
+        }
+
+        public Writer writeDecimal(BigDecimal value) {
+            if (value == null) {
+                return writeVarint(0);
+            }
+            byte[] unscaled = value.unscaledValue().toByteArray();
+            writeVarint(unscaled.length + 1);
+            writeBytes(unscaled);
+            return writeVarint(zigZag(value.scale()));
+        }
+
+        public Writer writeEnum(Enum<?> value, List<String> symbols) {
+            if (value == null) {
+                return writeVarint(0);
+            }
+            int index = symbols.indexOf(value.name());
+            if (index < 0) {
+                throw new SerializationException("No symbol " + value.name() + " in schema version " + VERSION);
+            }
+            return writeVarint(index + 1);
+        }
+
+        public Writer writeNullableInt(Integer value) {
+            if (value == null) {
+                return writeByte((byte) 0);
+            }
+            writeByte((byte) 1);
+            return writeVarint(zigZag(value));
+        }
+
+        public Writer writeDouble(double value) {
+            long bits = Double.doubleToRawLongBits(value);
+            for (int shift = 56; shift >= 0; shift -= 8) {
+                writeByte((byte) (bits >>> shift));
+            }
+            return this;
+        }
+
+        public Writer writePresence(Object value) {
+            return writeByte((byte) (value == null ? 0 : 1));
+        }
+
+        /**
+         * Writes the element count of a list, followed by the elements written by the caller.
+         */
+        public Writer writeListSize(List<?> list) {
+            return writeVarint(list == null ? 0 : list.size() + 1);
+        }
+
+        public byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private Writer writeVarint(int value) {
+            while ((value & ~0x7F) != 0) {
+                writeByte((byte) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            return writeByte((byte) value);
+        }
+
+        private Writer writeByte(byte value) {
+            ensureCapacity(1);
+            buffer[position++] = value;
+            return this;
+        }
+
+        private Writer writeBytes(byte[] bytes) {
+            ensureCapacity(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+            return this;
+        }
+
+        private void ensureCapacity(int extra) {
+            if (position + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + extra));
+            }
+        }
+
+        private static int zigZag(int value) {
+            return (value << 1) ^ (value >> 31);
+        }
+    }
+
+    public static final class Reader {
+
+        private final byte[] data;
+        private int position;
+        private final byte version;
+        private final byte type;
+
+        public Reader(byte[] data) {
+            if (!isBinary(data) || data.length < 3) {
+                throw new SerializationException("Not a binary event");
+            }
+            this.data = data;
+            this.version = data[1];
+            this.type = data[2];
+            this.position = 3;
+            if (version < 1) {
+                throw new SerializationException("Unsupported event schema version " + version);
+            }
+        }
+
+        public byte version() {
+            return version;
+        }
+
+        public byte type() {
+            return type;
+        }
+
+        public String readString() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            checkAvailable(length);
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        public BigDecimal readDecimal() {
+            int length = readVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            checkAvailable(length);
+            BigInteger unscaled = new BigInteger(data, position, length);
+            position += length;
+            return new BigDecimal(unscaled, unZigZag(readVarint()));
+        }
+
+        public String readEnum(List<String> symbols) {
+            int index = readVarint() - 1;
+            if (index < 0) {
+                return null;
+            }
+            if (index >= symbols.size()) {
+                throw new SerializationException("Unknown enum symbol #" + index + " in schema version " + version);
+            }
+            return symbols.get(index);
+        }
+
+        public Integer readNullableInt() {
+            return readByte() == 0 ? null : unZigZag(readVarint());
+        }
+
+        public double readDouble() {
+            long bits = 0;
+            for (int i = 0; i < 8; i++) {
+                bits = (bits << 8) | (readByte() & 0xFF);
+            }
+            return Double.longBitsToDouble(bits);
+        }
+
+        public boolean readPresence() {
+            return readByte() != 0;
+        }
+
+        /**
+         * Returns the element count of a list, or -1 for a null list.
+         */
+        public int readListSize() {
+            return readVarint() - 1;
+        }
+
+        private int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                byte b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new SerializationException("Malformed varint in binary event");
+        }
+
+        private byte readByte() {
+            checkAvailable(1);
+            return data[position++];
+        }
+
+        private void checkAvailable(int length) {
+            if (length > data.length - position) {
+                throw new SerializationException("Truncated binary event");
+            }
+        }
+
+        private static int unZigZag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
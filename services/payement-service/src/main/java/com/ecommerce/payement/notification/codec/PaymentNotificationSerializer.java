@@ -0,0 +1,27 @@
+package com.ecommerce.payement.notification.codec;
+
+import com.ecommerce.payement.notification.PaymentNotificationRequest;
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes {@link PaymentNotificationRequest} in the {@link BinaryEvents} format. Producers stay on
+ * {@code JsonSerializer} until every notification-service instance reads both formats; switching to this
+ * class through {@code spring.kafka.producer.value-serializer} is then a configuration change.
+ */
+public class PaymentNotificationSerializer implements Serializer<PaymentNotificationRequest> {
+
+    @Override
+    public byte[] serialize(String topic, PaymentNotificationRequest request) {
+        if (request == null) {
+            return null;
+        }
+        return new BinaryEvents.Writer(BinaryEvents.PAYMENT_CONFIRMATION)
+                .writeString(request.orderReference())
+                .writeDecimal(request.amount())
+                .writeEnum(request.paymentMethod(), BinaryEvents.PAYMENT_METHODS)
+                .writeString(request.customerFirstname())
+                .writeString(request.customerLastname())
+                .writeString(request.customerEmail())
+                .toByteArray();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ecommerce.payement.notification.codec;
+
+import com.ecommerce.payement.notification.PaymentNotificationRequest;
+import com.ecommerce.payement.payement.PaymentMethod;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName(" PaymentNotificationSerializer Unit Tests")
+class PaymentNotificationSerializerTest {
+
+    private final PaymentNotificationSerializer serializer = new PaymentNotificationSerializer();
+
+    @Test
+    @DisplayName("Should match the version 1 wire format byte for byte")
+    void shouldMatchPinnedWireFormat() {
+        // the reference event, pinned with the same bytes in notification-service
+        var request = new PaymentNotificationRequest(
+                "REF123", new BigDecimal("2000.50"), PaymentMethod.VISA, "Salma", "Imassenda", "salma@example.com");
+
+        byte[] data = serializer.serialize("payment-topic", request);
+
+        assertEquals("ec0102" // magic, version, PAYMENT_CONFIRMATION
+                        + "07524546313233" // "REF123"
+                        + "04030d7204" // 2000.50: 3 bytes unscaled, zig-zag scale 2
+                        + "03" // VISA
+                        + "0653616c6d61" + "0a496d617373656e6461" + "1273616c6d61406578616d706c652e636f6d",
+                HexFormat.of().formatHex(data));
+    }
+
+    @Test
+    @DisplayName("Should write null fields as absent")
+    void shouldWriteNulls() {
+        var request = new PaymentNotificationRequest(null, null, null, null, null, null);
+
+        byte[] data = serializer.serialize("payment-topic", request);
+
+        assertEquals("ec0102" + "00".repeat(6), HexFormat.of().formatHex(data));
+    }
+}
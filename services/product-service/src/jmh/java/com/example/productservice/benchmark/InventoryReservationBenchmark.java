@@ -0,0 +1,110 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.inventory.InventoryEngine;
+import com.example.productservice.product.dto.ProductPurchaseRequest;
+import com.example.productservice.product.dto.ProductPurchaseResponse;
+import com.example.productservice.product.repository.ProductStockRepository;
+import com.example.productservice.product.repository.StockReservationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases of one product by 8 threads at once: the in-memory inventory against the conditional
+ * update of the product row, each in its own transaction, on an in-memory H2 database.
+ * With {@code hotProducts=1} every thread buys the same product, the flash sale case.
+ * H2 stands in for PostgreSQL here, so the database figures leave out the network round trip
+ * and only show the cost of row locking and transactions.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class InventoryReservationBenchmark {
+
+    private static final double STOCK = 1e12;
+
+    @Param({"1", "100"})
+    public int hotProducts;
+
+    private SingleConnectionDataSource setupConnection;
+    private HikariDataSource pool;
+    private InventoryEngine inventoryEngine;
+    private ProductStockRepository stockRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var url = "jdbc:h2:mem:inventory-" + hotProducts + ";DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000";
+        setupConnection = new SingleConnectionDataSource(url, "sa", "", true);
+        var jdbcTemplate = new JdbcTemplate(setupConnection);
+        jdbcTemplate.execute("""
+                create table product (
+                    id integer primary key,
+                    name varchar(255),
+                    description varchar(255),
+                    price numeric(38, 2),
+                    available_quantity double precision not null
+                )""");
+        for (int productId = 1; productId <= hotProducts; productId++) {
+            jdbcTemplate.update("insert into product values (?, 'Keyboard', 'Mechanical keyboard', 89.90, ?)", productId, STOCK);
+        }
+
+        pool = new HikariDataSource();
+        pool.setJdbcUrl(url);
+        pool.setUsername("sa");
+        pool.setMaximumPoolSize(8);
+        var pooledJdbcTemplate = new JdbcTemplate(pool);
+        stockRepository = new ProductStockRepository(pooledJdbcTemplate);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(pool));
+        inventoryEngine = new InventoryEngine(pooledJdbcTemplate, stockRepository,
+                new StockReservationRepository(pooledJdbcTemplate), transactionTemplate, 64);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        inventoryEngine.flush();
+        pool.close();
+        setupConnection.destroy();
+    }
+
+    @Benchmark
+    public List<ProductPurchaseResponse> inMemory() {
+        return inventoryEngine.purchase(null, List.of(new ProductPurchaseRequest(pickProduct(), 1)));
+    }
+
+    @Benchmark
+    public List<Integer> conditionalUpdate() {
+        var quantities = new TreeMap<Integer, Double>();
+        quantities.put(pickProduct(), 1.0);
+        return transactionTemplate.execute(status -> stockRepository.decrementStock(quantities));
+    }
+
+    private int pickProduct() {
+        return 1 + ThreadLocalRandom.current().nextInt(hotProducts);
+    }
+}
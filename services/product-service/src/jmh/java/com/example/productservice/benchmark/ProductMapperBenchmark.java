@@ -0,0 +1,59 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.product.dto.ProductMapper;
+import com.example.productservice.product.dto.ProductPurchaseResponse;
+import com.example.productservice.product.dto.ProductResponse;
+import com.example.productservice.product.models.Category;
+import com.example.productservice.product.models.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping cost of the catalogue read and of the purchase response.
+ * Run with {@code mvn -Pjmh verify -DskipTests}; the gc profiler reports the allocation rate per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProductMapperBenchmark {
+
+    private ProductMapper productMapper;
+    private Product product;
+
+    @Setup
+    public void setUp() {
+        productMapper = new ProductMapper();
+        product = Product.builder()
+                .id(1)
+                .name("Mechanical keyboard")
+                .description("Tenkeyless keyboard with brown switches")
+                .availableQuantity(120)
+                .price(new BigDecimal("89.90"))
+                .category(Category.builder().id(1).name("Keyboards").description("Computer keyboards").build())
+                .build();
+    }
+
+    @Benchmark
+    public ProductResponse toProductResponse() {
+        return productMapper.toProductResponse(product);
+    }
+
+    @Benchmark
+    public ProductPurchaseResponse toProductPurchaseResponse() {
+        return productMapper.toproductPurchaseResponse(product, 2);
+    }
+}
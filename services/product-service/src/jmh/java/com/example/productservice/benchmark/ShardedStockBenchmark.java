@@ -0,0 +1,113 @@
+package com.example.productservice.benchmark;
+
+import com.example.productservice.product.repository.ProductStockRepository;
+import com.example.productservice.product.repository.ShardedStockRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Purchases of a single product by 8 threads, each in its own transaction, with the stock on
+ * {@code shardCount} rows ({@code 0} being the plain product row). Throughput should grow with the
+ * number of shards until the database, not the row lock, is the limit.
+ * <p>
+ * Runs on an in-memory H2 database by default; point it at PostgreSQL for figures that include
+ * its locking and round trips: {@code -Djmh.args="-jvmArgs -Dbenchmark.jdbc.url=jdbc:postgresql://localhost:5432/product
+ * -jvmArgs -Dbenchmark.jdbc.user=root -jvmArgs -Dbenchmark.jdbc.password=root"}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ShardedStockBenchmark {
+
+    private static final int PRODUCT_ID = 1_000_000;
+    private static final double STOCK = 1e12;
+
+    @Param({"0", "4", "16", "64"})
+    public int shardCount;
+
+    private HikariDataSource pool;
+    private TransactionTemplate transactionTemplate;
+    private ProductStockRepository stockRepository;
+    private ShardedStockRepository shardedStockRepository;
+    private TreeMap<Integer, Double> purchase;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        pool = new HikariDataSource();
+        pool.setJdbcUrl(System.getProperty("benchmark.jdbc.url", "jdbc:h2:mem:sharded-stock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000"));
+        pool.setUsername(System.getProperty("benchmark.jdbc.user", "sa"));
+        pool.setPassword(System.getProperty("benchmark.jdbc.password", ""));
+        pool.setMaximumPoolSize(8);
+        var jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.execute("""
+                create table if not exists product (
+                    id integer primary key,
+                    available_quantity double precision not null,
+                    description varchar(255),
+                    name varchar(255),
+                    price numeric(38, 2),
+                    category_id integer
+                )""");
+        jdbcTemplate.execute("""
+                create table if not exists product_stock_shard (
+                    product_id integer not null references product,
+                    shard integer not null,
+                    available_quantity double precision not null,
+                    primary key (product_id, shard)
+                )""");
+        jdbcTemplate.update("delete from product_stock_shard where product_id = ?", PRODUCT_ID);
+        jdbcTemplate.update("delete from product where id = ?", PRODUCT_ID);
+        jdbcTemplate.update("insert into product (id, available_quantity, name) values (?, ?, 'Benchmark product')", PRODUCT_ID, STOCK);
+
+        stockRepository = new ProductStockRepository(jdbcTemplate);
+        shardedStockRepository = new ShardedStockRepository(jdbcTemplate, stockRepository, shardCount > 0, shardCount);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(pool));
+        if (shardCount > 0) {
+            // a first purchase of nothing creates the shards of this product only
+            var nothing = new TreeMap<Integer, Double>();
+            nothing.put(PRODUCT_ID, 0.0);
+            transactionTemplate.executeWithoutResult(status -> shardedStockRepository.decrementStock(nothing));
+        }
+        purchase = new TreeMap<>();
+        purchase.put(PRODUCT_ID, 1.0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        var jdbcTemplate = new JdbcTemplate(pool);
+        jdbcTemplate.update("delete from product_stock_shard where product_id = ?", PRODUCT_ID);
+        jdbcTemplate.update("delete from product where id = ?", PRODUCT_ID);
+        pool.close();
+    }
+
+    @Benchmark
+    public List<Integer> purchase() {
+        return transactionTemplate.execute(status -> shardedStockRepository.isEnabled()
+                ? shardedStockRepository.decrementStock(purchase)
+                : stockRepository.decrementStock(purchase));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.productservice.exception;
+
+public class ProductQueryException extends RuntimeException{
+    public ProductQueryException(String msg){
+        super(msg);
+    }
+}
@@ -2,6 +2,7 @@ package com.example.productservice.handler;
 
 
 import com.example.productservice.exception.ProductPurchaseException;
+import com.example.productservice.exception.ProductQueryException;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -22,6 +23,13 @@ public class GlobalExceptionHandler {
                 .body(exp.getMessage());
     }
 
+    @ExceptionHandler(ProductQueryException.class)
+    public ResponseEntity<String> handle(ProductQueryException exp) {
+        return ResponseEntity
+                .status(BAD_REQUEST)
+                .body(exp.getMessage());
+    }
+
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handle(EntityNotFoundException exp) {
         return ResponseEntity
@@ -0,0 +1,203 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.exception.ProductPurchaseException;
+import com.example.productservice.product.dto.ProductPurchaseRequest;
+import com.example.productservice.product.dto.ProductPurchaseResponse;
+import com.example.productservice.product.repository.ProductStockRepository;
+import com.example.productservice.product.repository.StockReservationRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Serves purchases and releases from memory instead of row locks on the product table, for flash sales.
+ * <p>
+ * On startup every product is loaded from the database; products created later are loaded the first
+ * time they are bought. Stock changes are applied to a {@link StripedInventory} and written behind:
+ * a scheduled flush adds the accumulated deltas to the product rows in one batch, and a last flush
+ * runs on shutdown. Changes made since the last flush are lost if the process dies, so the database
+ * can show up to one flush interval of sales as still available.
+ * <p>
+ * The quantities in memory are the reference while the engine runs: only one product-service
+ * instance may run it, and stock must not be changed in the database behind its back. It cannot
+ * run with sharded stock, which keeps the stock out of the product rows it loads and writes, so
+ * startup fails when both are enabled.
+ * <p>
+ * Purchases and releases sent with a reference are recorded in the database like in the default
+ * mode, so that a release stays idempotent; that costs one insert per purchase.
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "application.config.inventory.in-memory.enabled", havingValue = "true")
+public class InventoryEngine {
+
+    private static final String SELECT_PRODUCTS = "select id, name, description, price, available_quantity from product";
+
+    private final StripedInventory inventory;
+    private final Map<Integer, CatalogEntry> catalog = new ConcurrentHashMap<>();
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ProductStockRepository stockRepository;
+    private final StockReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public InventoryEngine(
+            JdbcTemplate jdbcTemplate,
+            ProductStockRepository stockRepository,
+            StockReservationRepository reservationRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${application.config.inventory.in-memory.stripes:64}") int stripes,
+            @Value("${application.config.stock.sharded.enabled:false}") boolean shardedStock
+    ) {
+        if (shardedStock) {
+            throw new IllegalStateException("application.config.inventory.in-memory.enabled cannot be combined with "
+                    + "application.config.stock.sharded.enabled: the product rows hold no stock in sharded mode");
+        }
+        this.inventory = new StripedInventory(stripes);
+        this.jdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.stockRepository = stockRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = transactionTemplate;
+        jdbcTemplate.query(SELECT_PRODUCTS, rs -> {
+            load(rs.getInt("id"), rs.getString("name"), rs.getString("description"),
+                    rs.getBigDecimal("price"), rs.getDouble("available_quantity"));
+        });
+        log.info("Inventory loaded in memory: {} products", catalog.size());
+    }
+
+    public List<ProductPurchaseResponse> purchase(String reference, List<ProductPurchaseRequest> request) {
+        if (reference != null && !reservationRepository.reserve(reference)) {
+            throw new ProductPurchaseException("Stock was already purchased or released for reference:: " + reference);
+        }
+        try {
+            return purchase(request);
+        } catch (RuntimeException e) {
+            if (reference != null) {
+                // nothing was taken: closing the reservation turns a later release into a no-op
+                reservationRepository.release(reference);
+            }
+            throw e;
+        }
+    }
+
+    public void release(String reference, List<ProductPurchaseRequest> request) {
+        if (reference != null && !reservationRepository.release(reference)) {
+            return;
+        }
+        release(request);
+    }
+
+    private List<ProductPurchaseResponse> purchase(List<ProductPurchaseRequest> request) {
+        var quantities = merge(request);
+        loadMissing(quantities);
+        int[] productIds = productIds(quantities);
+        double[] amounts = amounts(quantities);
+        int failed = inventory.reserve(productIds, amounts);
+        if (failed != StripedInventory.DONE) {
+            if (!inventory.contains(productIds[failed])) {
+                throw new ProductPurchaseException("One or more products does not exist");
+            }
+            throw new ProductPurchaseException("Insufficient stock quantity for product with ID:: " + productIds[failed]);
+        }
+        var purchased = new ArrayList<ProductPurchaseResponse>(productIds.length);
+        for (int i = 0; i < productIds.length; i++) {
+            var entry = catalog.get(productIds[i]);
+            purchased.add(new ProductPurchaseResponse(productIds[i], entry.name(), entry.description(), entry.price(), amounts[i]));
+        }
+        return purchased;
+    }
+
+    private void release(List<ProductPurchaseRequest> request) {
+        var quantities = merge(request);
+        loadMissing(quantities);
+        if (inventory.release(productIds(quantities), amounts(quantities)) != StripedInventory.DONE) {
+            throw new ProductPurchaseException("One or more products does not exist");
+        }
+    }
+
+    /**
+     * Quantity currently held in memory, {@code NaN} for a product that is not loaded.
+     */
+    public double availableQuantity(Integer productId) {
+        return inventory.quantity(productId);
+    }
+
+    /**
+     * Adds the stock changes made since the previous flush to the product rows, in one batch and one
+     * transaction. Unless that transaction commits, whatever stopped it (the write, or a transaction
+     * that could not even start, e.g. no connection), the deltas are kept and retried by the next flush.
+     */
+    @Scheduled(fixedDelayString = "${application.config.inventory.in-memory.flush-interval-ms:200}")
+    public void flush() {
+        SortedMap<Integer, Double> deltas = new TreeMap<>();
+        inventory.drainPending(deltas::put);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<Integer> unknown;
+        try {
+            unknown = transactionTemplate.execute(status -> stockRepository.incrementStock(deltas));
+        } catch (RuntimeException e) {
+            log.warn("Could not write {} stock changes, retrying on the next flush", deltas.size(), e);
+            deltas.forEach(inventory::restorePending);
+            return;
+        }
+        if (unknown != null && !unknown.isEmpty()) {
+            log.warn("Stock changes dropped for products no longer in the database: {}", unknown);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void loadMissing(SortedMap<Integer, Double> quantities) {
+        var missing = quantities.keySet().stream()
+                .filter(productId -> !inventory.contains(productId))
+                .toList();
+        if (missing.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.query(SELECT_PRODUCTS + " where id in (:ids)", Map.of("ids", missing), rs -> {
+            load(rs.getInt("id"), rs.getString("name"), rs.getString("description"),
+                    rs.getBigDecimal("price"), rs.getDouble("available_quantity"));
+        });
+    }
+
+    private void load(int productId, String name, String description, BigDecimal price, double availableQuantity) {
+        catalog.putIfAbsent(productId, new CatalogEntry(name, description, price));
+        inventory.putIfAbsent(productId, availableQuantity);
+    }
+
+    private static SortedMap<Integer, Double> merge(List<ProductPurchaseRequest> request) {
+        return request
+                .stream()
+                .collect(Collectors.toMap(ProductPurchaseRequest::productId, ProductPurchaseRequest::quantity, Double::sum, TreeMap::new));
+    }
+
+    private static int[] productIds(SortedMap<Integer, Double> quantities) {
+        return quantities.keySet().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static double[] amounts(SortedMap<Integer, Double> quantities) {
+        return quantities.values().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    private record CatalogEntry(String name, String description, BigDecimal price) {
+    }
+}
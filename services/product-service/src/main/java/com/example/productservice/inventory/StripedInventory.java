@@ -0,0 +1,259 @@
+package com.example.productservice.inventory;
+
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * Available quantities keyed by product id, without boxing: each stripe is an open-addressing
+ * table of int keys and double values guarded by its own lock, so purchases of products living
+ * in different stripes never wait for each other.
+ * <p>
+ * Every change is also added to a pending delta kept next to the quantity. The write-behind
+ * flush drains these deltas to the database; a product bought a thousand times between two
+ * flushes costs one row update.
+ */
+final class StripedInventory {
+
+    /** Returned by {@link #reserve} and {@link #release} when every product was updated. */
+    static final int DONE = -1;
+
+    private static final int EMPTY = Integer.MIN_VALUE;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    StripedInventory(int stripeCount) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1) << 1);
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Sets the quantity of a product that is not known yet; a product already present keeps its
+     * in-memory quantity, which is ahead of the database.
+     */
+    void putIfAbsent(int productId, double quantity) {
+        var stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            if (stripe.indexOf(productId) < 0) {
+                stripe.insert(productId, quantity);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    boolean contains(int productId) {
+        var stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            return stripe.indexOf(productId) >= 0;
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the quantity of the product, or {@code NaN} when it is unknown
+     */
+    double quantity(int productId) {
+        var stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            int index = stripe.indexOf(productId);
+            return index < 0 ? Double.NaN : stripe.values[index];
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Takes every quantity from its product, or nothing at all.
+     *
+     * @param productIds distinct product ids
+     * @return {@link #DONE}, or the position of the first product that is unknown or short of stock
+     */
+    int reserve(int[] productIds, double[] quantities) {
+        var locked = lock(productIds);
+        try {
+            for (int i = 0; i < productIds.length; i++) {
+                var stripe = stripeOf(productIds[i]);
+                int index = stripe.indexOf(productIds[i]);
+                if (index < 0 || stripe.values[index] < quantities[i]) {
+                    return i;
+                }
+            }
+            for (int i = 0; i < productIds.length; i++) {
+                stripeOf(productIds[i]).add(productIds[i], -quantities[i]);
+            }
+            return DONE;
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    /**
+     * Gives every quantity back to its product, or nothing at all.
+     *
+     * @param productIds distinct product ids
+     * @return {@link #DONE}, or the position of the first unknown product
+     */
+    int release(int[] productIds, double[] quantities) {
+        var locked = lock(productIds);
+        try {
+            for (int i = 0; i < productIds.length; i++) {
+                if (stripeOf(productIds[i]).indexOf(productIds[i]) < 0) {
+                    return i;
+                }
+            }
+            for (int i = 0; i < productIds.length; i++) {
+                stripeOf(productIds[i]).add(productIds[i], quantities[i]);
+            }
+            return DONE;
+        } finally {
+            unlock(locked);
+        }
+    }
+
+    /**
+     * Hands the pending delta of every changed product to the consumer and resets it, one stripe at a time.
+     */
+    void drainPending(BiConsumer<Integer, Double> consumer) {
+        for (var stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                for (int i = 0; i < stripe.keys.length; i++) {
+                    if (stripe.keys[i] != EMPTY && stripe.pending[i] != 0) {
+                        consumer.accept(stripe.keys[i], stripe.pending[i]);
+                        stripe.pending[i] = 0;
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Puts back deltas that could not be written, so that the next flush retries them.
+     * The quantities themselves are left as they are.
+     */
+    void restorePending(int productId, double delta) {
+        var stripe = stripeOf(productId);
+        stripe.lock.lock();
+        try {
+            int index = stripe.indexOf(productId);
+            if (index >= 0) {
+                stripe.pending[index] += delta;
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private Stripe stripeOf(int productId) {
+        return stripes[mix(productId) & mask];
+    }
+
+    /**
+     * Locks the stripes of the given products in ascending stripe order, which keeps two
+     * multi-product reservations from deadlocking.
+     */
+    private int[] lock(int[] productIds) {
+        int[] locked = new int[productIds.length];
+        for (int i = 0; i < productIds.length; i++) {
+            locked[i] = mix(productIds[i]) & mask;
+        }
+        Arrays.sort(locked);
+        int count = 0;
+        for (int i = 0; i < locked.length; i++) {
+            if (i == 0 || locked[i] != locked[i - 1]) {
+                locked[count++] = locked[i];
+            }
+        }
+        locked = Arrays.copyOf(locked, count);
+        for (int stripe : locked) {
+            stripes[stripe].lock.lock();
+        }
+        return locked;
+    }
+
+    private void unlock(int[] locked) {
+        for (int i = locked.length - 1; i >= 0; i--) {
+            stripes[locked[i]].lock.unlock();
+        }
+    }
+
+    private static int mix(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static final class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private int[] keys = emptyKeys(16);
+        private double[] values = new double[16];
+        private double[] pending = new double[16];
+        private int size;
+
+        private int indexOf(int key) {
+            int slotMask = keys.length - 1;
+            int slot = mix(key) >>> 8 & slotMask;
+            while (keys[slot] != EMPTY) {
+                if (keys[slot] == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & slotMask;
+            }
+            return -1;
+        }
+
+        private void add(int key, double delta) {
+            int index = indexOf(key);
+            values[index] += delta;
+            pending[index] += delta;
+        }
+
+        private void insert(int key, double value) {
+            if ((size + 1) * 4 > keys.length * 3) {
+                grow();
+            }
+            int slotMask = keys.length - 1;
+            int slot = mix(key) >>> 8 & slotMask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & slotMask;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            size++;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            double[] oldPending = pending;
+            keys = emptyKeys(oldKeys.length * 2);
+            values = new double[keys.length];
+            pending = new double[keys.length];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != EMPTY) {
+                    insert(oldKeys[i], oldValues[i]);
+                    pending[indexOf(oldKeys[i])] = oldPending[i];
+                }
+            }
+        }
+
+        private static int[] emptyKeys(int capacity) {
+            int[] keys = new int[capacity];
+            Arrays.fill(keys, EMPTY);
+            return keys;
+        }
+    }
+}
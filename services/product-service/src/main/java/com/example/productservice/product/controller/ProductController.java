@@ -1,14 +1,22 @@
 package com.example.productservice.product.controller;
 
+import com.example.productservice.inventory.InventoryEngine;
+import com.example.productservice.product.dto.ProductPageResponse;
 import com.example.productservice.product.dto.ProductPurchaseRequest;
 import com.example.productservice.product.dto.ProductPurchaseResponse;
 import com.example.productservice.product.dto.ProductRequest;
 import com.example.productservice.product.dto.ProductResponse;
 import com.example.productservice.product.service.ProductService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @RestController
@@ -17,9 +25,14 @@ import java.util.List;
 public class ProductController {
 
     private final ProductService service;
+    // présent seulement si application.config.inventory.in-memory.enabled=true
+    private final InventoryEngine inventoryEngine;
+    private final ObjectMapper objectMapper;
     // Constructeur manuel
-    public ProductController(ProductService service) {
+    public ProductController(ProductService service, ObjectProvider<InventoryEngine> inventoryEngine, ObjectMapper objectMapper) {
         this.service = service;
+        this.inventoryEngine = inventoryEngine.getIfAvailable();
+        this.objectMapper = objectMapper;
     }
 
 
@@ -32,9 +45,26 @@ public class ProductController {
 
     @PostMapping("/purchase")
     public ResponseEntity<List<ProductPurchaseResponse>> purchaseProducts(
+            @RequestParam(value = "reference", required = false) String reference,
             @RequestBody List<ProductPurchaseRequest> request
     ) {
-        return ResponseEntity.ok(service.purchaseProducts(request));
+        if (inventoryEngine != null) {
+            return ResponseEntity.ok(inventoryEngine.purchase(reference, request));
+        }
+        return ResponseEntity.ok(service.purchaseProducts(reference, request));
+    }
+
+    @PostMapping("/release")
+    public ResponseEntity<Void> releaseProducts(
+            @RequestParam(value = "reference", required = false) String reference,
+            @RequestBody List<ProductPurchaseRequest> request
+    ) {
+        if (inventoryEngine != null) {
+            inventoryEngine.release(reference, request);
+        } else {
+            service.releaseProducts(reference, request);
+        }
+        return ResponseEntity.ok().build();
     }
 
     @GetMapping("/{product-id}")
@@ -44,8 +74,36 @@ public class ProductController {
         return ResponseEntity.ok(service.findById(productId));
     }
 
-    @GetMapping
+    // sans paramètre de pagination : la liste complète, comme avant
+    @GetMapping(params = {"!page", "!size", "!categoryId", "!sort"})
     public ResponseEntity<List<ProductResponse>> findAll() {
         return ResponseEntity.ok(service.findAll());
     }
+
+    @GetMapping
+    public ResponseEntity<ProductPageResponse> findPage(
+            @RequestParam(value = "categoryId", required = false) Integer categoryId,
+            @RequestParam(value = "page", required = false) Integer page,
+            @RequestParam(value = "size", required = false) Integer size,
+            @RequestParam(value = "sort", required = false) String sort
+    ) {
+        return ResponseEntity.ok(service.findPage(categoryId, page, size, sort));
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportAll(
+            @RequestParam(value = "categoryId", required = false) Integer categoryId
+    ) {
+        StreamingResponseBody body = outputStream -> service.streamAll(categoryId, product -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(product));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
 }
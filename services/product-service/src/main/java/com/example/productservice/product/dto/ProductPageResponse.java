@@ -0,0 +1,11 @@
+package com.example.productservice.product.dto;
+
+import java.util.List;
+
+public record ProductPageResponse(
+        List<ProductResponse> content,
+        int page,
+        int size,
+        boolean hasNext
+) {
+}
@@ -16,4 +16,7 @@ public record ProductResponse(
         String categoryDescription
 
 ) {
+    public ProductResponse withAvailableQuantity(double availableQuantity) {
+        return new ProductResponse(id, name, description, availableQuantity, price, id_Category, categoryName, categoryDescription);
+    }
 }
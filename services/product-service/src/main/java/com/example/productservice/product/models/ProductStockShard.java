@@ -0,0 +1,34 @@
+package com.example.productservice.product.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+
+/**
+ * Read-only view of product_stock_shard, so that queries can add the shards of a product to its stock.
+ * The rows are written by ShardedStockRepository.
+ */
+@NoArgsConstructor
+@Getter
+@Entity
+@Immutable
+@IdClass(ProductStockShard.Key.class)
+@Table(name = "product_stock_shard")
+public class ProductStockShard {
+    @Id
+    @Column(name = "product_id")
+    private Integer productId;
+    @Id
+    private Integer shard;
+    private double availableQuantity;
+
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private Integer productId;
+        private Integer shard;
+    }
+}
@@ -1,10 +1,56 @@
 package com.example.productservice.product.repository;
 
+import com.example.productservice.product.dto.ProductResponse;
 import com.example.productservice.product.models.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ProductRepository  extends JpaRepository<Product,Integer> {
+
+    /**
+     * Builds the response straight from the row: category joined once, stock being the product row plus its shards.
+     */
+    String PRODUCT_RESPONSE = """
+            select new com.example.productservice.product.dto.ProductResponse(
+                p.id, p.name, p.description,
+                p.availableQuantity + coalesce((select sum(s.availableQuantity) from ProductStockShard s where s.productId = p.id), 0.0),
+                p.price, c.id, c.name, c.description)
+            from Product p
+            left join p.category c
+            where (:categoryId is null or c.id = :categoryId)
+            """;
+
     List<Product> findAllByIdInOrderById(List<Integer> ids);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    Optional<Product> findById(Integer id);
+
+    @Override
+    @EntityGraph(attributePaths = "category")
+    List<Product> findAll();
+
+    /**
+     * One page in a single query; a slice needs no count query, {@code hasNext} comes from fetching one extra row.
+     */
+    @Query(PRODUCT_RESPONSE)
+    Slice<ProductResponse> findResponses(@Param("categoryId") Integer categoryId, Pageable pageable);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(PRODUCT_RESPONSE + "order by p.id")
+    Stream<ProductResponse> streamResponses(@Param("categoryId") Integer categoryId);
 }
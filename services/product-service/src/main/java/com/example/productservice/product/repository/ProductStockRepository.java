@@ -0,0 +1,82 @@
+package com.example.productservice.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Stock updates that bypass the persistence context: the database checks and decrements the
+ * quantity in the same statement, so concurrent purchases of a product cannot overwrite each other.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductStockRepository {
+
+    private static final String DECREMENT_STOCK = """
+            update product
+            set available_quantity = available_quantity - ?
+            where id = ? and available_quantity >= ?""";
+
+    private static final String INCREMENT_STOCK = """
+            update product
+            set available_quantity = available_quantity + ?
+            where id = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes each quantity from its product in a single JDBC batch, one round trip for the whole purchase.
+     * Rows are updated in ascending id order, so two purchases sharing products lock them in the same order.
+     *
+     * @return the ids of the products left untouched, either unknown or short of stock; the caller has to
+     * roll back when this is not empty
+     */
+    public List<Integer> decrementStock(SortedMap<Integer, Double> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        var entries = new ArrayList<>(quantities.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(DECREMENT_STOCK, entries, entries.size(), (ps, entry) -> {
+            ps.setDouble(1, entry.getValue());
+            ps.setInt(2, entry.getKey());
+            ps.setDouble(3, entry.getValue());
+        });
+        return untouched(entries, counts);
+    }
+
+    /**
+     * Gives the quantities back to their products in a single JDBC batch, in ascending id order.
+     *
+     * @return the ids of unknown products
+     */
+    public List<Integer> incrementStock(SortedMap<Integer, Double> quantities) {
+        if (quantities.isEmpty()) {
+            return List.of();
+        }
+        var entries = new ArrayList<>(quantities.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(INCREMENT_STOCK, entries, entries.size(), (ps, entry) -> {
+            ps.setDouble(1, entry.getValue());
+            ps.setInt(2, entry.getKey());
+        });
+        return untouched(entries, counts);
+    }
+
+    private static List<Integer> untouched(List<Map.Entry<Integer, Double>> entries, int[][] counts) {
+        var untouched = new ArrayList<Integer>();
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == 0) {
+                    untouched.add(entries.get(index).getKey());
+                }
+                index++;
+            }
+        }
+        return untouched;
+    }
+}
@@ -0,0 +1,241 @@
+package com.example.productservice.product.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stock of a product split across several rows of product_stock_shard, so that concurrent purchases
+ * of a hot product update different rows instead of queuing on one.
+ * <p>
+ * A product gets its shards the first time it is bought (or at startup), its available_quantity is
+ * then moved into them and the product row keeps 0. The stock of a product is therefore always the
+ * product row plus its shards, which is what {@link #availableQuantities} reads.
+ * <p>
+ * Locks are always taken in the same order, so that purchases and rebalances cannot deadlock:
+ * products one after the other by ascending id, and for each product its row before its shards.
+ * A rebalance also brings the product to the configured shard count, whether it went up or down,
+ * and gathers any stock left on the product row.
+ */
+@Repository
+public class ShardedStockRepository {
+
+    private static final String DECREMENT_SHARD = """
+            update product_stock_shard
+            set available_quantity = available_quantity - ?
+            where product_id = ? and shard = ? and available_quantity >= ?""";
+
+    private static final String INCREMENT_SHARD = """
+            update product_stock_shard
+            set available_quantity = available_quantity + ?
+            where product_id = ? and shard = ?""";
+
+    private static final String LOCK_SHARDS = """
+            select shard, available_quantity
+            from product_stock_shard
+            where product_id = ?
+            order by shard
+            for update""";
+
+    private static final String SET_SHARD = """
+            update product_stock_shard
+            set available_quantity = ?
+            where product_id = ? and shard = ?""";
+
+    private static final String INSERT_SHARD = """
+            insert into product_stock_shard (product_id, shard, available_quantity)
+            values (?, ?, ?)""";
+
+    private static final String AVAILABLE_QUANTITIES = """
+            select p.id, p.available_quantity + coalesce(sum(s.available_quantity), 0) as available_quantity
+            from product p
+            left join product_stock_shard s on s.product_id = p.id
+            where p.id in (:ids)
+            group by p.id, p.available_quantity""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final ProductStockRepository stockRepository;
+    private final boolean enabled;
+    private final int shardCount;
+
+    public ShardedStockRepository(
+            JdbcTemplate jdbcTemplate,
+            ProductStockRepository stockRepository,
+            @Value("${application.config.stock.sharded.enabled:false}") boolean enabled,
+            @Value("${application.config.stock.sharded.shard-count:8}") int shardCount
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+        this.stockRepository = stockRepository;
+        this.enabled = enabled;
+        this.shardCount = Math.max(1, shardCount);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes each quantity from a randomly picked shard of its product, product after product by ascending id.
+     * When the picked shard holds too little, the product is rebalanced right away, before the next product
+     * is touched: its row and all its shards are locked and, if together they hold enough, the quantity is
+     * taken and the rest spread evenly again. A shard update that matches no row locks nothing, so locks
+     * are only ever taken in ascending order.
+     *
+     * @return the ids of the products left untouched, either unknown or short of stock; the caller has to
+     * roll back when this is not empty
+     */
+    public List<Integer> decrementStock(SortedMap<Integer, Double> quantities) {
+        var random = ThreadLocalRandom.current();
+        var untouched = new ArrayList<Integer>();
+        quantities.forEach((productId, quantity) -> {
+            int updated = jdbcTemplate.update(DECREMENT_SHARD, quantity, productId, random.nextInt(shardCount), quantity);
+            if (updated == 0 && !rebalance(productId, quantity)) {
+                untouched.add(productId);
+            }
+        });
+        return untouched;
+    }
+
+    /**
+     * Gives each quantity back to a randomly picked shard of its product, product after product by
+     * ascending id. A product without that shard gets it back on its own row, which the next rebalance
+     * moves into the shards.
+     *
+     * @return the ids of unknown products
+     */
+    public List<Integer> incrementStock(SortedMap<Integer, Double> quantities) {
+        var random = ThreadLocalRandom.current();
+        var unknown = new ArrayList<Integer>();
+        quantities.forEach((productId, quantity) -> {
+            int updated = jdbcTemplate.update(INCREMENT_SHARD, quantity, productId, random.nextInt(shardCount));
+            if (updated == 0) {
+                unknown.addAll(stockRepository.incrementStock(new TreeMap<>(Map.of(productId, quantity))));
+            }
+        });
+        return unknown;
+    }
+
+    /**
+     * Stock of the given products, their row and their shards added up. Unknown ids are left out.
+     */
+    public Map<Integer, Double> availableQuantities(Collection<Integer> productIds) {
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, Double> quantities = new HashMap<>();
+        namedParameterJdbcTemplate.query(AVAILABLE_QUANTITIES, Map.of("ids", productIds),
+                rs -> {
+                    quantities.put(rs.getInt("id"), rs.getDouble("available_quantity"));
+                });
+        return quantities;
+    }
+
+    /**
+     * Moves the stock of every product into exactly {@code shard-count} shards: products without shards
+     * get them, products sharded under another count are reshaped, so no stock is left in a shard that
+     * purchases no longer pick.
+     */
+    public void shardAll() {
+        var productIds = jdbcTemplate.queryForList("""
+                select p.id from product p
+                left join product_stock_shard s on s.product_id = p.id
+                group by p.id, p.available_quantity
+                having count(s.shard) <> ? or coalesce(max(s.shard), 0) >= ? or p.available_quantity <> 0
+                order by p.id""", Integer.class, shardCount, shardCount);
+        productIds.forEach(productId -> rebalance(productId, 0));
+    }
+
+    /**
+     * Moves the stock held in shards back to the product rows and drops the shards, for when sharding
+     * is switched off.
+     */
+    public void unshardAll() {
+        var productIds = jdbcTemplate.queryForList(
+                "select distinct product_id from product_stock_shard order by product_id", Integer.class);
+        for (Integer productId : productIds) {
+            jdbcTemplate.queryForList("select id from product where id = ? for update", Integer.class, productId);
+            double total = lockShards(productId).values().stream().mapToDouble(Double::doubleValue).sum();
+            jdbcTemplate.update("update product set available_quantity = available_quantity + ? where id = ?", total, productId);
+            jdbcTemplate.update("delete from product_stock_shard where product_id = ?", productId);
+        }
+    }
+
+    /**
+     * Locks the product row, then its shards, and takes {@code quantity} from the stock they hold together.
+     * The rest is spread evenly over shards 0 to {@code shard-count - 1}: missing shards are created, shards
+     * beyond the count are dropped and the product row is left at 0.
+     *
+     * @return false, with nothing changed, for an unknown product or one short of stock
+     */
+    private boolean rebalance(int productId, double quantity) {
+        var stock = jdbcTemplate.queryForList("select available_quantity from product where id = ? for update", Double.class, productId);
+        if (stock.isEmpty()) {
+            return false;
+        }
+        var shards = lockShards(productId);
+        double total = stock.get(0) + shards.values().stream().mapToDouble(Double::doubleValue).sum();
+        if (total < quantity) {
+            return false;
+        }
+        double[] split = split(total - quantity, shardCount);
+        var updated = new ArrayList<Integer>();
+        var created = new ArrayList<Integer>();
+        for (int shard = 0; shard < shardCount; shard++) {
+            (shards.containsKey(shard) ? updated : created).add(shard);
+        }
+        if (!updated.isEmpty()) {
+            jdbcTemplate.batchUpdate(SET_SHARD, updated, updated.size(), (ps, shard) -> {
+                ps.setDouble(1, split[shard]);
+                ps.setInt(2, productId);
+                ps.setInt(3, shard);
+            });
+        }
+        if (!created.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SHARD, created, created.size(), (ps, shard) -> {
+                ps.setInt(1, productId);
+                ps.setInt(2, shard);
+                ps.setDouble(3, split[shard]);
+            });
+        }
+        if (shards.size() > updated.size()) {
+            jdbcTemplate.update("delete from product_stock_shard where product_id = ? and shard >= ?", productId, shardCount);
+        }
+        if (stock.get(0) != 0) {
+            jdbcTemplate.update("update product set available_quantity = 0 where id = ?", productId);
+        }
+        return true;
+    }
+
+    private Map<Integer, Double> lockShards(int productId) {
+        Map<Integer, Double> shards = new LinkedHashMap<>();
+        jdbcTemplate.query(LOCK_SHARDS, rs -> {
+            shards.put(rs.getInt("shard"), rs.getDouble("available_quantity"));
+        }, productId);
+        return shards;
+    }
+
+    /**
+     * Whole units spread evenly, the remainder (fractional part included) going to the first shard.
+     */
+    private static double[] split(double total, int parts) {
+        double[] split = new double[parts];
+        double share = Math.floor(total / parts);
+        Arrays.fill(split, share);
+        split[0] = total - share * (parts - 1);
+        return split;
+    }
+}
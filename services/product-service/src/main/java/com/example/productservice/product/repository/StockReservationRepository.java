@@ -0,0 +1,67 @@
+package com.example.productservice.product.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Purchases keyed by the reference of the caller, so that a release can be sent whenever the outcome
+ * of a purchase is unknown (timeout, cancelled call) without ever giving back stock that was not taken,
+ * or giving it back twice.
+ */
+@Repository
+@RequiredArgsConstructor
+public class StockReservationRepository {
+
+    private static final String INSERT_RESERVATION = """
+            insert into stock_reservation (reference, status)
+            values (?, ?)
+            on conflict (reference) do nothing""";
+
+    private static final String RELEASE_RESERVATION = """
+            update stock_reservation
+            set status = 'RELEASED'
+            where reference = ? and status = 'PURCHASED'""";
+
+    private static final String DELETE_RESERVATIONS = """
+            delete from stock_reservation
+            where reference in (select reference from stock_reservation where created_date < ? limit ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Records the purchase, in the transaction that takes the stock.
+     *
+     * @return false when the reference was already purchased or released, the purchase must then be refused
+     */
+    public boolean reserve(String reference) {
+        return jdbcTemplate.update(INSERT_RESERVATION, reference, "PURCHASED") == 1;
+    }
+
+    /**
+     * Marks the purchase released. When no purchase is known yet the reference is released in advance:
+     * the insert waits for a purchase with the same reference that is still uncommitted, and once it is
+     * in place any later purchase with that reference is refused.
+     *
+     * @return true only when a purchase was released by this call, its stock has to be given back
+     */
+    public boolean release(String reference) {
+        if (jdbcTemplate.update(INSERT_RESERVATION, reference, "RELEASED") == 1) {
+            return false;
+        }
+        return jdbcTemplate.update(RELEASE_RESERVATION, reference) == 1;
+    }
+
+    /**
+     * Deletes at most {@code limit} purchases recorded before the given date, in its own statement so
+     * that a large purge never holds many rows locked at once.
+     *
+     * @return the number of rows deleted, less than the limit once nothing older is left
+     */
+    public int deleteCreatedBefore(LocalDateTime before, int limit) {
+        return jdbcTemplate.update(DELETE_RESERVATIONS, Timestamp.valueOf(before), limit);
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.productservice.product.service;
+
+import com.example.productservice.product.dto.ProductResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of the product catalogue, with the stock kept apart from the rest.
+ * <p>
+ * Name, description, price and category live long in {@code products}; stock lives in
+ * {@code stock}, which expires quickly and loses the products of a purchase or release once it
+ * commits. A cached {@link ProductResponse} carries the last stock it was served with and is
+ * handed out as is, records being immutable; only when the stock has moved is a new response
+ * built, and cached in its place.
+ * <p>
+ * The catalogue listing is a single entry holding the ids of every product, served from
+ * {@code products}; it is therefore only cached while the whole catalogue fits in
+ * {@code maximum-size}. A larger catalogue is loaded from the database on every listing and
+ * left out of {@code products}, rather than evicting the entries of single-product lookups.
+ */
+@Component
+public class ProductCatalogCache {
+
+    private static final String CATALOG = "all";
+
+    private final Cache<Integer, ProductResponse> products;
+    private final Cache<Integer, Double> stock;
+    private final Cache<String, List<Integer>> catalog;
+    private final long maximumSize;
+
+    public ProductCatalogCache(
+            MeterRegistry meterRegistry,
+            @Value("${application.config.product-cache.maximum-size:10000}") long maximumSize,
+            @Value("${application.config.product-cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds,
+            @Value("${application.config.product-cache.stock-expire-after-write-seconds:2}") long stockExpireAfterWriteSeconds
+    ) {
+        this.maximumSize = maximumSize;
+        this.products = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        this.stock = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(stockExpireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        // one entry, the listing; bounded in practice by maximumSize, see getAllProducts
+        this.catalog = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, products, "products");
+        CaffeineCacheMetrics.monitor(meterRegistry, stock, "product-stock");
+        CaffeineCacheMetrics.monitor(meterRegistry, catalog, "product-catalog");
+    }
+
+    /**
+     * Returns the cached product or loads it; a loader returning {@code null} is not cached.
+     * The stock of the returned product is not refreshed, see {@link #withCurrentStock}.
+     */
+    public ProductResponse getProduct(Integer id, Function<Integer, ProductResponse> loader) {
+        return products.get(id, loader);
+    }
+
+    /**
+     * Returns every product, loading the whole catalogue when it is not cached or one of its products was evicted.
+     * A catalogue of more than {@code maximum-size} products is not cached.
+     */
+    public List<ProductResponse> getAllProducts(Supplier<List<ProductResponse>> loader) {
+        var ids = catalog.getIfPresent(CATALOG);
+        if (ids != null) {
+            var cached = products.getAllPresent(ids);
+            if (cached.size() == ids.size()) {
+                return ids.stream().map(cached::get).toList();
+            }
+        }
+        var loaded = loader.get();
+        if (loaded.size() > maximumSize) {
+            return loaded;
+        }
+        var loadedIds = new ArrayList<Integer>(loaded.size());
+        for (var product : loaded) {
+            products.put(product.id(), product);
+            loadedIds.add(product.id());
+        }
+        catalog.put(CATALOG, List.copyOf(loadedIds));
+        return loaded;
+    }
+
+    public ProductResponse withCurrentStock(ProductResponse product, Function<Collection<Integer>, Map<Integer, Double>> stockLoader) {
+        return withCurrentStock(List.of(product), stockLoader).get(0);
+    }
+
+    /**
+     * Gives each product its current stock, loading the quantities missing from the stock cache in one call.
+     */
+    public List<ProductResponse> withCurrentStock(List<ProductResponse> responses, Function<Collection<Integer>, Map<Integer, Double>> stockLoader) {
+        var quantities = stock.getAll(responses.stream().map(ProductResponse::id).toList(), missing -> stockLoader.apply(List.copyOf(missing)));
+        return responses.stream()
+                .map(product -> {
+                    var quantity = quantities.get(product.id());
+                    if (quantity == null || quantity == product.availableQuantity()) {
+                        return product;
+                    }
+                    var refreshed = product.withAvailableQuantity(quantity);
+                    products.asMap().replace(product.id(), product, refreshed);
+                    return refreshed;
+                })
+                .toList();
+    }
+
+    /**
+     * Drops the stock of the given products once the current transaction commits, or right away outside one.
+     */
+    public void evictStockAfterCommit(Collection<Integer> productIds) {
+        afterCommit(() -> stock.invalidateAll(productIds));
+    }
+
+    /**
+     * Drops a product and the catalogue listing once the current transaction commits, or right away outside one.
+     */
+    public void evictProductAfterCommit(Integer productId) {
+        afterCommit(() -> {
+            products.invalidate(productId);
+            stock.invalidate(productId);
+            catalog.invalidateAll();
+        });
+    }
+
+    private static void afterCommit(Runnable eviction) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eviction.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                eviction.run();
+            }
+        });
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.productservice.product.service;
 
 import com.example.productservice.exception.ProductPurchaseException;
+import com.example.productservice.exception.ProductQueryException;
 import com.example.productservice.product.dto.*;
 import com.example.productservice.product.repository.ProductRepository;
+import com.example.productservice.product.repository.ProductStockRepository;
+import com.example.productservice.product.repository.ShardedStockRepository;
+import com.example.productservice.product.repository.StockReservationRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,56 +27,158 @@ import java.util.stream.Collectors;
 public class ProductService {
 
     private final ProductRepository repository;
+    private final ProductStockRepository stockRepository;
+    private final ShardedStockRepository shardedStockRepository;
     private final ProductMapper mapper;
+    private final ProductCatalogCache catalogCache;
+    private final StockReservationRepository reservationRepository;
 
+    private static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "name", "price");
+
+    @Value("${application.config.products.page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${application.config.products.max-page-size:500}")
+    private int maxPageSize;
+
+    /**
+     * Saves the product and the catalogue eviction in one transaction, so that the listing is dropped
+     * only once the new product is visible to the reload.
+     */
+    @Transactional
     public Integer createProduct(
             ProductRequest request
     ) {
         var product = mapper.toProduct(request);
-        return repository.save(product).getId();
+        var id = repository.save(product).getId();
+        catalogCache.evictProductAfterCommit(id);
+        return id;
     }
 
+    /**
+     * Served from {@link ProductCatalogCache}; the stock, which changes with every purchase, is
+     * cached apart and read as row plus shards, so it is right whether sharding is on or off.
+     */
     public ProductResponse findById(Integer id) {
-        return repository.findById(id)
+        var product = catalogCache.getProduct(id, key -> repository.findById(key)
                 .map(mapper::toProductResponse)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with ID:: " + id));
+                .orElse(null));
+        if (product == null) {
+            throw new EntityNotFoundException("Product not found with ID:: " + id);
+        }
+        return catalogCache.withCurrentStock(product, shardedStockRepository::availableQuantities);
     }
 
     public List<ProductResponse> findAll() {
-        return repository.findAll()
+        var products = catalogCache.getAllProducts(() -> repository.findAll()
                 .stream()
                 .map(mapper::toProductResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+        return catalogCache.withCurrentStock(products, shardedStockRepository::availableQuantities);
     }
 
+    /**
+     * One page of products, optionally of a single category, read by a projection query that joins the
+     * category once: one query per page whatever its size, no entity loaded. {@code sort} is
+     * {@code property[,asc|desc]} on id, name or price; the id always breaks ties so pages do not overlap.
+     */
+    @Transactional(readOnly = true)
+    public ProductPageResponse findPage(Integer categoryId, Integer page, Integer size, String sort) {
+        int pageNumber = Math.max(0, page == null ? 0 : page);
+        int pageSize = Math.max(1, Math.min(size == null ? defaultPageSize : size, maxPageSize));
+        var products = repository.findResponses(categoryId, PageRequest.of(pageNumber, pageSize, toSort(sort)));
+        return new ProductPageResponse(products.getContent(), pageNumber, pageSize, products.hasNext());
+    }
+
+    /**
+     * Hands every product, optionally of a single category, to the consumer straight from the JDBC cursor.
+     * Rows are read as projections, never as entities, so memory use does not depend on the table size.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Integer categoryId, Consumer<ProductResponse> consumer) {
+        try (var products = repository.streamResponses(categoryId)) {
+            products.forEach(consumer);
+        }
+    }
+
+    /**
+     * Takes the purchased quantities from stock, all or nothing. Each product is decremented by a
+     * conditional update that only applies while enough stock is left; the updates go to the database
+     * as one batch and, if any of them matched no row, the whole purchase is rolled back.
+     * Quantities asked several times for the same product are added up first.
+     * With sharded stock, each product is taken from one of its shards instead of its own row.
+     * A purchase made with a reference is recorded, and refused when that reference was already
+     * purchased or released (see {@link StockReservationRepository}).
+     */
     @Transactional(rollbackFor = ProductPurchaseException.class)
     public List<ProductPurchaseResponse> purchaseProducts(
+            String reference,
             List<ProductPurchaseRequest> request
     ) {
-        var productIds = request
+        if (reference != null && !reservationRepository.reserve(reference)) {
+            throw new ProductPurchaseException("Stock was already purchased or released for reference:: " + reference);
+        }
+        var purchasedQuantities = request
                 .stream()
-                .map(ProductPurchaseRequest::productId)
-                .toList();
-        var storedProducts = repository.findAllByIdInOrderById(productIds);
-        if (productIds.size() != storedProducts.size()) {
+                .collect(Collectors.toMap(ProductPurchaseRequest::productId, ProductPurchaseRequest::quantity, Double::sum, TreeMap::new));
+        var untouched = shardedStockRepository.isEnabled()
+                ? shardedStockRepository.decrementStock(purchasedQuantities)
+                : stockRepository.decrementStock(purchasedQuantities);
+        var storedProducts = repository.findAllByIdInOrderById(new ArrayList<>(purchasedQuantities.keySet()));
+        if (purchasedQuantities.size() != storedProducts.size()) {
             throw new ProductPurchaseException("One or more products does not exist");
         }
-        var sortedRequest = request
+        if (!untouched.isEmpty()) {
+            throw new ProductPurchaseException("Insufficient stock quantity for product with ID:: " + untouched.get(0));
+        }
+        catalogCache.evictStockAfterCommit(purchasedQuantities.keySet());
+        return storedProducts
                 .stream()
-                .sorted(Comparator.comparing(ProductPurchaseRequest::productId))
+                .map(product -> mapper.toproductPurchaseResponse(product, purchasedQuantities.get(product.getId())))
                 .toList();
-        var purchasedProducts = new ArrayList<ProductPurchaseResponse>();
-        for (int i = 0; i < storedProducts.size(); i++) {
-            var product = storedProducts.get(i);
-            var productRequest = sortedRequest.get(i);
-            if (product.getAvailableQuantity() < productRequest.quantity()) {
-                throw new ProductPurchaseException("Insufficient stock quantity for product with ID:: " + productRequest.productId());
-            }
-            var newAvailableQuantity = product.getAvailableQuantity() - productRequest.quantity();
-            product.setAvailableQuantity(newAvailableQuantity);
-            repository.save(product);
-            purchasedProducts.add(mapper.toproductPurchaseResponse(product, productRequest.quantity()));
+    }
+
+    /**
+     * Gives back stock taken by an earlier purchase, used by order-service to compensate
+     * an order that failed after its products were bought. With a reference the release is
+     * idempotent: it gives stock back only if that purchase was committed and not released yet,
+     * so it can be sent whenever the outcome of the purchase is unknown.
+     */
+    @Transactional(rollbackFor = ProductPurchaseException.class)
+    public void releaseProducts(
+            String reference,
+            List<ProductPurchaseRequest> request
+    ) {
+        if (reference != null && !reservationRepository.release(reference)) {
+            return;
+        }
+        var releasedQuantities = request
+                .stream()
+                .collect(Collectors.toMap(ProductPurchaseRequest::productId, ProductPurchaseRequest::quantity, Double::sum, TreeMap::new));
+        var unknown = shardedStockRepository.isEnabled()
+                ? shardedStockRepository.incrementStock(releasedQuantities)
+                : stockRepository.incrementStock(releasedQuantities);
+        if (!unknown.isEmpty()) {
+            throw new ProductPurchaseException("One or more products does not exist");
+        }
+        catalogCache.evictStockAfterCommit(releasedQuantities.keySet());
+    }
+
+    private static Sort toSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        var parts = sort.split(",");
+        var property = parts[0].trim();
+        if (!SORTABLE_PROPERTIES.contains(property) || parts.length > 2) {
+            throw new ProductQueryException("Cannot sort products by:: " + sort);
+        }
+        var direction = Sort.Direction.ASC;
+        if (parts.length == 2) {
+            direction = Sort.Direction.fromOptionalString(parts[1].trim())
+                    .orElseThrow(() -> new ProductQueryException("Cannot sort products by:: " + sort));
         }
-        return purchasedProducts;
+        var order = Sort.by(direction, property);
+        return property.equals("id") ? order : order.and(Sort.by("id"));
     }
 }
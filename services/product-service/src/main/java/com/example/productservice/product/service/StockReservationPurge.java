@@ -0,0 +1,50 @@
+package com.example.productservice.product.service;
+
+import com.example.productservice.product.repository.StockReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deletes keyed purchases past the retention period, in batches. A reference only has to be kept while a
+ * retry or a release may still arrive for it: past the retention, a purchase retried with the same
+ * reference would be accepted again.
+ */
+@Component
+@Slf4j
+public class StockReservationPurge {
+
+    private final StockReservationRepository reservationRepository;
+    private final long retentionDays;
+    private final int batchSize;
+
+    public StockReservationPurge(
+            StockReservationRepository reservationRepository,
+            @Value("${application.config.stock-reservation.retention-days:7}") long retentionDays,
+            @Value("${application.config.stock-reservation.purge-batch-size:1000}") int batchSize
+    ) {
+        this.reservationRepository = reservationRepository;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.config.stock-reservation.purge-interval-ms:3600000}",
+            fixedDelayString = "${application.config.stock-reservation.purge-interval-ms:3600000}"
+    )
+    public void purge() {
+        var before = LocalDateTime.now().minusDays(retentionDays);
+        int total = 0;
+        int deleted;
+        do {
+            deleted = reservationRepository.deleteCreatedBefore(before, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        if (total > 0) {
+            log.info("Deleted {} stock reservations recorded before {}", total, before);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.productservice.product.service;
+
+import com.example.productservice.product.repository.ShardedStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Brings the stock in line with the configured mode on startup: with sharding on, every product gets
+ * exactly the configured number of shards, so a changed shard count strands no stock; with sharding
+ * off, stock left in shards goes back to the product rows.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class StockShardInitializer {
+
+    private final ShardedStockRepository shardedStockRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void alignStock() {
+        transactionTemplate.executeWithoutResult(status -> {
+            if (shardedStockRepository.isEnabled()) {
+                shardedStockRepository.shardAll();
+            } else {
+                shardedStockRepository.unshardAll();
+            }
+        });
+        log.info("Product stock {}", shardedStockRepository.isEnabled() ? "sharded" : "kept on product rows");
+    }
+}
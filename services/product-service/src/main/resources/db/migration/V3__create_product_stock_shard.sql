@@ -0,0 +1,11 @@
+-- Stock of hot products split across several rows (application.config.stock.sharded.*).
+-- The stock of a product is its available_quantity plus the sum of its shards.
+create table if not exists product_stock_shard
+(
+    product_id         integer          not null
+    constraint fk_product_stock_shard_product
+    references product,
+    shard              integer          not null,
+    available_quantity double precision not null,
+    primary key (product_id, shard)
+    );
@@ -0,0 +1,9 @@
+-- One row per purchase made with a reference (POST /purchase?reference=...).
+-- A release marks it RELEASED; a release that finds no purchase leaves a RELEASED row
+-- behind, so a purchase still in flight for that reference is refused when it arrives.
+create table if not exists stock_reservation
+(
+    reference    varchar(255) not null primary key,
+    status       varchar(20)  not null,
+    created_date timestamp    not null default current_timestamp
+    );
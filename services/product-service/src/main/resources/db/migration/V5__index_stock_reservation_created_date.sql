@@ -0,0 +1,3 @@
+-- Keyed purchases are kept for a retention period only (application.config.stock-reservation.retention-days),
+-- the purge looks them up by age.
+create index if not exists idx_stock_reservation_created_date on stock_reservation (created_date);
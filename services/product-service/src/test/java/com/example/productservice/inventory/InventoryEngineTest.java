@@ -0,0 +1,79 @@
+package com.example.productservice.inventory;
+
+import com.example.productservice.product.dto.ProductPurchaseRequest;
+import com.example.productservice.product.repository.ProductStockRepository;
+import com.example.productservice.product.repository.StockReservationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Start Inventory Engine Test")
+class InventoryEngineTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private ProductStockRepository stockRepository;
+    @Mock private StockReservationRepository reservationRepository;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ResultSet product;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        lenient().when(product.getInt("id")).thenReturn(1);
+        lenient().when(product.getString("name")).thenReturn("Laptop");
+        lenient().when(product.getBigDecimal("price")).thenReturn(BigDecimal.valueOf(1000));
+        lenient().when(product.getDouble("available_quantity")).thenReturn(10.0);
+        lenient().doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(product);
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class));
+    }
+
+    private InventoryEngine engine(boolean shardedStock) {
+        return new InventoryEngine(jdbcTemplate, stockRepository, reservationRepository,
+                new TransactionTemplate(transactionManager), 8, shardedStock);
+    }
+
+    @Test
+    @DisplayName("Should keep the stock changes when the flush transaction cannot start")
+    void shouldKeepChangesWhenTransactionCannotStart() {
+        var engine = engine(false);
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("Connection is not available, request timed out"))
+                .thenReturn(new SimpleTransactionStatus());
+        engine.purchase(null, List.of(new ProductPurchaseRequest(1, 3)));
+
+        engine.flush();
+        engine.flush();
+
+        var expected = new TreeMap<Integer, Double>();
+        expected.put(1, -3.0);
+        verify(stockRepository, times(1)).incrementStock(expected);
+        assertEquals(7, engine.availableQuantity(1));
+    }
+
+    @Test
+    @DisplayName("Should refuse to start together with sharded stock")
+    void shouldRejectShardedStock() {
+        assertThrows(IllegalStateException.class, () -> engine(true));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.productservice.inventory;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Start Striped Inventory Test")
+class StripedInventoryTest {
+
+    private StripedInventory inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new StripedInventory(8);
+        inventory.putIfAbsent(1, 10);
+        inventory.putIfAbsent(2, 5);
+    }
+
+    @Test
+    @DisplayName("Should take every quantity when all products have enough stock")
+    void shouldReserveAllProducts() {
+        int result = inventory.reserve(new int[]{1, 2}, new double[]{3, 5});
+
+        assertEquals(StripedInventory.DONE, result);
+        assertEquals(7, inventory.quantity(1));
+        assertEquals(0, inventory.quantity(2));
+    }
+
+    @Test
+    @DisplayName("Should take nothing when one product is short of stock")
+    void shouldReserveNothingWhenOneProductIsShort() {
+        int result = inventory.reserve(new int[]{1, 2}, new double[]{3, 6});
+
+        assertEquals(1, result);
+        assertEquals(10, inventory.quantity(1));
+        assertEquals(5, inventory.quantity(2));
+    }
+
+    @Test
+    @DisplayName("Should report an unknown product")
+    void shouldReportUnknownProduct() {
+        int result = inventory.reserve(new int[]{1, 42}, new double[]{1, 1});
+
+        assertEquals(1, result);
+        assertFalse(inventory.contains(42));
+        assertTrue(Double.isNaN(inventory.quantity(42)));
+        assertEquals(10, inventory.quantity(1));
+    }
+
+    @Test
+    @DisplayName("Should keep the in-memory quantity of a product loaded twice")
+    void shouldNotOverwriteKnownProduct() {
+        inventory.reserve(new int[]{1}, new double[]{4});
+
+        inventory.putIfAbsent(1, 10);
+
+        assertEquals(6, inventory.quantity(1));
+    }
+
+    @Test
+    @DisplayName("Should drain the net change of each product once")
+    void shouldDrainPendingDeltas() {
+        inventory.reserve(new int[]{1, 2}, new double[]{3, 2});
+        inventory.reserve(new int[]{1}, new double[]{1});
+        inventory.release(new int[]{2}, new double[]{2});
+
+        Map<Integer, Double> drained = new HashMap<>();
+        inventory.drainPending(drained::put);
+        Map<Integer, Double> drainedAgain = new HashMap<>();
+        inventory.drainPending(drainedAgain::put);
+
+        assertEquals(Map.of(1, -4.0), drained);
+        assertTrue(drainedAgain.isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should keep products and pending deltas when a stripe grows")
+    void shouldKeepEntriesWhenGrowing() {
+        for (int productId = 100; productId < 1100; productId++) {
+            inventory.putIfAbsent(productId, productId);
+        }
+        inventory.reserve(new int[]{1, 500}, new double[]{1, 1});
+
+        Map<Integer, Double> drained = new HashMap<>();
+        inventory.drainPending(drained::put);
+
+        assertEquals(499, inventory.quantity(500));
+        assertEquals(1099, inventory.quantity(1099));
+        assertEquals(Map.of(1, -1.0, 500, -1.0), drained);
+    }
+
+    @Test
+    @DisplayName("Should never sell more than the stock under concurrent purchases")
+    void shouldNotOversellUnderContention() throws InterruptedException {
+        inventory.putIfAbsent(3, 1000);
+        AtomicInteger sold = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 2000; i++) {
+            int other = i % 2 == 0 ? 1 : 2;
+            executor.execute(() -> {
+                if (inventory.reserve(new int[]{3}, new double[]{1}) == StripedInventory.DONE) {
+                    sold.incrementAndGet();
+                }
+                inventory.reserve(new int[]{other, 3}, new double[]{0, 0});
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(1000, sold.get());
+        assertEquals(0, inventory.quantity(3));
+    }
+}
@@ -3,22 +3,34 @@ package com.example.productservice.product.service;
 
 
 import com.example.productservice.exception.ProductPurchaseException;
+import com.example.productservice.exception.ProductQueryException;
 import com.example.productservice.product.dto.*;
 
 import com.example.productservice.product.models.Product;
 import com.example.productservice.product.repository.ProductRepository;
+import com.example.productservice.product.repository.ProductStockRepository;
+import com.example.productservice.product.repository.ShardedStockRepository;
+import com.example.productservice.product.repository.StockReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,9 +42,21 @@ class ProductServiceTest {
     @Mock
     private ProductRepository repository;
 
+    @Mock
+    private ProductStockRepository stockRepository;
+
+    @Mock
+    private ShardedStockRepository shardedStockRepository;
+
+    @Mock
+    private StockReservationRepository reservationRepository;
+
     @Mock
     private ProductMapper mapper;
 
+    @Spy
+    private ProductCatalogCache catalogCache = new ProductCatalogCache(new SimpleMeterRegistry(), 1000, 600, 60);
+
     @InjectMocks
     private ProductService productService;
 
@@ -139,6 +163,25 @@ class ProductServiceTest {
             assertTrue(ex.getMessage().contains("Product not found with ID:: 99"));
             verify(repository, times(1)).findById(99);
         }
+
+        @Test
+        @DisplayName("Should serve a product from the cache with its current stock")
+        void shouldServeCachedProductWithCurrentStock() {
+            when(repository.findById(1)).thenReturn(Optional.of(product));
+            when(mapper.toProductResponse(product)).thenReturn(response);
+            when(shardedStockRepository.availableQuantities(List.of(1))).thenReturn(Map.of(1, 10.0), Map.of(1, 7.0));
+
+            ProductResponse first = productService.findById(1);
+            ProductResponse second = productService.findById(1);
+            catalogCache.evictStockAfterCommit(List.of(1));
+            ProductResponse afterPurchase = productService.findById(1);
+
+            assertSame(first, second);
+            assertEquals(10, second.availableQuantity());
+            assertEquals(7, afterPurchase.availableQuantity());
+            assertEquals("Laptop", afterPurchase.name());
+            verify(repository, times(1)).findById(1);
+        }
     }
 
     @Nested
@@ -160,6 +203,21 @@ class ProductServiceTest {
             verify(mapper, times(2)).toProductResponse(any(Product.class));
         }
 
+        @Test
+        @DisplayName("Should not cache a catalogue larger than the product cache")
+        void shouldNotCacheOversizedCatalogue() {
+            var smallCache = new ProductCatalogCache(new SimpleMeterRegistry(), 1, 600, 60);
+            var two = List.of(response, ProductResponse.builder().id(2).name("Mouse").build());
+            var loads = new AtomicInteger();
+
+            smallCache.getAllProducts(() -> { loads.incrementAndGet(); return two; });
+            var results = smallCache.getAllProducts(() -> { loads.incrementAndGet(); return two; });
+
+            assertEquals(two, results);
+            assertEquals(2, loads.get());
+            assertNull(smallCache.getProduct(2, key -> null));
+        }
+
         @Test
         @DisplayName("Should return empty list when no products exist")
         void shouldReturnEmptyList() {
@@ -179,9 +237,10 @@ class ProductServiceTest {
         @Test
         @DisplayName("Should purchase products successfully when stock is sufficient")
         void shouldPurchaseProductsSuccessfully() {
-            List<ProductPurchaseRequest> purchaseRequests = List.of(purchaseRequest1, purchaseRequest2);
+            List<ProductPurchaseRequest> purchaseRequests = List.of(purchaseRequest2, purchaseRequest1);
             List<Product> storedProducts = List.of(product, product2);
 
+            when(stockRepository.decrementStock(new TreeMap<>(Map.of(1, 3.0, 2, 5.0)))).thenReturn(List.of());
             when(repository.findAllByIdInOrderById(List.of(1, 2))).thenReturn(storedProducts);
             when(mapper.toproductPurchaseResponse(any(Product.class), anyDouble()))
                     .thenAnswer(invocation -> {
@@ -196,20 +255,38 @@ class ProductServiceTest {
                         );
                     });
 
-            List<ProductPurchaseResponse> result = productService.purchaseProducts(purchaseRequests);
+            List<ProductPurchaseResponse> result = productService.purchaseProducts(null, purchaseRequests);
 
             assertEquals(2, result.size());
-            verify(repository, times(2)).save(any(Product.class));
+            assertEquals(3, result.get(0).quantity());
+            assertEquals(5, result.get(1).quantity());
+            verify(repository, never()).save(any(Product.class));
+        }
+
+        @Test
+        @DisplayName("Should merge quantities of a product requested several times")
+        void shouldMergeDuplicateProducts() {
+            List<ProductPurchaseRequest> requests = List.of(purchaseRequest1, new ProductPurchaseRequest(1, 4));
+            when(stockRepository.decrementStock(new TreeMap<>(Map.of(1, 7.0)))).thenReturn(List.of());
+            when(repository.findAllByIdInOrderById(List.of(1))).thenReturn(List.of(product));
+            when(mapper.toproductPurchaseResponse(product, 7.0))
+                    .thenReturn(new ProductPurchaseResponse(1, "Laptop", "Dell XPS 13", BigDecimal.valueOf(1500.0), 7.0));
+
+            List<ProductPurchaseResponse> result = productService.purchaseProducts(null, requests);
+
+            assertEquals(1, result.size());
+            assertEquals(7, result.get(0).quantity());
         }
 
         @Test
         @DisplayName("Should throw exception when product does not exist")
         void shouldThrowExceptionWhenProductMissing() {
             List<ProductPurchaseRequest> requests = List.of(purchaseRequest1);
+            when(stockRepository.decrementStock(any())).thenReturn(List.of(1));
             when(repository.findAllByIdInOrderById(List.of(1))).thenReturn(Collections.emptyList());
 
             ProductPurchaseException ex = assertThrows(ProductPurchaseException.class,
-                    () -> productService.purchaseProducts(requests));
+                    () -> productService.purchaseProducts(null, requests));
 
             assertTrue(ex.getMessage().contains("One or more products does not exist"));
             verify(repository, times(1)).findAllByIdInOrderById(List.of(1));
@@ -218,14 +295,166 @@ class ProductServiceTest {
         @Test
         @DisplayName("Should throw exception when stock is insufficient")
         void shouldThrowExceptionWhenInsufficientStock() {
-            List<ProductPurchaseRequest> requests = List.of(new ProductPurchaseRequest(1, 20));
-            when(repository.findAllByIdInOrderById(List.of(1))).thenReturn(List.of(product));
+            List<ProductPurchaseRequest> requests = List.of(purchaseRequest1, new ProductPurchaseRequest(2, 30));
+            when(stockRepository.decrementStock(any())).thenReturn(List.of(2));
+            when(repository.findAllByIdInOrderById(List.of(1, 2))).thenReturn(List.of(product, product2));
 
             ProductPurchaseException ex = assertThrows(ProductPurchaseException.class,
-                    () -> productService.purchaseProducts(requests));
+                    () -> productService.purchaseProducts(null, requests));
 
-            assertTrue(ex.getMessage().contains("Insufficient stock quantity"));
-            verify(repository, times(1)).findAllByIdInOrderById(List.of(1));
+            assertTrue(ex.getMessage().contains("Insufficient stock quantity for product with ID:: 2"));
+            verify(mapper, never()).toproductPurchaseResponse(any(Product.class), anyDouble());
+        }
+
+        @Test
+        @DisplayName("Should refuse a purchase whose reference was already purchased or released")
+        void shouldRefuseReusedReference() {
+            when(reservationRepository.reserve("ORD-1")).thenReturn(false);
+
+            ProductPurchaseException ex = assertThrows(ProductPurchaseException.class,
+                    () -> productService.purchaseProducts("ORD-1", List.of(purchaseRequest1)));
+
+            assertTrue(ex.getMessage().contains("ORD-1"));
+            verify(stockRepository, never()).decrementStock(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Testing Release Products Method ...")
+    class ReleaseProducts {
+
+        @Test
+        @DisplayName("Should give back purchased quantities, merging duplicate products")
+        void shouldReleaseProducts() {
+            List<ProductPurchaseRequest> requests = List.of(
+                    purchaseRequest1, purchaseRequest2, new ProductPurchaseRequest(1, 2));
+            when(stockRepository.incrementStock(any())).thenReturn(List.of());
+
+            productService.releaseProducts(null, requests);
+
+            verify(stockRepository, times(1)).incrementStock(new TreeMap<>(Map.of(1, 5.0, 2, 5.0)));
+            verify(repository, never()).saveAll(anyList());
+        }
+
+        @Test
+        @DisplayName("Should throw exception when a released product does not exist")
+        void shouldThrowExceptionWhenReleasedProductMissing() {
+            when(stockRepository.incrementStock(any())).thenReturn(List.of(1));
+
+            assertThrows(ProductPurchaseException.class,
+                    () -> productService.releaseProducts(null, List.of(purchaseRequest1)));
+        }
+
+        @Test
+        @DisplayName("Should give back stock of a referenced purchase only once")
+        void shouldReleaseReferencedPurchaseOnce() {
+            when(reservationRepository.release("ORD-1")).thenReturn(true, false);
+            when(stockRepository.incrementStock(any())).thenReturn(List.of());
+
+            productService.releaseProducts("ORD-1", List.of(purchaseRequest1));
+            productService.releaseProducts("ORD-1", List.of(purchaseRequest1));
+
+            verify(stockRepository, times(1)).incrementStock(new TreeMap<>(Map.of(1, 3.0)));
+        }
+
+        @Test
+        @DisplayName("Should give nothing back when the referenced purchase never happened")
+        void shouldIgnoreReleaseOfUnknownPurchase() {
+            when(reservationRepository.release("ORD-2")).thenReturn(false);
+
+            productService.releaseProducts("ORD-2", List.of(purchaseRequest1));
+
+            verify(stockRepository, never()).incrementStock(any());
+            verify(shardedStockRepository, never()).incrementStock(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Testing Sharded Stock ...")
+    class ShardedStock {
+
+        @BeforeEach
+        void enableSharding() {
+            when(shardedStockRepository.isEnabled()).thenReturn(true);
+        }
+
+        @Test
+        @DisplayName("Should take purchased quantities from the shards")
+        void shouldPurchaseFromShards() {
+            when(shardedStockRepository.decrementStock(new TreeMap<>(Map.of(1, 3.0)))).thenReturn(List.of());
+            when(repository.findAllByIdInOrderById(List.of(1))).thenReturn(List.of(product));
+            when(mapper.toproductPurchaseResponse(product, 3.0))
+                    .thenReturn(new ProductPurchaseResponse(1, "Laptop", "Dell XPS 13", BigDecimal.valueOf(1500.0), 3.0));
+
+            List<ProductPurchaseResponse> result = productService.purchaseProducts(null, List.of(purchaseRequest1));
+
+            assertEquals(1, result.size());
+            verify(stockRepository, never()).decrementStock(any());
+        }
+
+        @Test
+        @DisplayName("Should give released quantities back to the shards")
+        void shouldReleaseToShards() {
+            when(shardedStockRepository.incrementStock(any())).thenReturn(List.of());
+
+            productService.releaseProducts(null, List.of(purchaseRequest1));
+
+            verify(shardedStockRepository, times(1)).incrementStock(new TreeMap<>(Map.of(1, 3.0)));
+            verify(stockRepository, never()).incrementStock(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Testing Find Page Method ...")
+    class FindPage {
+
+        @BeforeEach
+        void setPageSizes() {
+            ReflectionTestUtils.setField(productService, "defaultPageSize", 50);
+            ReflectionTestUtils.setField(productService, "maxPageSize", 500);
+        }
+
+        @Test
+        @DisplayName("Should return one page of products with the next page flag")
+        void shouldReturnPage() {
+            ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+            when(repository.findResponses(eq(3), pageable.capture()))
+                    .thenReturn(new SliceImpl<>(List.of(response), Pageable.ofSize(1), true));
+
+            ProductPageResponse result = productService.findPage(3, 2, null, null);
+
+            assertEquals(List.of(response), result.content());
+            assertEquals(2, result.page());
+            assertEquals(50, result.size());
+            assertTrue(result.hasNext());
+            assertEquals(2, pageable.getValue().getPageNumber());
+            assertEquals(50, pageable.getValue().getPageSize());
+            assertEquals(Sort.by("id"), pageable.getValue().getSort());
+        }
+
+        @Test
+        @DisplayName("Should cap the page size and break sort ties on the id")
+        void shouldCapSizeAndSortById() {
+            ArgumentCaptor<Pageable> pageable = ArgumentCaptor.forClass(Pageable.class);
+            when(repository.findResponses(isNull(), pageable.capture()))
+                    .thenReturn(new SliceImpl<>(List.of()));
+
+            ProductPageResponse result = productService.findPage(null, null, 10_000, "price,desc");
+
+            assertEquals(500, result.size());
+            assertFalse(result.hasNext());
+            assertEquals(500, pageable.getValue().getPageSize());
+            assertEquals(Sort.by(Sort.Direction.DESC, "price").and(Sort.by("id")), pageable.getValue().getSort());
+        }
+
+        @Test
+        @DisplayName("Should reject a sort on an unknown property")
+        void shouldRejectUnknownSort() {
+            ProductQueryException ex = assertThrows(ProductQueryException.class,
+                    () -> productService.findPage(null, 0, 20, "availableQuantity,asc"));
+
+            assertTrue(ex.getMessage().contains("availableQuantity"));
+            verify(repository, never()).findResponses(any(), any());
         }
     }
 }
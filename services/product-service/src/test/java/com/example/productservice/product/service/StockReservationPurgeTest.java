@@ -0,0 +1,36 @@
+package com.example.productservice.product.service;
+
+import com.example.productservice.product.repository.StockReservationRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Start Stock Reservation Purge Test")
+class StockReservationPurgeTest {
+
+    @Mock private StockReservationRepository reservationRepository;
+
+    @Test
+    @DisplayName("Should delete reservations past the retention in batches until fewer than a batch are left")
+    void shouldDeleteInBatches() {
+        var purge = new StockReservationPurge(reservationRepository, 7, 100);
+        when(reservationRepository.deleteCreatedBefore(any(LocalDateTime.class), eq(100))).thenReturn(100, 100, 12);
+
+        purge.purge();
+
+        var before = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(reservationRepository, times(3)).deleteCreatedBefore(before.capture(), eq(100));
+        assertTrue(before.getValue().isBefore(LocalDateTime.now().minusDays(7).plusMinutes(1)));
+        assertTrue(before.getValue().isAfter(LocalDateTime.now().minusDays(7).minusMinutes(1)));
+    }
+}